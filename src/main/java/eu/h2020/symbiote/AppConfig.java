@@ -2,6 +2,7 @@ package eu.h2020.symbiote;
 
 import com.mongodb.Mongo;
 import com.mongodb.MongoClient;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.sleuth.sampler.AlwaysSampler;
 import org.springframework.context.annotation.Bean;
@@ -37,6 +38,11 @@ class AppConfig extends AbstractMongoConfiguration {
         return new MongoTemplate(new MongoClient(mongoHost), getDatabaseName());
     }
 
+    @Bean
+    public RegistryCodecs registryCodecs() {
+        return RegistryCodecs.getInstance();
+    }
+
     @Bean
     public AlwaysSampler defaultSampler() {
         return new AlwaysSampler();
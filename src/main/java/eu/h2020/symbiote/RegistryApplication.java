@@ -1,7 +1,11 @@
 package eu.h2020.symbiote;
 
 import eu.h2020.symbiote.core.internal.RDFFormat;
+import eu.h2020.symbiote.managers.InformationModelReplyCache;
+import eu.h2020.symbiote.managers.InterworkingServiceIndex;
 import eu.h2020.symbiote.managers.RabbitManager;
+import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.managers.ResourceCompensationScheduler;
 import eu.h2020.symbiote.model.mim.InformationModel;
 import eu.h2020.symbiote.repository.InformationModelRepository;
 import org.apache.commons.io.IOUtils;
@@ -47,17 +51,38 @@ public class RegistryApplication {
 
         private final RabbitManager rabbitManager;
 
+        private final RepositoryManager repositoryManager;
+
         private final InformationModelRepository informationModelRepository;
 
+        private final InterworkingServiceIndex interworkingServiceIndex;
+
+        private final InformationModelReplyCache informationModelReplyCache;
+
+        private final ResourceCompensationScheduler resourceCompensationScheduler;
+
         @Autowired
-        public CLR(RabbitManager rabbitManager, InformationModelRepository informationModelRepository) {
+        public CLR(RabbitManager rabbitManager, RepositoryManager repositoryManager,
+                   InformationModelRepository informationModelRepository,
+                   InterworkingServiceIndex interworkingServiceIndex,
+                   InformationModelReplyCache informationModelReplyCache,
+                   ResourceCompensationScheduler resourceCompensationScheduler) {
             this.rabbitManager = rabbitManager;
+            this.repositoryManager = repositoryManager;
             this.informationModelRepository = informationModelRepository;
+            this.interworkingServiceIndex = interworkingServiceIndex;
+            this.informationModelReplyCache = informationModelReplyCache;
+            this.resourceCompensationScheduler = resourceCompensationScheduler;
         }
 
         @Override
         public void run(String... args) throws Exception {
-//
+            this.repositoryManager.ensureIndexes();
+            this.interworkingServiceIndex.rebuild();
+
+            //bulk resource operations interrupted by previous shutdown, then periodically
+            this.resourceCompensationScheduler.start();
+
             //message retrieval - start rabbit exchange and consumers
             this.rabbitManager.init();
             this.rabbitManager.startConsumers();
@@ -69,6 +94,7 @@ public class RegistryApplication {
                         .getResourceAsStream(bimLocation), Charset.defaultCharset());
                 InformationModel bim = getBIM(bimRdf);
                 informationModelRepository.save(bim);
+                informationModelReplyCache.invalidate();
             }
 
         }
@@ -15,6 +15,7 @@ import eu.h2020.symbiote.security.commons.exceptions.custom.InvalidArgumentsExce
 import eu.h2020.symbiote.security.commons.exceptions.custom.SecurityHandlerException;
 import eu.h2020.symbiote.security.communication.payloads.SecurityRequest;
 import eu.h2020.symbiote.security.handler.IComponentSecurityHandler;
+import eu.h2020.symbiote.security.helpers.MutualAuthenticationHelper;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,6 +39,10 @@ public class AuthorizationManager {
 
     private IComponentSecurityHandler componentSecurityHandler;
     private PlatformRepository platformRepository;
+    private PlatformCache platformCache;
+    private InterworkingServiceIndex interworkingServiceIndex;
+    private TokenVerificationCache tokenVerificationCache;
+    private ServiceResponseCache serviceResponseCache;
 
     // Fields for tests purposes
     private String aamAddress;
@@ -80,6 +85,51 @@ public class AuthorizationManager {
         }
     }
 
+    /**
+     * Sets cache of Platforms checked when resources are authorized. Without it the Platform Repository is read.
+     *
+     * @param platformCache shared Platform cache
+     */
+    @Autowired
+    public void setPlatformCache(PlatformCache platformCache) {
+        this.platformCache = platformCache;
+    }
+
+    /**
+     * Sets index resolving owners of Interworking Service URLs, so that ownership of every resource is checked
+     * with a hash lookup.
+     *
+     * @param interworkingServiceIndex shared Interworking Service index
+     */
+    @Autowired
+    public void setInterworkingServiceIndex(InterworkingServiceIndex interworkingServiceIndex) {
+        this.interworkingServiceIndex = interworkingServiceIndex;
+    }
+
+    /**
+     * Sets cache of successful token verifications. Without it every request is verified by the security handler.
+     *
+     * @param tokenVerificationCache shared token verification cache
+     */
+    @Autowired
+    public void setTokenVerificationCache(TokenVerificationCache tokenVerificationCache) {
+        this.tokenVerificationCache = tokenVerificationCache;
+    }
+
+    /**
+     * Sets cache of the signed service response, so that replies reuse a recently signed response instead of
+     * signing a new one each.
+     *
+     * @param serviceResponseCache shared service response cache
+     */
+    @Autowired
+    public void setServiceResponseCache(ServiceResponseCache serviceResponseCache) {
+        this.serviceResponseCache = serviceResponseCache;
+        if (securityEnabled && componentSecurityHandler != null) {
+            serviceResponseCache.setSigner(componentSecurityHandler::generateServiceResponse);
+        }
+    }
+
     public AuthorizationResult checkSinglePlatformOperationAccess(SecurityRequest securityRequest, String platformId) {
         Set<String> ids = new HashSet<>();
 
@@ -134,6 +184,17 @@ public class AuthorizationManager {
 
     private Set<String> checkPolicies(SecurityRequest securityRequest, Set<String> platformIds, String componentId) {
 
+        String verificationKey = null;
+        if (tokenVerificationCache != null) {
+            verificationKey = tokenVerificationCache.keyOf(securityRequest, platformIds, componentId);
+            Set<String> cachedPoliciesIdentifiers = tokenVerificationCache.get(verificationKey);
+            //cache holds only verification of the tokens, timestamp and challenges are new in every request
+            if (cachedPoliciesIdentifiers != null && isSecurityRequestFresh(securityRequest)) {
+                log.debug("Token verification for platformIds: " + platformIds + " found in cache");
+                return cachedPoliciesIdentifiers;
+            }
+        }
+
         Map<String, IAccessPolicy> accessPoliciesMap = new HashMap<>();
         Set<String> satisfiedPoliciesIdentifiers;
 
@@ -151,11 +212,33 @@ public class AuthorizationManager {
 
         printSecurityRequest(securityRequest);
         satisfiedPoliciesIdentifiers = componentSecurityHandler.getSatisfiedPoliciesIdentifiers(accessPoliciesMap, securityRequest);
+        if (tokenVerificationCache != null) {
+            tokenVerificationCache.put(verificationKey, securityRequest, platformIds, satisfiedPoliciesIdentifiers);
+            if ((satisfiedPoliciesIdentifiers == null || satisfiedPoliciesIdentifiers.isEmpty())
+                    && securityRequest.getSecurityCredentials() != null) {
+                //token which fails verification may have been revoked, so it is not trusted for other requests either
+                securityRequest.getSecurityCredentials()
+                        .forEach(credential -> tokenVerificationCache.revokeToken(credential.getToken()));
+            }
+        }
 
 
         return satisfiedPoliciesIdentifiers;
     }
 
+    /**
+     * Checks timestamp and authentication challenges of the request against the tokens it carries, without
+     * validating the tokens themselves.
+     */
+    private boolean isSecurityRequestFresh(SecurityRequest securityRequest) {
+        try {
+            return MutualAuthenticationHelper.isSecurityRequestVerified(securityRequest);
+        } catch (Exception e) {
+            log.debug("Security request timestamp or challenge invalid: " + e);
+            return false;
+        }
+    }
+
     private void printSecurityRequest(SecurityRequest securityRequest) {
         log.debug("SecurityRequest:");
         log.debug("header params:");
@@ -177,7 +260,8 @@ public class AuthorizationManager {
         String serviceResponse = "";
         try {
             if (securityEnabled) {
-                serviceResponse = componentSecurityHandler.generateServiceResponse();
+                serviceResponse = serviceResponseCache != null
+                        ? serviceResponseCache.get() : componentSecurityHandler.generateServiceResponse();
             }
         } catch (Exception e) {
             log.error(e);
@@ -186,7 +270,8 @@ public class AuthorizationManager {
     }
 
     public AuthorizationResult checkIfResourcesBelongToPlatform(Map<String, Resource> resources, String platformId) {
-        Platform registryPlatform = platformRepository.findOne(platformId);
+        Platform registryPlatform = platformCache != null
+                ? platformCache.get(platformId) : platformRepository.findOne(platformId);
 
         if (registryPlatform == null) {
             log.error("Given platform does not exists in database. Platform ID: " + platformId);
@@ -200,10 +285,12 @@ public class AuthorizationManager {
             return new AuthorizationResult("Interworking services list in given platform is null or empty", false);
         }
 
-        List<String> platformInterworkingServicesUrls = new ArrayList<>();
-        interworkingServices.stream()
-                .map(InterworkingService::getUrl).forEach(serviceUrl -> platformInterworkingServicesUrls.add(serviceUrl.endsWith("/") ? serviceUrl : serviceUrl + "/"));
-        //stream adds slash ("/") at the end of url if there was not one already
+        Set<String> platformInterworkingServicesUrls = new HashSet<>();
+        if (interworkingServiceIndex == null) {
+            interworkingServices.stream()
+                    .map(InterworkingService::getUrl).forEach(serviceUrl -> platformInterworkingServicesUrls.add(serviceUrl.endsWith("/") ? serviceUrl : serviceUrl + "/"));
+            //stream adds slash ("/") at the end of url if there was not one already
+        }
 
         if (resources != null) {
             for (String key : resources.keySet()) {
@@ -214,10 +301,16 @@ public class AuthorizationManager {
                     return new AuthorizationResult("Resource has a null Interworking service URL!", false);
                 }
 
-                if (!resourceInterworkingServiceUrl.endsWith("/")) {
-                    resourceInterworkingServiceUrl += "/";
+                boolean matches;
+                if (interworkingServiceIndex != null) {
+                    matches = interworkingServiceIndex.findPlatformService(platformId, resourceInterworkingServiceUrl) != null;
+                } else {
+                    if (!resourceInterworkingServiceUrl.endsWith("/")) {
+                        resourceInterworkingServiceUrl += "/";
+                    }
+                    matches = platformInterworkingServicesUrls.contains(resourceInterworkingServiceUrl);
                 }
-                if (!platformInterworkingServicesUrls.contains(resourceInterworkingServiceUrl)) {
+                if (!matches) {
                     log.error("Resource does not match with any Interworking Service in given platform!");
                     return new AuthorizationResult("Resource does not match with any Interworking Service in given platform!", false);
                 }
@@ -0,0 +1,208 @@
+package eu.h2020.symbiote.managers;
+
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches Rabbit connection of the Registry and keeps track of its outages.
+ * <p>
+ * Connections created with automatic recovery enabled are recovered by the Rabbit client itself (including exchanges,
+ * queues, bindings and consumers declared on them) - this class only records the downtime and counts recoveries.
+ * When the connection could not be created at all, or was lost without being recoverable, the reconnection action
+ * is run with exponential backoff and random jitter until it succeeds, so that all nodes do not reconnect
+ * to the broker at the same moment.
+ */
+public class ConnectionRecoveryManager implements ShutdownListener, RecoveryListener {
+
+    private static Log log = LogFactory.getLog(ConnectionRecoveryManager.class);
+    private final Reconnection reconnection;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledExecutorService reconnectScheduler;
+    private final AtomicBoolean reconnecting = new AtomicBoolean(false);
+    private final AtomicInteger recoveryCount = new AtomicInteger();
+    private final AtomicInteger failedReconnectAttempts = new AtomicInteger();
+    private final AtomicLong totalDowntimeMillis = new AtomicLong();
+    private volatile long lastDowntimeMillis;
+    private volatile long downSince;
+    private volatile Connection connection;
+
+    /**
+     * Action re-creating the connection together with exchanges, queues and consumers of the Registry.
+     */
+    public interface Reconnection {
+        void reconnect() throws Exception;
+    }
+
+    /**
+     * @param reconnection         action run when the connection has to be re-created
+     * @param initialBackoffMillis delay before the first reconnection attempt
+     * @param maxBackoffMillis     maximum delay between reconnection attempts
+     */
+    public ConnectionRecoveryManager(Reconnection reconnection, long initialBackoffMillis, long maxBackoffMillis) {
+        this.reconnection = reconnection;
+        this.initialBackoffMillis = initialBackoffMillis > 0 ? initialBackoffMillis : 1000;
+        this.maxBackoffMillis = Math.max(maxBackoffMillis, this.initialBackoffMillis);
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("rabbit-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts watching given connection.
+     *
+     * @param connection newly created connection
+     */
+    public void attach(Connection connection) {
+        this.connection = connection;
+        connection.addShutdownListener(this);
+        if (connection instanceof Recoverable) {
+            ((Recoverable) connection).addRecoveryListener(this);
+        }
+        if (this.downSince > 0 && !this.reconnecting.get()) {
+            markUp();
+        }
+    }
+
+    /**
+     * Reports that the connection could not be created. Schedules reconnection, unless it is already scheduled.
+     */
+    public void connectionFailed() {
+        if (this.reconnecting.compareAndSet(false, true)) {
+            markDown();
+            scheduleReconnect(0);
+        }
+    }
+
+    /**
+     * Returns delay before given reconnection attempt - exponential backoff with half of it randomised.
+     *
+     * @param attempt number of failed attempts so far
+     * @return delay in milliseconds
+     */
+    public long getBackoffMillis(int attempt) {
+        long backoff = this.maxBackoffMillis;
+        if (attempt < 30) {
+            backoff = Math.min(this.initialBackoffMillis << attempt, this.maxBackoffMillis);
+        }
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    @Override
+    public void shutdownCompleted(ShutdownSignalException cause) {
+        if (cause.isInitiatedByApplication()) {
+            return;
+        }
+        log.error("Rabbit connection lost: " + cause.getMessage());
+        if (this.connection instanceof Recoverable) {
+            markDown();
+            log.info("Waiting for automatic recovery of Rabbit connection");
+        } else {
+            connectionFailed();
+        }
+    }
+
+    @Override
+    public void handleRecovery(Recoverable recoverable) {
+        markUp();
+    }
+
+    // present only in newer versions of RecoveryListener, so not marked with @Override
+    public void handleRecoveryStarted(Recoverable recoverable) {
+        log.info("Automatic recovery of Rabbit connection started");
+    }
+
+    /**
+     * @return number of successful recoveries of the connection
+     */
+    public int getRecoveryCount() {
+        return recoveryCount.get();
+    }
+
+    /**
+     * @return number of reconnection attempts which failed
+     */
+    public int getFailedReconnectAttempts() {
+        return failedReconnectAttempts.get();
+    }
+
+    /**
+     * @return summed time in milliseconds the connection was down, including current outage
+     */
+    public long getTotalDowntimeMillis() {
+        long since = this.downSince;
+        return totalDowntimeMillis.get() + (since > 0 ? System.currentTimeMillis() - since : 0);
+    }
+
+    /**
+     * @return duration of the last finished outage in milliseconds
+     */
+    public long getLastDowntimeMillis() {
+        return lastDowntimeMillis;
+    }
+
+    /**
+     * @return true if the connection is not down at the moment
+     */
+    public boolean isConnected() {
+        return this.downSince == 0;
+    }
+
+    /**
+     * Stops scheduled reconnection attempts.
+     */
+    public void shutdown() {
+        reconnectScheduler.shutdownNow();
+    }
+
+    private void scheduleReconnect(int attempt) {
+        long delay = getBackoffMillis(attempt);
+        log.info("Reconnecting to Rabbit in " + delay + " ms (attempt " + (attempt + 1) + ")");
+        reconnectScheduler.schedule(() -> attemptReconnect(attempt), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void attemptReconnect(int attempt) {
+        try {
+            this.reconnection.reconnect();
+            this.reconnecting.set(false);
+            markUp();
+        } catch (Exception e) {
+            failedReconnectAttempts.incrementAndGet();
+            log.error("Reconnection to Rabbit failed: " + e.getMessage());
+            scheduleReconnect(attempt + 1);
+        }
+    }
+
+    private synchronized void markDown() {
+        if (this.downSince == 0) {
+            this.downSince = System.currentTimeMillis();
+        }
+    }
+
+    private synchronized void markUp() {
+        if (this.downSince == 0) {
+            return;
+        }
+        this.lastDowntimeMillis = System.currentTimeMillis() - this.downSince;
+        this.totalDowntimeMillis.addAndGet(this.lastDowntimeMillis);
+        this.downSince = 0;
+        log.info("Rabbit connection recovered after " + this.lastDowntimeMillis + " ms (recoveries so far: "
+                + recoveryCount.incrementAndGet() + ", total downtime: " + totalDowntimeMillis.get() + " ms)");
+    }
+}
@@ -0,0 +1,188 @@
+package eu.h2020.symbiote.managers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.h2020.symbiote.core.internal.FederationListResponse;
+import eu.h2020.symbiote.model.mim.Federation;
+import eu.h2020.symbiote.model.mim.FederationMember;
+import eu.h2020.symbiote.repository.FederationRepository;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of all Federations with an inverted index from platform id to the Federations the platform is
+ * a member of. Replies to requests for all Federations and for Federations of a platform are serialized once
+ * per version of the Federations and then reused.
+ * <p>
+ * Federations are read from the database on first use. Federation writes of this node update the index,
+ * federation events of other Registry nodes drop it, so it is read again on next use.
+ */
+@Component
+public class FederationIndex {
+
+    private static Log log = LogFactory.getLog(FederationIndex.class);
+    private final FederationRepository federationRepository;
+    private final RegistryCodecs codecs;
+    private volatile Snapshot snapshot;
+    private long version;
+
+    @Autowired
+    public FederationIndex(FederationRepository federationRepository, RegistryCodecs codecs) {
+        this.federationRepository = federationRepository;
+        this.codecs = codecs;
+    }
+
+    /**
+     * @return version of the Federations, increased on every change
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return all Federations
+     */
+    public List<Federation> getAllFederations() {
+        return new ArrayList<>(getSnapshot().federations.values());
+    }
+
+    /**
+     * @param platformId id of the platform
+     * @return Federations given platform is a member of
+     */
+    public List<Federation> getFederationsForPlatform(String platformId) {
+        return new ArrayList<>(getSnapshot().federationsByPlatform.getOrDefault(platformId, Collections.emptyList()));
+    }
+
+    /**
+     * @return serialized FederationListResponse with all Federations
+     * @throws JsonProcessingException if the reply could not be serialized
+     */
+    public byte[] getAllFederationsReply() throws JsonProcessingException {
+        Snapshot current = getSnapshot();
+        byte[] reply = current.allFederationsReply;
+        if (reply == null) {
+            reply = serialize(current.federations.values());
+            current.allFederationsReply = reply;
+        }
+        return reply;
+    }
+
+    /**
+     * @param platformId id of the platform
+     * @return serialized FederationListResponse with Federations given platform is a member of
+     * @throws JsonProcessingException if the reply could not be serialized
+     */
+    public byte[] getFederationsForPlatformReply(String platformId) throws JsonProcessingException {
+        Snapshot current = getSnapshot();
+        // platforms without Federations share the reply with an empty list
+        String key = platformId != null && current.federationsByPlatform.containsKey(platformId) ? platformId : "";
+        byte[] reply = current.platformReplies.get(key);
+        if (reply == null) {
+            reply = serialize(current.federationsByPlatform.getOrDefault(key, Collections.emptyList()));
+            current.platformReplies.put(key, reply);
+        }
+        return reply;
+    }
+
+    /**
+     * Puts saved or modified Federation into the index.
+     *
+     * @param federation stored Federation
+     */
+    public synchronized void put(Federation federation) {
+        if (this.snapshot != null && federation != null && federation.getId() != null) {
+            Map<String, Federation> federations = new LinkedHashMap<>(this.snapshot.federations);
+            federations.put(federation.getId(), federation);
+            this.snapshot = new Snapshot(federations);
+            this.version++;
+        }
+    }
+
+    /**
+     * Removes Federation with given id from the index.
+     *
+     * @param federationId id of the removed Federation
+     */
+    public synchronized void remove(String federationId) {
+        if (this.snapshot != null && this.snapshot.federations.containsKey(federationId)) {
+            Map<String, Federation> federations = new LinkedHashMap<>(this.snapshot.federations);
+            federations.remove(federationId);
+            this.snapshot = new Snapshot(federations);
+            this.version++;
+        }
+    }
+
+    /**
+     * Drops the index, so that Federations are read from the database on next use.
+     */
+    public synchronized void invalidate() {
+        this.snapshot = null;
+        this.version++;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = this.snapshot;
+        return current != null ? current : load();
+    }
+
+    private synchronized Snapshot load() {
+        if (this.snapshot == null) {
+            Map<String, Federation> federations = new LinkedHashMap<>();
+            for (Federation federation : federationRepository.findAll()) {
+                federations.put(federation.getId(), federation);
+            }
+            this.snapshot = new Snapshot(federations);
+            log.info("Federation index loaded with " + federations.size() + " federations");
+        }
+        return this.snapshot;
+    }
+
+    private byte[] serialize(Collection<Federation> federations) throws JsonProcessingException {
+        FederationListResponse response = new FederationListResponse();
+        response.setStatus(HttpStatus.SC_OK);
+        response.setMessage("OK. " + federations.size() + " federations found!");
+        response.setBody(new ArrayList<>(federations));
+        return codecs.writeAsBytes(response);
+    }
+
+    // immutable view of the Federations; only serialized replies are added to it lazily
+    private static class Snapshot {
+        private final Map<String, Federation> federations;
+        private final Map<String, List<Federation>> federationsByPlatform;
+        private final Map<String, byte[]> platformReplies = new ConcurrentHashMap<>();
+        private volatile byte[] allFederationsReply;
+
+        private Snapshot(Map<String, Federation> federations) {
+            this.federations = Collections.unmodifiableMap(federations);
+            Map<String, List<Federation>> byPlatform = new HashMap<>();
+            for (Federation federation : federations.values()) {
+                if (federation.getMembers() == null) {
+                    continue;
+                }
+                for (FederationMember member : federation.getMembers()) {
+                    if (member != null && member.getPlatformId() != null) {
+                        List<Federation> platformFederations =
+                                byPlatform.computeIfAbsent(member.getPlatformId(), id -> new ArrayList<>());
+                        if (!platformFederations.contains(federation)) {
+                            platformFederations.add(federation);
+                        }
+                    }
+                }
+            }
+            this.federationsByPlatform = byPlatform;
+        }
+    }
+}
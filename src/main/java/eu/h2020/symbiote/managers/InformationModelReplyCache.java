@@ -0,0 +1,156 @@
+package eu.h2020.symbiote.managers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import eu.h2020.symbiote.core.internal.InformationModelListResponse;
+import eu.h2020.symbiote.model.InformationModelSummary;
+import eu.h2020.symbiote.model.mim.InformationModel;
+import eu.h2020.symbiote.repository.InformationModelRepository;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of serialized replies to requests for all Information Models.
+ * <p>
+ * Replies are versioned - every creation, modification or removal of an Information Model (done by this node or,
+ * through Information Model events, by any Registry node) increases the version, and the replies are serialized
+ * again from the database on the next request. Until then all requests get the same, already serialized bytes.
+ */
+@Component
+public class InformationModelReplyCache {
+
+    /**
+     * Content of the reply.
+     */
+    public enum ReplyMode {
+        /**
+         * Information Models with their RDF.
+         */
+        FULL,
+        /**
+         * Information Models without RDF.
+         */
+        WITHOUT_RDF,
+        /**
+         * Only id, uri, name, owner and hash of the RDF of Information Models.
+         */
+        SUMMARY
+    }
+
+    private static Log log = LogFactory.getLog(InformationModelReplyCache.class);
+    private final InformationModelRepository informationModelRepository;
+    private final RegistryCodecs codecs;
+    private volatile long version;
+    private volatile CachedReplies cachedReplies;
+
+    @Autowired
+    public InformationModelReplyCache(InformationModelRepository informationModelRepository, RegistryCodecs codecs) {
+        this.informationModelRepository = informationModelRepository;
+        this.codecs = codecs;
+    }
+
+    /**
+     * Returns serialized InformationModelListResponse with all Information Models, in given mode.
+     *
+     * @param mode content of the reply
+     * @return UTF-8 encoded JSON of the reply
+     * @throws JsonProcessingException if the reply could not be serialized
+     */
+    public byte[] getReply(ReplyMode mode) throws JsonProcessingException {
+        CachedReplies replies = this.cachedReplies;
+        if (replies == null || replies.version != this.version) {
+            replies = rebuild();
+        }
+        return replies.replies[mode.ordinal()];
+    }
+
+    /**
+     * Marks cached replies as outdated, after an Information Model was created, modified or removed.
+     */
+    public synchronized void invalidate() {
+        this.version++;
+        this.cachedReplies = null;
+        log.debug("Information Models reply cache invalidated, version " + this.version);
+    }
+
+    /**
+     * @return current version of the Information Models
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private synchronized CachedReplies rebuild() throws JsonProcessingException {
+        CachedReplies replies = this.cachedReplies;
+        if (replies != null && replies.version == this.version) {
+            return replies;
+        }
+        long readVersion = this.version;
+        List<InformationModel> informationModels = informationModelRepository.findAll();
+
+        byte[][] serialized = new byte[ReplyMode.values().length][];
+        serialized[ReplyMode.FULL.ordinal()] = serialize(informationModels, informationModels);
+        serialized[ReplyMode.SUMMARY.ordinal()] = serialize(informationModels, informationModels.stream()
+                .map(this::summarize)
+                .collect(Collectors.toList()));
+        // RDF is removed last, as the models are modified
+        informationModels.forEach(informationModel -> informationModel.setRdf(null));
+        serialized[ReplyMode.WITHOUT_RDF.ordinal()] = serialize(informationModels, informationModels);
+
+        replies = new CachedReplies(readVersion, serialized);
+        this.cachedReplies = replies;
+        log.info("Information Models reply cache rebuilt with " + informationModels.size() + " models, version "
+                + readVersion);
+        return replies;
+    }
+
+    private byte[] serialize(List<InformationModel> informationModels, List<?> body) throws JsonProcessingException {
+        InformationModelListResponse response = new InformationModelListResponse();
+        response.setStatus(HttpStatus.SC_OK);
+        response.setMessage("OK. " + informationModels.size() + " Information Models found!");
+        ObjectNode reply = codecs.getMapper().valueToTree(response);
+        reply.set("body", codecs.getMapper().valueToTree(body));
+        return codecs.writeAsBytes(reply);
+    }
+
+    private InformationModelSummary summarize(InformationModel informationModel) {
+        return new InformationModelSummary(informationModel.getId(), informationModel.getUri(),
+                informationModel.getName(), informationModel.getOwner(), hash(informationModel.getRdf()));
+    }
+
+    private String hash(String content) {
+        if (content == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedReplies {
+        private final long version;
+        private final byte[][] replies;
+
+        private CachedReplies(long version, byte[][] replies) {
+            this.version = version;
+            this.replies = replies;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package eu.h2020.symbiote.managers;
+
+import eu.h2020.symbiote.model.mim.InterworkingService;
+import eu.h2020.symbiote.model.mim.Platform;
+import eu.h2020.symbiote.model.mim.SmartSpace;
+import eu.h2020.symbiote.repository.PlatformRepository;
+import eu.h2020.symbiote.repository.SspRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index from canonical Interworking Service URL to the Platform or Smart Space owning it and
+ * the Information Model of the Interworking Service, so that ownership and Information Model of every resource
+ * of a request is resolved with a hash lookup instead of scanning and normalizing the Interworking Services.
+ * <p>
+ * Canonical URL is the trimmed URL ending with "/". The index is built on startup and updated on every Platform
+ * and Smart Space write of this node. Writes done by other Registry nodes are picked up when a lookup misses -
+ * the owner is then read from the database and indexed again. As there are no Smart Space events, a Smart Space
+ * read from the database for a request is indexed again before its lookups, so removed Interworking Services of
+ * Smart Spaces changed by other nodes are not found.
+ * <p>
+ * An owner is read again on a miss at most once per miss reload interval, so requests with wrong URLs do not read
+ * the database for every resource. Platforms changed by other nodes are removed from the index by Platform events,
+ * so they are read again on the next lookup anyway.
+ */
+@Component
+public class InterworkingServiceIndex {
+
+    private static Log log = LogFactory.getLog(InterworkingServiceIndex.class);
+    private final PlatformRepository platformRepository;
+    private final SspRepository sspRepository;
+    private final Map<String, List<Entry>> entriesByUrl = new ConcurrentHashMap<>();
+    private final Map<String, List<Entry>> entriesByLowerCaseUrl = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> urlsByOwner = new ConcurrentHashMap<>();
+    private final Map<String, Long> indexedAtByOwner = new ConcurrentHashMap<>();
+    private final long missReloadIntervalMillis;
+
+    /**
+     * Owner and Information Model of an indexed Interworking Service.
+     */
+    public static class Entry {
+        private final String ownerId;
+        private final String url;
+        private final String informationModelId;
+
+        private Entry(String ownerId, String url, String informationModelId) {
+            this.ownerId = ownerId;
+            this.url = url;
+            this.informationModelId = informationModelId;
+        }
+
+        /**
+         * @return id of the Platform or Smart Space
+         */
+        public String getOwnerId() {
+            return ownerId;
+        }
+
+        /**
+         * @return canonical URL of the Interworking Service
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        public String getInformationModelId() {
+            return informationModelId;
+        }
+    }
+
+    /**
+     * @param platformRepository       repository of Platforms
+     * @param sspRepository            repository of Smart Spaces
+     * @param missReloadIntervalMillis minimal time between reads of an owner on lookup misses
+     */
+    @Autowired
+    public InterworkingServiceIndex(PlatformRepository platformRepository, SspRepository sspRepository,
+                                    @Value("${registry.interworkingServices.missReloadInterval:10000}") long missReloadIntervalMillis) {
+        this.platformRepository = platformRepository;
+        this.sspRepository = sspRepository;
+        this.missReloadIntervalMillis = missReloadIntervalMillis;
+    }
+
+    /**
+     * Returns canonical form of given Interworking Service URL - trimmed and ending with "/".
+     *
+     * @param url Interworking Service URL
+     * @return canonical URL or null if given URL is null
+     */
+    public static String canonicalUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed : trimmed + "/";
+    }
+
+    /**
+     * Drops the index and builds it again from all Platforms and Smart Spaces in the database.
+     */
+    public synchronized void rebuild() {
+        entriesByUrl.clear();
+        entriesByLowerCaseUrl.clear();
+        urlsByOwner.clear();
+        indexedAtByOwner.clear();
+        for (Platform platform : platformRepository.findAll()) {
+            indexPlatform(platform);
+        }
+        for (SmartSpace smartSpace : sspRepository.findAll()) {
+            indexSsp(smartSpace);
+        }
+        log.info("Interworking Service index built for " + urlsByOwner.size() + " platforms and smart spaces");
+    }
+
+    /**
+     * Replaces indexed Interworking Services of given Platform with its current ones.
+     *
+     * @param platform saved or modified Platform
+     */
+    public void indexPlatform(Platform platform) {
+        if (platform != null) {
+            index(platform.getId(), platform.getInterworkingServices());
+        }
+    }
+
+    /**
+     * Replaces indexed Interworking Services of given Smart Space with its current ones.
+     *
+     * @param smartSpace saved or modified Smart Space
+     */
+    public void indexSsp(SmartSpace smartSpace) {
+        if (smartSpace != null) {
+            index(smartSpace.getId(), smartSpace.getInterworkingServices());
+        }
+    }
+
+    /**
+     * Removes all Interworking Services of given Platform or Smart Space from the index.
+     *
+     * @param ownerId id of the removed Platform or Smart Space
+     */
+    public synchronized void remove(String ownerId) {
+        if (ownerId == null) {
+            return;
+        }
+        indexedAtByOwner.remove(ownerId);
+        Set<String> urls = urlsByOwner.remove(ownerId);
+        if (urls == null) {
+            return;
+        }
+        for (String url : urls) {
+            removeEntry(entriesByUrl, url, ownerId);
+            removeEntry(entriesByLowerCaseUrl, url.toLowerCase(), ownerId);
+        }
+    }
+
+    /**
+     * Finds Interworking Service with given URL in given Platform. If it is not indexed, the Platform is read
+     * from the database and indexed again, as it could have been changed by another Registry node - unless it was
+     * indexed within the miss reload interval.
+     *
+     * @param platformId id of the Platform
+     * @param url        Interworking Service URL, canonical or not
+     * @return matching index entry or null if the Platform has no such Interworking Service
+     */
+    public Entry findPlatformService(String platformId, String url) {
+        Entry entry = find(entriesByUrl, platformId, canonicalUrl(url));
+        if (entry == null && platformId != null && url != null && !isRecentlyIndexed(platformId)) {
+            Platform platform = platformRepository.findOne(platformId);
+            index(platformId, platform != null ? platform.getInterworkingServices() : null);
+            entry = find(entriesByUrl, platformId, canonicalUrl(url));
+        }
+        return entry;
+    }
+
+    /**
+     * Finds Interworking Service with given URL in given Smart Space, ignoring case of the URL. If it is not
+     * indexed, the Smart Space is read from the database and indexed again, unless it was indexed within the miss
+     * reload interval.
+     *
+     * @param sspId id of the Smart Space
+     * @param url   Interworking Service URL, canonical or not
+     * @return matching index entry or null if the Smart Space has no such Interworking Service
+     */
+    public Entry findSspService(String sspId, String url) {
+        String lowerCaseUrl = url != null ? canonicalUrl(url).toLowerCase() : null;
+        Entry entry = find(entriesByLowerCaseUrl, sspId, lowerCaseUrl);
+        if (entry == null && sspId != null && url != null && !isRecentlyIndexed(sspId)) {
+            SmartSpace smartSpace = sspRepository.findOne(sspId);
+            index(sspId, smartSpace != null ? smartSpace.getInterworkingServices() : null);
+            entry = find(entriesByLowerCaseUrl, sspId, lowerCaseUrl);
+        }
+        return entry;
+    }
+
+    private synchronized void index(String ownerId, Collection<? extends InterworkingService> interworkingServices) {
+        if (ownerId == null) {
+            return;
+        }
+        remove(ownerId);
+        Set<String> urls = new HashSet<>();
+        for (InterworkingService interworkingService : interworkingServices != null
+                ? interworkingServices : Collections.<InterworkingService>emptyList()) {
+            if (interworkingService == null || interworkingService.getUrl() == null) {
+                continue;
+            }
+            String url = canonicalUrl(interworkingService.getUrl());
+            if (urls.add(url)) {
+                Entry entry = new Entry(ownerId, url, interworkingService.getInformationModelId());
+                addEntry(entriesByUrl, url, entry);
+                addEntry(entriesByLowerCaseUrl, url.toLowerCase(), entry);
+            }
+        }
+        urlsByOwner.put(ownerId, urls);
+        // owners without Interworking Services, or missing in the database, are remembered too
+        indexedAtByOwner.put(ownerId, System.currentTimeMillis());
+    }
+
+    private boolean isRecentlyIndexed(String ownerId) {
+        Long indexedAt = indexedAtByOwner.get(ownerId);
+        return indexedAt != null && System.currentTimeMillis() - indexedAt < missReloadIntervalMillis;
+    }
+
+    private Entry find(Map<String, List<Entry>> entries, String ownerId, String key) {
+        if (ownerId == null || key == null) {
+            return null;
+        }
+        // usually a single entry - URLs are not shared between owners
+        for (Entry entry : entries.getOrDefault(key, Collections.emptyList())) {
+            if (entry.ownerId.equals(ownerId)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    // lists are copied on write, so lookups can iterate them without locking
+    private void addEntry(Map<String, List<Entry>> entries, String key, Entry entry) {
+        List<Entry> updated = new ArrayList<>(entries.getOrDefault(key, Collections.emptyList()));
+        updated.add(entry);
+        entries.put(key, updated);
+    }
+
+    private void removeEntry(Map<String, List<Entry>> entries, String key, String ownerId) {
+        List<Entry> existing = entries.get(key);
+        if (existing == null) {
+            return;
+        }
+        List<Entry> updated = new ArrayList<>(existing);
+        updated.removeIf(entry -> entry.ownerId.equals(ownerId));
+        if (updated.isEmpty()) {
+            entries.remove(key);
+        } else {
+            entries.put(key, updated);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package eu.h2020.symbiote.managers;
+
+import eu.h2020.symbiote.model.mim.Platform;
+import eu.h2020.symbiote.repository.PlatformRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-through cache of Platforms, shared by authorization and routing lookups, so that a single request
+ * does not read the same Platform from the database several times.
+ * <p>
+ * Least recently used Platforms are evicted when the cache is full. Entries are invalidated when a Platform is
+ * saved, modified or removed by this Registry node, and when platform created/modified/removed events of any
+ * Registry node are received. Platforms returned from the cache are shared and must not be modified.
+ */
+@Component
+public class PlatformCache {
+
+    private static Log log = LogFactory.getLog(PlatformCache.class);
+    private final PlatformRepository platformRepository;
+    private final int maxSize;
+    private final Map<String, Platform> platforms;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    // changed on every invalidation, so a Platform read before the invalidation is not put into the cache after it
+    private long generation;
+
+    @Autowired
+    public PlatformCache(PlatformRepository platformRepository,
+                         @Value("${registry.cache.platforms.maxSize:1000}") int maxSize) {
+        this.platformRepository = platformRepository;
+        this.maxSize = maxSize > 0 ? maxSize : 1;
+        this.platforms = new LinkedHashMap<String, Platform>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Platform> eldest) {
+                if (size() > PlatformCache.this.maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns Platform with given id, reading it from the database if it is not cached.
+     *
+     * @param platformId id of the Platform
+     * @return found Platform or null if it does not exist
+     */
+    public Platform get(String platformId) {
+        if (platformId == null) {
+            return null;
+        }
+        long readGeneration;
+        synchronized (platforms) {
+            Platform platform = platforms.get(platformId);
+            if (platform != null) {
+                hitCount.incrementAndGet();
+                return platform;
+            }
+            readGeneration = generation;
+        }
+        missCount.incrementAndGet();
+        Platform platform = platformRepository.findOne(platformId);
+        if (platform != null) {
+            synchronized (platforms) {
+                if (readGeneration == generation) {
+                    platforms.put(platformId, platform);
+                }
+            }
+        }
+        return platform;
+    }
+
+    /**
+     * Removes Platform with given id from the cache.
+     *
+     * @param platformId id of the Platform
+     */
+    public void invalidate(String platformId) {
+        if (platformId == null) {
+            return;
+        }
+        synchronized (platforms) {
+            generation++;
+            if (platforms.remove(platformId) != null) {
+                invalidationCount.incrementAndGet();
+                log.debug("Platform " + platformId + " removed from cache");
+            }
+        }
+    }
+
+    /**
+     * Removes all Platforms from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (platforms) {
+            generation++;
+            invalidationCount.addAndGet(platforms.size());
+            platforms.clear();
+        }
+        log.debug("Platform cache cleared");
+    }
+
+    /**
+     * @return number of cached Platforms
+     */
+    public int size() {
+        synchronized (platforms) {
+            return platforms.size();
+        }
+    }
+
+    /**
+     * @return number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of lookups which had to read the database
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of Platforms evicted because the cache was full
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return number of Platforms removed from the cache because they were changed
+     */
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+}
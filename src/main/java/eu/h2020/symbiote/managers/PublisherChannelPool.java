@@ -0,0 +1,134 @@
+package eu.h2020.symbiote.managers;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ReturnListener;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool of channels used only for publishing (events, RPC requests and RPC replies), separated from the channels
+ * consumers are registered on.
+ * <p>
+ * A channel is lent to a single thread for the time of one publish and then returned to the pool, so publishing
+ * threads never share a channel and publishes do not contend with delivery dispatch and acks of consumers.
+ * At most maxChannels channels are open at once; further publishers wait for a channel to be returned.
+ */
+public class PublisherChannelPool {
+
+    private static Log log = LogFactory.getLog(PublisherChannelPool.class);
+    private final Connection connection;
+    private final BlockingQueue<Channel> idleChannels = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final ReturnListener returnListener;
+
+    /**
+     * @param connection  connection the channels are created on
+     * @param maxChannels maximum number of publishing channels
+     */
+    public PublisherChannelPool(Connection connection, int maxChannels) {
+        this(connection, maxChannels, null);
+    }
+
+    /**
+     * @param connection     connection the channels are created on
+     * @param maxChannels    maximum number of publishing channels
+     * @param returnListener listener of mandatory messages returned as unroutable, may be null
+     */
+    public PublisherChannelPool(Connection connection, int maxChannels, ReturnListener returnListener) {
+        this.connection = connection;
+        this.permits = new Semaphore(maxChannels > 0 ? maxChannels : 1);
+        this.returnListener = returnListener;
+    }
+
+    /**
+     * Publishes the message on a channel borrowed from the pool.
+     *
+     * @param exchange   name of the exchange
+     * @param routingKey routing key of the message
+     * @param props      message properties
+     * @param body       message content
+     * @throws IOException if the message could not be published
+     */
+    public void publish(String exchange, String routingKey, AMQP.BasicProperties props, byte[] body)
+            throws IOException {
+        publish(exchange, routingKey, false, props, body);
+    }
+
+    /**
+     * Publishes the message on a channel borrowed from the pool.
+     *
+     * @param exchange   name of the exchange
+     * @param routingKey routing key of the message
+     * @param mandatory  true if the message should be returned when it can not be routed
+     * @param props      message properties
+     * @param body       message content
+     * @throws IOException if the message could not be published
+     */
+    public void publish(String exchange, String routingKey, boolean mandatory, AMQP.BasicProperties props, byte[] body)
+            throws IOException {
+        Channel channel = borrowChannel();
+        try {
+            channel.basicPublish(exchange, routingKey, mandatory, props, body);
+        } finally {
+            returnChannel(channel);
+        }
+    }
+
+    /**
+     * Closes all idle channels of the pool.
+     */
+    public void close() {
+        Channel channel;
+        while ((channel = idleChannels.poll()) != null) {
+            try {
+                if (channel.isOpen()) {
+                    channel.close();
+                }
+            } catch (IOException | TimeoutException e) {
+                log.error(e);
+            }
+        }
+    }
+
+    private Channel borrowChannel() throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for publisher channel");
+        }
+        try {
+            Channel channel = idleChannels.poll();
+            while (channel != null && !channel.isOpen()) {
+                channel = idleChannels.poll();
+            }
+            if (channel == null) {
+                channel = connection.createChannel();
+                if (returnListener != null) {
+                    channel.addReturnListener(returnListener);
+                }
+                log.debug("Publisher channel created! " + channel.getChannelNumber());
+            }
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void returnChannel(Channel channel) {
+        if (channel.isOpen()) {
+            idleChannels.offer(channel);
+        }
+        permits.release();
+    }
+}
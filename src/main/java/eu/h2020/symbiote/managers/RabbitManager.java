@@ -1,12 +1,19 @@
 package eu.h2020.symbiote.managers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.*;
+import com.rabbitmq.client.impl.recovery.AutorecoveringConnection;
 import eu.h2020.symbiote.cloud.model.ssp.SspRegInfo;
+import eu.h2020.symbiote.core.cci.InformationModelResponse;
 import eu.h2020.symbiote.core.internal.CoreResourceRegisteredOrModifiedEventPayload;
+import eu.h2020.symbiote.core.internal.CoreResourceRegistryResponse;
+import eu.h2020.symbiote.core.internal.CoreSspResourceRegistryResponse;
 import eu.h2020.symbiote.core.internal.DescriptionType;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.ConfirmingPublisher;
+import eu.h2020.symbiote.messaging.RequestContext;
+import eu.h2020.symbiote.messaging.RpcReplyDispatcher;
+import eu.h2020.symbiote.messaging.SemanticManagerAdmission;
 import eu.h2020.symbiote.messaging.consumers.federation.*;
 import eu.h2020.symbiote.messaging.consumers.informationModel.*;
 import eu.h2020.symbiote.messaging.consumers.platform.*;
@@ -29,8 +36,10 @@ import eu.h2020.symbiote.model.mim.InformationModel;
 import eu.h2020.symbiote.model.mim.Platform;
 import eu.h2020.symbiote.model.mim.SmartSpace;
 import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
@@ -38,11 +47,23 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static eu.h2020.symbiote.core.internal.DescriptionType.BASIC;
 import static eu.h2020.symbiote.core.internal.DescriptionType.RDF;
@@ -56,6 +77,8 @@ import static eu.h2020.symbiote.core.internal.DescriptionType.RDF;
 @Component
 public class RabbitManager {
 
+    private static final long RPC_RESPONSE_WAIT_GRACE_MILLIS = 1000;
+
     /* Queues names */
     private static final String RDF_RESOURCE_VALIDATION_REQUESTED_QUEUE = "rdfResourceValidationRequestedQueue";
     private static final String JSON_RESOURCE_TRANSLATION_REQUESTED_QUEUE = "jsonResourceTranslationRequestedQueue";
@@ -88,6 +111,9 @@ public class RabbitManager {
     private static final String SSP_RESOURCE_REMOVAL_REQUESTED_QUEUE = "symbIoTe-Registry-sspSdevResourceRemovalRequestedQueue";
     private static final String PLATFORM_DETAILS_REQUESTED_QUEUE = "symbIoTe-Registry-platformDetailsRequestedQueue";
     private static final String ERROR_OCCURRED_WHEN_PARSING_OBJECT_TO_JSON = "Error occurred when parsing Resource object JSON: ";
+    private static final String SEMANTIC_MANAGER_TIMEOUT_MESSAGE = "Semantic Manager did not respond in time. Operation not performed!";
+    private static final String SEMANTIC_MANAGER_OVERLOADED_MESSAGE = "Too many requests waiting for Semantic Manager. Operation not performed, try again later!";
+    private static final String SEMANTIC_MANAGER_UNREACHABLE_MESSAGE = "Unable to send request to Semantic Manager. Operation not performed, try again later!";
 
     private Map<String,Object> queueArgs;
 
@@ -96,9 +122,23 @@ public class RabbitManager {
     private static Log log = LogFactory.getLog(RabbitManager.class);
     private AuthorizationManager authorizationManager;
     private RepositoryManager repositoryManager;
+    private PlatformCache platformCache;
+    private InterworkingServiceIndex interworkingServiceIndex;
+    private InformationModelReplyCache informationModelReplyCache;
+    private FederationIndex federationIndex;
+    private RegistryCodecs codecs = RegistryCodecs.getInstance();
     private Connection connection;
     private Channel rpcChannel;
     private Channel channel;
+    private ExecutorService consumerExecutor;
+    private ExecutorService rpcReplyExecutor;
+    private RpcReplyDispatcher rpcReplyDispatcher;
+    private ConfirmingPublisher confirmingPublisher;
+    private PublisherChannelPool publisherChannelPool;
+    private ConnectionRecoveryManager connectionRecoveryManager;
+    private AuthorizationStage authorizationStage;
+    private SemanticManagerAdmission semanticManagerAdmission;
+    private Map<String, List<Channel>> consumerChannels = new ConcurrentHashMap<>();
 
     /* Connection Params */
     @Value("${rabbit.host}")
@@ -107,9 +147,63 @@ public class RabbitManager {
     private String rabbitUsername;
     @Value("${rabbit.password}")
     private String rabbitPassword;
+    @Value("${registry.rabbit.recovery.enabled:true}")
+    private boolean connectionRecoveryEnabled;
+    @Value("${registry.rabbit.recovery.initialBackoff:1000}")
+    private long connectionRecoveryInitialBackoff;
+    @Value("${registry.rabbit.recovery.maxBackoff:30000}")
+    private long connectionRecoveryMaxBackoff;
     /* Connection Params */
     @Value("${spring.rabbitmq.template.reply-timeout}")
     private Integer rabbitMessageTimeout;
+    @Value("${registry.rabbit.rpc.timeout:0}")
+    private long rpcReplyTimeout;
+    @Value("${registry.rabbit.rpc.replyThreads:0}")
+    private int rpcReplyThreads;
+    @Value("${registry.rabbit.publisher.channels:8}")
+    private int publisherChannels;
+
+    /* Consumers runtime Params */
+    @Value("${registry.rabbit.consumers.dedicatedChannels:false}")
+    private boolean dedicatedConsumerChannels;
+    @Value("${registry.rabbit.consumers.threads:0}")
+    private int consumerThreads;
+    @Value("${registry.rabbit.consumers.concurrency:1}")
+    private int defaultConsumerConcurrency;
+    @Value("${registry.rabbit.consumers.prefetch:1}")
+    private int defaultConsumerPrefetch;
+    @Value("#{${registry.rabbit.consumers.queueConcurrency:{:}}}")
+    private Map<String, Integer> queueConsumerConcurrency;
+    @Value("#{${registry.rabbit.consumers.queuePrefetch:{:}}}")
+    private Map<String, Integer> queueConsumerPrefetch;
+    /* Consumers runtime Params */
+
+    /* Semantic Manager admission Params */
+    @Value("${registry.semanticManager.maxInFlight:0}")
+    private int semanticManagerMaxInFlight;
+    @Value("${registry.semanticManager.maxInFlightPerPlatform:0}")
+    private int semanticManagerMaxInFlightPerPlatform;
+    @Value("${registry.semanticManager.maxQueued:0}")
+    private int semanticManagerMaxQueued;
+    /* Semantic Manager admission Params */
+
+    /* Authorization stage Params */
+    @Value("${registry.authorization.threads:0}")
+    private int authorizationThreads;
+    @Value("${registry.authorization.queueCapacity:1000}")
+    private int authorizationQueueCapacity;
+    /* Authorization stage Params */
+
+    /* Publisher confirms Params */
+    @Value("${registry.rabbit.publisherConfirms.enabled:false}")
+    private boolean publisherConfirmsEnabled;
+    @Value("${registry.rabbit.publisherConfirms.maxOutstanding:1000}")
+    private int publisherConfirmsMaxOutstanding;
+    @Value("${registry.rabbit.publisherConfirms.maxRetries:3}")
+    private int publisherConfirmsMaxRetries;
+    @Value("${registry.rabbit.publisherConfirms.publishTimeout:5000}")
+    private long publisherConfirmsPublishTimeout;
+    /* Publisher confirms Params */
 
     /* Exchanges Params */
     @Value("${rabbit.exchange.platform.name}")
@@ -308,6 +402,94 @@ public class RabbitManager {
         this.authorizationManager = authorizationManager;
     }
 
+    /**
+     * Sets codecs used for all messages sent and received by the Registry.
+     *
+     * @param codecs shared codecs
+     */
+    @Autowired
+    public void setCodecs(RegistryCodecs codecs) {
+        this.codecs = codecs;
+    }
+
+    /**
+     * @return codecs used for all messages sent and received by the Registry
+     */
+    public RegistryCodecs getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * Authorization threads are used only with dedicated consumer channels, whose prefetch bounds the number of
+     * requests in processing - on the shared channel checks always run on the delivery thread.
+     *
+     * @return stage running authorization of requests off the delivery threads, created on first use
+     */
+    public synchronized AuthorizationStage getAuthorizationStage() {
+        if (this.authorizationStage == null) {
+            int threads = this.authorizationThreads;
+            if (threads > 0 && !this.dedicatedConsumerChannels) {
+                log.warn("Authorization threads are ignored without dedicated consumer channels");
+                threads = 0;
+            }
+            this.authorizationStage = new AuthorizationStage(threads, authorizationQueueCapacity);
+        }
+        return this.authorizationStage;
+    }
+
+    /**
+     * Queued requests expire after the RPC timeout, as their callers do not wait for a reply longer.
+     *
+     * @return limits of requests waiting for Semantic Manager replies, created on first use
+     */
+    public synchronized SemanticManagerAdmission getSemanticManagerAdmission() {
+        if (this.semanticManagerAdmission == null) {
+            this.semanticManagerAdmission = new SemanticManagerAdmission(semanticManagerMaxInFlight,
+                    semanticManagerMaxInFlightPerPlatform, semanticManagerMaxQueued, getRpcReplyTimeout());
+        }
+        return this.semanticManagerAdmission;
+    }
+
+    /**
+     * Sets Platform cache of this node, invalidated by platform events of all Registry nodes.
+     *
+     * @param platformCache shared Platform cache
+     */
+    @Autowired
+    public void setPlatformCache(PlatformCache platformCache) {
+        this.platformCache = platformCache;
+    }
+
+    /**
+     * Sets Interworking Service index of this node, from which Platforms changed by any Registry node are removed.
+     *
+     * @param interworkingServiceIndex shared Interworking Service index
+     */
+    @Autowired
+    public void setInterworkingServiceIndex(InterworkingServiceIndex interworkingServiceIndex) {
+        this.interworkingServiceIndex = interworkingServiceIndex;
+    }
+
+    /**
+     * Sets cache of serialized replies to requests for all Information Models.
+     *
+     * @param informationModelReplyCache shared Information Models reply cache
+     */
+    @Autowired
+    public void setInformationModelReplyCache(InformationModelReplyCache informationModelReplyCache) {
+        this.informationModelReplyCache = informationModelReplyCache;
+    }
+
+    /**
+     * Sets in-memory Federation index answering Federation requests.
+     *
+     * @param federationIndex shared Federation index
+     */
+    @Autowired
+    public void setFederationIndex(FederationIndex federationIndex) {
+        this.federationIndex = federationIndex;
+    }
+
     public Channel getChannel() {
         try {
             if (this.channel == null) {
@@ -323,7 +505,9 @@ public class RabbitManager {
     }
 
     /**
-     * Initiates connection with Rabbit server using parameters from ConfigProperties
+     * Initiates connection with Rabbit server using parameters from ConfigProperties.
+     * When connection recovery is enabled, the connection recovers automatically (together with its topology)
+     * and a failed connection attempt schedules reconnection with backoff.
      *
      * @throws IOException
      * @throws TimeoutException
@@ -334,16 +518,161 @@ public class RabbitManager {
             factory.setHost(this.rabbitHost);
             factory.setUsername(this.rabbitUsername);
             factory.setPassword(this.rabbitPassword);
+            if (this.connectionRecoveryEnabled) {
+                factory.setAutomaticRecoveryEnabled(true);
+                factory.setTopologyRecoveryEnabled(true);
+                // jittered, so that all Registry nodes do not hit the broker at the same moment
+                factory.setNetworkRecoveryInterval(getConnectionRecoveryManager().getBackoffMillis(0));
+            }
             try {
-                this.connection = factory.newConnection();
+                if (this.dedicatedConsumerChannels) {
+                    int threads = this.consumerThreads > 0 ? this.consumerThreads
+                            : Runtime.getRuntime().availableProcessors() * 2;
+                    if (this.consumerExecutor == null) {
+                        this.consumerExecutor = Executors.newFixedThreadPool(threads);
+                    }
+                    this.connection = factory.newConnection(this.consumerExecutor);
+                    log.info("Rabbit consumers will be dispatched on " + threads + " threads");
+                } else {
+                    this.connection = factory.newConnection();
+                }
                 log.info("Rabbit connection created! " + connection.getAddress());
+                if (this.connectionRecoveryEnabled) {
+                    getConnectionRecoveryManager().attach(this.connection);
+                }
             } catch (IOException e) {
                 log.error(e);
+                if (this.connectionRecoveryEnabled) {
+                    getConnectionRecoveryManager().connectionFailed();
+                }
+            } catch (TimeoutException e) {
+                if (this.connectionRecoveryEnabled) {
+                    getConnectionRecoveryManager().connectionFailed();
+                }
+                throw e;
             }
         }
         return this.connection;
     }
 
+    /**
+     * Returns manager tracking outages and recoveries of the Rabbit connection.
+     *
+     * @return connection recovery manager
+     */
+    public synchronized ConnectionRecoveryManager getConnectionRecoveryManager() {
+        if (this.connectionRecoveryManager == null) {
+            this.connectionRecoveryManager = new ConnectionRecoveryManager(this::reconnect,
+                    this.connectionRecoveryInitialBackoff, this.connectionRecoveryMaxBackoff);
+        }
+        return this.connectionRecoveryManager;
+    }
+
+    /**
+     * Re-creates the connection which was lost and could not be recovered automatically (or was never created):
+     * re-declares the exchanges, queues and bindings and restarts all of the consumers.
+     *
+     * @throws IOException      if the connection or its channels could not be created
+     * @throws TimeoutException if the connection could not be created in time
+     */
+    private synchronized void reconnect() throws IOException, TimeoutException {
+        discardConnection();
+        if (getConnection() == null) {
+            throw new IOException("Rabbit connection could not be created");
+        }
+        init();
+        if (this.channel == null || !this.channel.isOpen()) {
+            throw new IOException("Rabbit channel could not be created");
+        }
+        startConsumers();
+        log.info("Rabbit connection re-created, exchanges re-declared and consumers restarted");
+    }
+
+    /**
+     * Drops the lost connection together with all the channels created on it. Consumer, publisher and RPC channels
+     * are closed explicitly, so consumers of the old connection can not keep consuming next to the restarted ones,
+     * and the connection is aborted even if it is not open, so its automatic recovery does not bring them back.
+     * Errors of channels which are already closed are ignored.
+     * Requests waiting for RPC replies are timed out, as their replies can not be received anymore.
+     */
+    private void discardConnection() {
+        for (List<Channel> channels : this.consumerChannels.values()) {
+            channels.forEach(this::closeQuietly);
+        }
+        this.consumerChannels.clear();
+        if (this.rpcReplyDispatcher != null) {
+            this.rpcReplyDispatcher.shutdown();
+            this.rpcReplyDispatcher = null;
+        }
+        if (this.confirmingPublisher != null) {
+            try {
+                this.confirmingPublisher.shutdown();
+            } catch (RuntimeException e) {
+                log.debug("Error when closing publisher of the discarded connection: " + e);
+            }
+            this.confirmingPublisher = null;
+        }
+        if (this.publisherChannelPool != null) {
+            try {
+                this.publisherChannelPool.close();
+            } catch (RuntimeException e) {
+                log.debug("Error when closing publisher channels of the discarded connection: " + e);
+            }
+            this.publisherChannelPool = null;
+        }
+        closeQuietly(this.rpcChannel);
+        this.rpcChannel = null;
+        closeQuietly(this.channel);
+        this.channel = null;
+        if (this.connection != null) {
+            this.connection.abort();
+        }
+        this.connection = null;
+    }
+
+    private void closeQuietly(Channel channelToClose) {
+        if (channelToClose == null) {
+            return;
+        }
+        try {
+            if (channelToClose.isOpen()) {
+                channelToClose.close();
+            }
+        } catch (Exception e) {
+            log.debug("Error when closing channel of the discarded connection: " + e);
+        }
+    }
+
+    /**
+     * Creates dispatcher of RPC replies on given channel. The dispatcher follows renames of its server-named
+     * reply queue done by automatic recovery of the connection.
+     */
+    private RpcReplyDispatcher createRpcReplyDispatcher(Channel rpcChannel) throws IOException {
+        RpcReplyDispatcher dispatcher = new RpcReplyDispatcher(rpcChannel, getRpcReplyExecutor());
+        if (rpcChannel.getConnection() instanceof AutorecoveringConnection) {
+            ((AutorecoveringConnection) rpcChannel.getConnection()).addQueueRecoveryListener(dispatcher);
+        }
+        return dispatcher;
+    }
+
+    /**
+     * @return executor running continuations with RPC replies, created on first use
+     */
+    private synchronized ExecutorService getRpcReplyExecutor() {
+        if (this.rpcReplyExecutor == null) {
+            int threads = this.rpcReplyThreads > 0 ? this.rpcReplyThreads
+                    : Runtime.getRuntime().availableProcessors() * 2;
+            AtomicInteger threadCount = new AtomicInteger();
+            this.rpcReplyExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setName("rpc-reply-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.rpcReplyExecutor;
+    }
+
     /**
      * Method creates channel and declares Rabbit exchanges for Platform and Resources.
      * It triggers start of all consumers used in Registry communication.
@@ -365,6 +694,7 @@ public class RabbitManager {
                 getChannel();
 
                 this.rpcChannel = connection.createChannel();
+                this.rpcReplyDispatcher = createRpcReplyDispatcher(this.rpcChannel);
 
                 this.channel.exchangeDeclare(this.platformExchangeName,
                         this.platformExchangeType,
@@ -408,6 +738,9 @@ public class RabbitManager {
     @PreDestroy
     public void cleanup() {
         log.info("Rabbit cleaned!");
+        if (this.connectionRecoveryManager != null) {
+            this.connectionRecoveryManager.shutdown();
+        }
         try {
             if (this.connection != null && this.connection.isOpen()) {
                 getChannel();
@@ -458,12 +791,49 @@ public class RabbitManager {
                 getChannel().queueDelete(SSP_SDEV_MODIFICATION_REQUESTED_QUEUE);
                 getChannel().queueDelete(SSP_SDEV_REMOVAL_REQUESTED_QUEUE);
                 getChannel().queueDelete(SSP_DETAILS_REQUESTED_QUEUE);
+                closeConsumerChannels();
+                if (this.rpcReplyDispatcher != null) {
+                    this.rpcReplyDispatcher.shutdown();
+                }
+                if (this.confirmingPublisher != null) {
+                    this.confirmingPublisher.shutdown();
+                }
+                if (this.publisherChannelPool != null) {
+                    this.publisherChannelPool.close();
+                }
                 closeChannel();
                 this.connection.close();
             }
         } catch (IOException e) {
             log.error(e);
         }
+        if (this.consumerExecutor != null) {
+            this.consumerExecutor.shutdown();
+        }
+        if (this.rpcReplyExecutor != null) {
+            this.rpcReplyExecutor.shutdown();
+        }
+        if (this.authorizationStage != null) {
+            this.authorizationStage.shutdown();
+        }
+        if (this.semanticManagerAdmission != null) {
+            this.semanticManagerAdmission.shutdown();
+        }
+    }
+
+    private void closeConsumerChannels() {
+        for (List<Channel> channels : this.consumerChannels.values()) {
+            for (Channel consumerChannel : channels) {
+                try {
+                    if (consumerChannel.isOpen()) {
+                        consumerChannel.close();
+                    }
+                } catch (IOException | TimeoutException e) {
+                    log.error(e);
+                }
+            }
+        }
+        this.consumerChannels.clear();
     }
 
     /**
@@ -478,6 +848,7 @@ public class RabbitManager {
         startConsumerOfPlatformCreationMessages();
         startConsumerOfPlatformModificationMessages();
         startConsumerOfPlatformRemovalMessages();
+        startConsumerOfPlatformCacheInvalidationMessages();
 
         startConsumerOfInformationModelCreationMessages();
         startConsumerOfInformationModelModificationMessages();
@@ -488,9 +859,11 @@ public class RabbitManager {
         startConsumerOfFederationRemovalMessages();
         startConsumerOfGetFederationForPlatformMessages();
         startConsumerOfGetAllFederationsMessages();
+        startConsumerOfFederationIndexInvalidationMessages();
 
         startConsumerOfPlatformResourcesRequestsMessages(this.authorizationManager);
         startConsumerOfGetAllInformationModelsRequestsMessages();
+        startConsumerOfInformationModelCacheInvalidationMessages();
         startConsumerOfPlatformDetailsConsumer();
 
         startConsumerOfSspResourceCreationMessages(this.authorizationManager);
@@ -508,14 +881,72 @@ public class RabbitManager {
 
     }
 
+    /**
+     * Declares and binds the queue, then registers consumers created by given factory.
+     * When dedicated consumer channels are enabled, every queue gets its own channels (one per configured consumer)
+     * with prefetch limited by basicQos, so a slow queue does not block deliveries of the others.
+     * Otherwise a single consumer is registered on the shared channel.
+     *
+     * @param queueName       name of the queue
+     * @param exchangeName    name of the exchange the queue is bound to
+     * @param routingKeyName  routing key used for binding
+     * @param consumerFactory creates consumer for given channel
+     * @throws IOException
+     */
     private void createQueueAndBeginConsuming(String queueName,
                                               String exchangeName,
                                               String routingKeyName,
-                                              Consumer consumer) throws IOException {
+                                              Function<Channel, Consumer> consumerFactory) throws IOException {
         getChannel().queueDeclare(queueName, true, false, false, queueArgs);
         getChannel().queueBind(queueName, exchangeName, routingKeyName);
-//            channel.basicQos(1); // to spread the load over multiple servers we set the prefetchCount setting
-        getChannel().basicConsume(queueName, false, consumer);
+
+        if (!this.dedicatedConsumerChannels) {
+            getChannel().basicConsume(queueName, false, consumerFactory.apply(getChannel()));
+            return;
+        }
+
+        int concurrency = getQueueSetting(this.queueConsumerConcurrency, queueName, this.defaultConsumerConcurrency);
+        int prefetch = getQueueSetting(this.queueConsumerPrefetch, queueName, this.defaultConsumerPrefetch);
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Channel consumerChannel = getChannel().getConnection().createChannel();
+            consumerChannel.basicQos(prefetch); // limits unacknowledged deliveries per consumer
+            consumerChannel.basicConsume(queueName, false, consumerFactory.apply(consumerChannel));
+            channels.add(consumerChannel);
+        }
+        this.consumerChannels.put(queueName, channels);
+        log.debug("Queue " + queueName + " consumed by " + concurrency + " consumer(s) with prefetch " + prefetch);
+    }
+
+    /**
+     * Declares exclusive, server-named queue of this node, binds it with given routing keys and registers given
+     * consumer on it with automatic acks. Used for events every Registry node has to receive.
+     * If the consumer is a RecoveryListener, it is notified about recoveries of the connection.
+     *
+     * @param exchangeName    name of the exchange the queue is bound to
+     * @param routingKeyNames routing keys used for binding
+     * @param consumer        consumer of the events
+     * @throws IOException
+     */
+    private void createExclusiveQueueAndBeginConsuming(String exchangeName,
+                                                       List<String> routingKeyNames,
+                                                       DefaultConsumer consumer) throws IOException {
+        String queueName = getChannel().queueDeclare().getQueue();
+        for (String routingKeyName : routingKeyNames) {
+            getChannel().queueBind(queueName, exchangeName, routingKeyName);
+        }
+        getChannel().basicConsume(queueName, true, consumer);
+        if (consumer instanceof RecoveryListener && getChannel().getConnection() instanceof Recoverable) {
+            ((Recoverable) getChannel().getConnection()).addRecoveryListener((RecoveryListener) consumer);
+        }
+    }
+
+    private int getQueueSetting(Map<String, Integer> queueSettings, String queueName, int defaultValue) {
+        Integer value = queueSettings != null ? queueSettings.get(queueName) : null;
+        if (value == null || value < 1) {
+            value = defaultValue;
+        }
+        return value < 1 ? 1 : value;
     }
 
     /**
@@ -527,7 +958,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(RESOURCE_CREATION_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.resourceCreationRequestedRoutingKey,
-                    new ResourceCreationRequestConsumer(getChannel(), this, authorizationManager, repositoryManager));
+                    consumerChannel -> new ResourceCreationRequestConsumer(consumerChannel, this, authorizationManager, repositoryManager));
             log.info("Receiver waiting for Resource Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -545,7 +976,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(RESOURCE_MODIFICATION_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.resourceModificationRequestedRoutingKey,
-                    new ResourceModificationRequestConsumer(getChannel(), this, authorizationManager, repositoryManager));
+                    consumerChannel -> new ResourceModificationRequestConsumer(consumerChannel, this, authorizationManager, repositoryManager));
             log.info("Receiver waiting for Resource Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -561,7 +992,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(RESOURCE_REMOVAL_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.resourceRemovalRequestedRoutingKey,
-                    new ResourceRemovalRequestConsumer(getChannel(), repositoryManager, this, authorizationManager));
+                    consumerChannel -> new ResourceRemovalRequestConsumer(consumerChannel, repositoryManager, this, authorizationManager));
             log.info("Receiver waiting for Resource Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -577,7 +1008,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(RESOURCE_CLEAR_DATA_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.resourceClearDataRequestedRoutingKey,
-                    new ResourceClearDataRequestConsumer(getChannel(), repositoryManager, this, authorizationManager));
+                    consumerChannel -> new ResourceClearDataRequestConsumer(consumerChannel, repositoryManager, this, authorizationManager));
             log.info("Receiver waiting for Clear Data messages....");
         } catch (IOException e) {
             log.error(e);
@@ -593,13 +1024,34 @@ public class RabbitManager {
             createQueueAndBeginConsuming(PLATFORM_RESOURCES_REQUESTED_QUEUE,
                     this.platformExchangeName,
                     this.platformResourcesRequestedRoutingKey,
-                    new PlatformResourcesRequestConsumer(getChannel(), repositoryManager, this, authorizationManager));
+                    consumerChannel -> new PlatformResourcesRequestConsumer(consumerChannel, repositoryManager, this, authorizationManager));
             log.info("Receiver waiting for Platform Resources Requests messages....");
         } catch (IOException e) {
             log.error(e);
         }
     }
 
+    /**
+     * Method creates exclusive queue of this node and binds it to platform created, modified and removed events,
+     * so that every Registry node removes changed Platforms from its Platform cache and Interworking Service index.
+     */
+    public void startConsumerOfPlatformCacheInvalidationMessages() {
+        if (this.platformCache == null) {
+            return;
+        }
+        try {
+            // events published before the consumer was (re)started were missed
+            this.platformCache.invalidateAll();
+            createExclusiveQueueAndBeginConsuming(this.platformExchangeName,
+                    Arrays.asList(this.platformCreatedRoutingKey, this.platformModifiedRoutingKey,
+                            this.platformRemovedRoutingKey),
+                    new PlatformCacheInvalidationConsumer(getChannel(), this.codecs, this.platformCache, this.interworkingServiceIndex));
+            log.info("Receiver waiting for Platform events to invalidate Platform cache....");
+        } catch (IOException e) {
+            log.error(e);
+        }
+    }
+
     /**
      * Method creates queue and binds it globally available exchange and adequate Routing Key.
      * It also creates a consumer for messages incoming to this queue, regarding to Platform creation requests.
@@ -609,7 +1061,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(PLATFORM_CREATION_REQUESTED_QUEUE,
                     this.platformExchangeName,
                     this.platformCreationRequestedRoutingKey,
-                    new PlatformCreationRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new PlatformCreationRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Platform Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -625,7 +1077,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(PLATFORM_MODIFICATION_REQUESTED_QUEUE,
                     this.platformExchangeName,
                     this.platformModificationRequestedRoutingKey,
-                    new PlatformModificationRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new PlatformModificationRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Platform Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -641,7 +1093,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(PLATFORM_REMOVAL_REQUESTED_QUEUE,
                     this.platformExchangeName,
                     this.platformRemovalRequestedRoutingKey,
-                    new PlatformRemovalRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new PlatformRemovalRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Platform Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -657,7 +1109,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(PLATFORM_DETAILS_REQUESTED_QUEUE,
                     this.platformExchangeName,
                     this.platformDetailsRequestedRoutingKey,
-                    new PlatformDetailsRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new PlatformDetailsRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Get Platform Details messages....");
         } catch (IOException e) {
             log.error(e);
@@ -673,7 +1125,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(INFORMATION_MODEL_CREATION_REQUESTED_QUEUE,
                     this.informationModelExchangeName,
                     this.informationModelCreationRequestedRoutingKey,
-                    new InformationModelCreationRequestConsumer(getChannel(), this));
+                    consumerChannel -> new InformationModelCreationRequestConsumer(consumerChannel, this));
             log.info("Receiver waiting for Information Model Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -689,7 +1141,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(INFORMATION_MODEL_MODIFICATION_REQUESTED_QUEUE,
                     this.informationModelExchangeName,
                     this.informationModelModificationRequestedRoutingKey,
-                    new InformationModelModificationRequestConsumer(getChannel(), this));
+                    consumerChannel -> new InformationModelModificationRequestConsumer(consumerChannel, this));
             log.info("Receiver waiting for Information Model Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -705,7 +1157,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(INFORMATION_MODEL_REMOVAL_REQUESTED_QUEUE,
                     this.informationModelExchangeName,
                     this.informationModelRemovalRequestedRoutingKey,
-                    new InformationModelRemovalRequestConsumer(getChannel(), this, repositoryManager));
+                    consumerChannel -> new InformationModelRemovalRequestConsumer(consumerChannel, this, repositoryManager));
             log.info("Receiver waiting for Information Model Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -717,19 +1169,41 @@ public class RabbitManager {
             createQueueAndBeginConsuming(INFORMATION_MODELS_REQUESTED_QUEUE,
                     this.informationModelExchangeName,
                     this.informationModelsRequestedRoutingKey,
-                    new GetAllInformationModelsRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new GetAllInformationModelsRequestConsumer(consumerChannel, repositoryManager,
+                            this, informationModelReplyCache));
             log.info("Receiver waiting for List All Information Models Requests messages....");
         } catch (IOException e) {
             log.error(e);
         }
     }
 
+    /**
+     * Method creates exclusive queue of this node and binds it to information model created, modified and removed
+     * events, so that every Registry node rebuilds its cached Information Models replies.
+     */
+    public void startConsumerOfInformationModelCacheInvalidationMessages() {
+        if (this.informationModelReplyCache == null) {
+            return;
+        }
+        try {
+            // events published before the consumer was (re)started were missed
+            this.informationModelReplyCache.invalidate();
+            createExclusiveQueueAndBeginConsuming(this.informationModelExchangeName,
+                    Arrays.asList(this.informationModelCreatedRoutingKey, this.informationModelModifiedRoutingKey,
+                            this.informationModelRemovedRoutingKey),
+                    new InformationModelCacheInvalidationConsumer(getChannel(), this.informationModelReplyCache));
+            log.info("Receiver waiting for Information Model events to invalidate cached replies....");
+        } catch (IOException e) {
+            log.error(e);
+        }
+    }
+
     private void startConsumerOfFederationCreationMessages() {
         try {
             createQueueAndBeginConsuming(FEDERATION_CREATION_REQUESTED_QUEUE,
                     this.federationExchangeName,
                     this.federationCreationRequestedRoutingKey,
-                    new FederationCreationRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new FederationCreationRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Federation Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -742,7 +1216,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(FEDERATION_MODIFICATION_REQUESTED_QUEUE,
                     this.federationExchangeName,
                     this.federationModificationRequestedRoutingKey,
-                    new FederationModificationRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new FederationModificationRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Federation Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -754,7 +1228,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(FEDERATION_REMOVAL_REQUESTED_QUEUE,
                     this.federationExchangeName,
                     this.federationRemovalRequestedRoutingKey,
-                    new FederationRemovalRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new FederationRemovalRequestConsumer(consumerChannel, repositoryManager, this));
             log.info("Receiver waiting for Federation Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -766,7 +1240,8 @@ public class RabbitManager {
             createQueueAndBeginConsuming(FEDERATIONS_REQUESTED_QUEUE,
                     this.federationExchangeName,
                     this.federationsRequestedRoutingKey,
-                    new GetAllFederationsRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new GetAllFederationsRequestConsumer(consumerChannel, repositoryManager, this,
+                            federationIndex));
             log.info("Receiver waiting for Get All Federations messages....");
         } catch (IOException e) {
             log.error(e);
@@ -778,13 +1253,35 @@ public class RabbitManager {
             createQueueAndBeginConsuming(FEDERATION_REQUESTED_QUEUE,
                     this.federationExchangeName,
                     this.federationRequestedRoutingKey,
-                    new GetFederationForPlatformRequestConsumer(getChannel(), repositoryManager, this));
+                    consumerChannel -> new GetFederationForPlatformRequestConsumer(consumerChannel, repositoryManager, this,
+                            federationIndex));
             log.info("Receiver waiting for Get Federation for Platform messages....");
         } catch (IOException e) {
             log.error(e);
         }
     }
 
+    /**
+     * Method creates exclusive queue of this node and binds it to federation created, modified and removed events,
+     * so that every Registry node reloads its Federation index.
+     */
+    public void startConsumerOfFederationIndexInvalidationMessages() {
+        if (this.federationIndex == null) {
+            return;
+        }
+        try {
+            // events published before the consumer was (re)started were missed
+            this.federationIndex.invalidate();
+            createExclusiveQueueAndBeginConsuming(this.federationExchangeName,
+                    Arrays.asList(this.federationCreatedRoutingKey, this.federationModifiedRoutingKey,
+                            this.federationRemovedRoutingKey),
+                    new FederationIndexInvalidationConsumer(getChannel(), this.federationIndex));
+            log.info("Receiver waiting for Federation events to invalidate Federation index....");
+        } catch (IOException e) {
+            log.error(e);
+        }
+    }
+
     /**
      * Method creates queue and binds it globally available exchange and adequate Routing Key.
      * It also creates a consumer for messages incoming to this queue, regarding to SSP Resource creation requests.
@@ -794,7 +1291,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_RESOURCE_CREATION_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.sspSdevResourceCreationRequestedRoutingKey,
-                    new SspResourceCreationRequestConsumer(getChannel(), this, authorizationManager, repositoryManager));
+                    consumerChannel -> new SspResourceCreationRequestConsumer(consumerChannel, this, authorizationManager, repositoryManager));
             log.info("Receiver waiting for SSP Resource Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -810,7 +1307,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_RESOURCE_MODIFICATION_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.sspResourceModificationRequestedRoutingKey,
-                    new SspResourceModificationRequestConsumer(getChannel(), this, authorizationManager, repositoryManager));
+                    consumerChannel -> new SspResourceModificationRequestConsumer(consumerChannel, this, authorizationManager, repositoryManager));
             log.info("Receiver waiting for SSP Resource Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -826,7 +1323,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_RESOURCE_REMOVAL_REQUESTED_QUEUE,
                     this.resourceExchangeName,
                     this.sspResourceRemovalRequestedRoutingKey,
-                    new SspResourceRemovalRequestConsumer(getChannel(), repositoryManager, this, authorizationManager));
+                    consumerChannel -> new SspResourceRemovalRequestConsumer(consumerChannel, repositoryManager, this, authorizationManager));
             log.info("Receiver waiting for SSP Resource Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -842,7 +1339,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_CREATION_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspCreationRequestedRoutingKey,
-                    new SspCreationRequestConsumer(getChannel(), this, repositoryManager));
+                    consumerChannel -> new SspCreationRequestConsumer(consumerChannel, this, repositoryManager));
             log.info("Receiver waiting for SSP Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -858,7 +1355,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_MODIFICATION_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspModificationRequestedRoutingKey,
-                    new SspModificationRequestConsumer(getChannel(), this, repositoryManager));
+                    consumerChannel -> new SspModificationRequestConsumer(consumerChannel, this, repositoryManager));
             log.info("Receiver waiting for SSP Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -874,7 +1371,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_REMOVAL_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspRemovalRequestedRoutingKey,
-                    new SspRemovalRequestConsumer(getChannel(), this, repositoryManager));
+                    consumerChannel -> new SspRemovalRequestConsumer(consumerChannel, this, repositoryManager));
             log.info("Receiver waiting for SSP Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -890,7 +1387,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_DETAILS_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspDetailsRequestedRoutingKey,
-                    new SspDetailsRequestedConsumer(getChannel(), this, repositoryManager));
+                    consumerChannel -> new SspDetailsRequestedConsumer(consumerChannel, this, repositoryManager));
             log.info("Receiver waiting for SSP Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -906,7 +1403,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_SDEV_CREATION_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspSdevCreationRequestedRoutingKey,
-                    new SspSdevCreationRequestConsumer(getChannel(), this, repositoryManager, authorizationManager));
+                    consumerChannel -> new SspSdevCreationRequestConsumer(consumerChannel, this, repositoryManager, authorizationManager));
             log.info("Receiver waiting for SSP Sdev Creation messages....");
         } catch (IOException e) {
             log.error(e);
@@ -922,7 +1419,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_SDEV_MODIFICATION_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspSdevModificationRequestedRoutingKey,
-                    new SspSdevModificationRequestConsumer(getChannel(), this, repositoryManager, authorizationManager));
+                    consumerChannel -> new SspSdevModificationRequestConsumer(consumerChannel, this, repositoryManager, authorizationManager));
             log.info("Receiver waiting for SSP Sdev Modification messages....");
         } catch (IOException e) {
             log.error(e);
@@ -938,7 +1435,7 @@ public class RabbitManager {
             createQueueAndBeginConsuming(SSP_SDEV_REMOVAL_REQUESTED_QUEUE,
                     this.sspExchangeName,
                     this.sspSdevRemovalRequestedRoutingKey,
-                    new SspSdevRemovalRequestConsumer(getChannel(), this, repositoryManager, authorizationManager));
+                    consumerChannel -> new SspSdevRemovalRequestConsumer(consumerChannel, this, repositoryManager, authorizationManager));
             log.info("Receiver waiting for SSP Sdev Removal messages....");
         } catch (IOException e) {
             log.error(e);
@@ -953,8 +1450,7 @@ public class RabbitManager {
      */
     public void sendPlatformOperationMessage(Platform platform, RegistryOperationType operationType) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(platform);
+            byte[] message = codecs.writeAsBytes(platform);
 
             switch (operationType) {
                 case CREATION:
@@ -983,8 +1479,7 @@ public class RabbitManager {
                                              RegistryOperationType operationType,
                                              String classType) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(payload);
+            byte[] message = codecs.writeAsBytes(payload);
 
             switch (operationType) {
                 case CREATION:
@@ -1027,8 +1522,7 @@ public class RabbitManager {
     public void sendInformationModelOperationMessage(InformationModel informationModel,
                                                      RegistryOperationType operationType) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(informationModel);
+            byte[] message = codecs.writeAsBytes(informationModel);
 
             switch (operationType) {
                 case CREATION:
@@ -1051,11 +1545,9 @@ public class RabbitManager {
     }
 
     public void sendResourcesRemovalMessage(List<String> resourcesIds) {
-        ObjectMapper mapper = new ObjectMapper();
         String message = "";
         try {
-            message = mapper.writerFor(new TypeReference<List<String>>() {
-            }).writeValueAsString(resourcesIds);
+            message = codecs.writeStringList(resourcesIds);
         } catch (JsonProcessingException e) {
             log.error(e);
         }
@@ -1071,8 +1563,7 @@ public class RabbitManager {
      */
     public void sendSspOperationMessage(SmartSpace ssp, RegistryOperationType operationType) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(ssp);
+            byte[] message = codecs.writeAsBytes(ssp);
 
             switch (operationType) {
                 case CREATION:
@@ -1102,31 +1593,22 @@ public class RabbitManager {
      * and translate to JSON Core Resources.
      *
      * @param rpcConsumer          rabbit consumer that received the request
-     * @param rpcProperties        properties of request message received
-     * @param rpcEnvelope          envelope of request message received
-     * @param message              body of message in form of a JSON String with a CoreResourceRegistryRequest
-     * @param platformId           id of a platform corresponding to request
+     * @param context              context of the request, with its platform id and policies
+     * @param message              serialized CoreResourceRegistryRequest, as received
      * @param operationType        type of request - creation or modification
      * @param authorizationManager - authorization manager bean
-     * @param policiesMap          - map with security policies
      */
     public void sendResourceRdfValidationRpcMessage(DefaultConsumer rpcConsumer,
-                                                    AMQP.BasicProperties rpcProperties,
-                                                    Envelope rpcEnvelope,
-                                                    String message,
-                                                    String platformId,
+                                                    RequestContext<CoreResourceRegistryResponse> context,
+                                                    byte[] message,
                                                     RegistryOperationType operationType,
-                                                    AuthorizationManager authorizationManager,
-                                                    Map<String, IAccessPolicySpecifier> policiesMap) {
-        sendResourceOperationRpcMessageToSemanticManager(rpcConsumer, rpcProperties, rpcEnvelope,
+                                                    AuthorizationManager authorizationManager) {
+        sendResourceOperationRpcMessageToSemanticManager(rpcConsumer, context,
                 this.rdfResourceValidationRequestedRoutingKey,
                 RDF,
                 operationType,
                 message,
-                platformId,
-                authorizationManager,
-                policiesMap,
-                null); //// TODO: 15.01.2018 CHECK!!
+                authorizationManager);
         log.info("- rdf resource to validation message sent");
     }
 
@@ -1134,33 +1616,22 @@ public class RabbitManager {
      * Triggers method for contact with Semantic Manager to translate JSON Resources (BASIC description type) to RDFs.
      *
      * @param rpcConsumer          rabbit consumer that received the request
-     * @param rpcProperties        properties of request message received
-     * @param rpcEnvelope          envelope of request message received
-     * @param message              body of message in form of a JSON String with a CoreResourceRegistryRequest
-     * @param platformId           id of a platform corresponding to request
+     * @param context              context of the request, with its platform id, policies and deserialized resources
+     * @param message              serialized CoreResourceRegistryRequest, as received
      * @param operationType        type of request - creation or modification
      * @param authorizationManager - authorization manager bean
-     * @param policiesMap          - map with security policies
-     * @param requestBody          body from received request in form of a JSON String with a Map of a String and Resource
      */
     public void sendResourceJsonTranslationRpcMessage(DefaultConsumer rpcConsumer,
-                                                      AMQP.BasicProperties rpcProperties,
-                                                      Envelope rpcEnvelope,
-                                                      String message,
-                                                      String platformId,
+                                                      RequestContext<CoreResourceRegistryResponse> context,
+                                                      byte[] message,
                                                       RegistryOperationType operationType,
-                                                      AuthorizationManager authorizationManager,
-                                                      Map<String, IAccessPolicySpecifier> policiesMap,
-                                                      String requestBody) {
-        sendResourceOperationRpcMessageToSemanticManager(rpcConsumer, rpcProperties, rpcEnvelope,
+                                                      AuthorizationManager authorizationManager) {
+        sendResourceOperationRpcMessageToSemanticManager(rpcConsumer, context,
                 this.jsonResourceTranslationRequestedRoutingKey,
                 BASIC,
                 operationType,
                 message,
-                platformId,
-                authorizationManager,
-                policiesMap,
-                requestBody);
+                authorizationManager);
     }
 
     /**
@@ -1169,7 +1640,7 @@ public class RabbitManager {
      * @param rpcConsumer         rabbit consumer that received the request
      * @param rpcProperties       properties of request message received
      * @param rpcEnvelope         envelope of request message received
-     * @param message             body of message in form of a JSON String with a CoreResourceRegistryRequest
+     * @param message             serialized CoreResourceRegistryRequest, as received
      * @param sDevId              id of a platform corresponding to request
      * @param operationType       type of request - creation or modification
      * @param policiesMap         - map with security policies
@@ -1178,7 +1649,7 @@ public class RabbitManager {
     public void sendSspResourceJsonTranslationRpcMessage(DefaultConsumer rpcConsumer,
                                                          AMQP.BasicProperties rpcProperties,
                                                          Envelope rpcEnvelope,
-                                                         String message,
+                                                         byte[] message,
                                                          String sDevId,
                                                          String sspId,
                                                          RegistryOperationType operationType,
@@ -1199,6 +1670,7 @@ public class RabbitManager {
 
     /**
      * Sends reply message with given body to rabbit queue, for specified RPC sender.
+     * The reply is published on a channel from the publisher pool, the request is acked on the consumer's own channel.
      *
      * @param consumer
      * @param properties
@@ -1208,69 +1680,234 @@ public class RabbitManager {
      */
     public void sendRPCReplyMessage(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
                                     String response) throws IOException {
+        sendRPCReplyMessage(consumer, properties, envelope, response, null);
+    }
+
+    /**
+     * Sends reply message with given body and headers to rabbit queue, for specified RPC sender, and acks the request.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   reply body
+     * @param headers    headers of the reply, may be null
+     * @throws IOException
+     */
+    public void sendRPCReplyMessage(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                                    String response, Map<String, Object> headers) throws IOException {
+        sendRPCReplyMessage(consumer, properties, envelope, response.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    /**
+     * Sends one of many reply messages for specified RPC sender, without acking the request. Used for replies sent
+     * in chunks - the request has to be acked with the last chunk, sent by
+     * {@link #sendRPCReplyMessage(DefaultConsumer, AMQP.BasicProperties, Envelope, String, Map)}.
+     *
+     * @param properties properties of the request
+     * @param response   reply body
+     * @param headers    headers of the reply, may be null
+     * @throws IOException
+     */
+    public void sendRPCReplyPart(AMQP.BasicProperties properties, String response,
+                                 Map<String, Object> headers) throws IOException {
+        sendRPCReplyPart(properties, response.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    /**
+     * Serializes given response object straight to UTF-8 JSON bytes and sends it as reply message, for specified
+     * RPC sender, then acks the request. No intermediate String of the reply is created.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   reply object
+     * @throws IOException if the reply could not be serialized or sent
+     */
+    public void sendRPCReply(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                             Object response) throws IOException {
+        sendRPCReply(consumer, properties, envelope, response, null);
+    }
+
+    /**
+     * Serializes given response object straight to UTF-8 JSON bytes and sends it as reply message with given
+     * headers, for specified RPC sender, then acks the request.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   reply object
+     * @param headers    headers of the reply, may be null
+     * @throws IOException if the reply could not be serialized or sent
+     */
+    public void sendRPCReply(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                             Object response, Map<String, Object> headers) throws IOException {
+        sendRPCReplyMessage(consumer, properties, envelope, codecs.writeAsBytes(response), headers);
+    }
+
+    /**
+     * Sends error reply for specified RPC sender and acks the request. The request is acked even if the reply
+     * could not be sent, so that it does not stay unacknowledged.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   error reply object
+     */
+    public void sendErrorReplyAndAck(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                                     Object response) {
+        sendErrorReplyAndAck(consumer, properties, envelope, response, null);
+    }
+
+    /**
+     * Sends error reply with given headers for specified RPC sender and acks the request. The request is acked even
+     * if the reply could not be sent, so that it does not stay unacknowledged.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   error reply object
+     * @param headers    headers of the reply, may be null
+     */
+    public void sendErrorReplyAndAck(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                                     Object response, Map<String, Object> headers) {
+        try {
+            sendRPCReply(consumer, properties, envelope, response, headers);
+        } catch (Exception e) {
+            log.error("Error reply could not be sent", e);
+            try {
+                consumer.getChannel().basicAck(envelope.getDeliveryTag(), false);
+            } catch (Exception ackException) {
+                log.error("Request could not be acked", ackException);
+            }
+        }
+    }
+
+    /**
+     * Sends already serialized reply message to rabbit queue, for specified RPC sender, and acks the request.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   serialized reply body
+     * @throws IOException
+     */
+    public void sendRPCReplyMessage(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                                    byte[] response) throws IOException {
+        sendRPCReplyMessage(consumer, properties, envelope, response, null);
+    }
+
+    /**
+     * Sends already serialized reply message with given headers, for specified RPC sender, and acks the request.
+     *
+     * @param consumer   consumer which received the request
+     * @param properties properties of the request
+     * @param envelope   envelope of the request
+     * @param response   serialized reply body
+     * @param headers    headers of the reply, may be null
+     * @throws IOException
+     */
+    public void sendRPCReplyMessage(DefaultConsumer consumer, AMQP.BasicProperties properties, Envelope envelope,
+                                    byte[] response, Map<String, Object> headers) throws IOException {
+        sendRPCReplyPart(properties, response, headers);
+        consumer.getChannel().basicAck(envelope.getDeliveryTag(), false);
+    }
+
+    /**
+     * Sends one of many already serialized reply messages for specified RPC sender, without acking the request.
+     *
+     * @param properties properties of the request
+     * @param response   serialized reply body
+     * @param headers    headers of the reply, may be null
+     * @throws IOException
+     */
+    public void sendRPCReplyPart(AMQP.BasicProperties properties, byte[] response,
+                                 Map<String, Object> headers) throws IOException {
         if (properties.getReplyTo() != null || properties.getCorrelationId() != null) {
             AMQP.BasicProperties replyProps = new AMQP.BasicProperties
                     .Builder()
                     .correlationId(properties.getCorrelationId())
+                    .headers(headers)
                     .build();
 
-            consumer.getChannel().basicPublish("", properties.getReplyTo(), replyProps, response.getBytes());
+            getPublisherChannelPool().publish("", properties.getReplyTo(), replyProps, response);
             log.info("- RPC reply Message sent back!");
         } else {
             log.error("Received RPC message without ReplyTo or CorrelationId props.");
         }
-        consumer.getChannel().basicAck(envelope.getDeliveryTag(), false);
     }
 
     /**
-     * Publishes message on chosen routing key and creates a consumer waiting for responses.
+     * Sends the request to Semantic Manager when the limits of requests waiting for its replies allow it,
+     * otherwise queues it. When the queue is full, the request is answered at once with 503 status, and so is
+     * a queued request which expires before it is sent.
      *
      * @param rpcConsumer          rabbit consumer that received the request
-     * @param rpcProperties        properties of request message received
-     * @param rpcEnvelope          envelope of request message received
+     * @param context              context of the request received
      * @param routingKey           routing key that is supposed to be used to publish the message on
      * @param descriptionType      BASIC (json) or RDF descrption type of content
-     * @param message              request in form of a JSON String (a CoreResourceRegistryRequest)
-     * @param platformId           id of a platform corresponding to request
      * @param operationType        type of request - creation or modification
+     * @param message              serialized request (a CoreResourceRegistryRequest)
      * @param authorizationManager - authorization manager bean
-     * @param policiesMap          - map with security policies
-     * @param requestBody          body from received request in form of a JSON String with a Map of a String and Resource
      */
-    private void sendResourceOperationRpcMessageToSemanticManager(DefaultConsumer rpcConsumer, AMQP.BasicProperties rpcProperties, Envelope rpcEnvelope,
+    private void sendResourceOperationRpcMessageToSemanticManager(DefaultConsumer rpcConsumer,
+                                                                  RequestContext<CoreResourceRegistryResponse> context,
                                                                   String routingKey,
                                                                   DescriptionType descriptionType, RegistryOperationType operationType,
-                                                                  String message, String platformId, AuthorizationManager authorizationManager,
-                                                                  Map<String, IAccessPolicySpecifier> policiesMap,
-                                                                  String requestBody) {
-        try {
-            String replyQueueName = generateRpcQueue(rpcChannel);
-
-            String correlationId = UUID.randomUUID().toString();
-            AMQP.BasicProperties props = new AMQP.BasicProperties()
-                    .builder()
-                    .correlationId(correlationId)
-                    .replyTo(replyQueueName)
-                    .build();
+                                                                  byte[] message, AuthorizationManager authorizationManager) {
+        Runnable overloadReply = () -> {
+            CoreResourceRegistryResponse overloadResponse = new CoreResourceRegistryResponse();
+            overloadResponse.setStatus(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            overloadResponse.setMessage(SEMANTIC_MANAGER_OVERLOADED_MESSAGE);
+            overloadResponse.setDescriptionType(descriptionType);
+            sendSemanticManagerErrorReply(rpcConsumer, context.getProperties(), context.getEnvelope(), overloadResponse);
+        };
+        boolean admitted = getSemanticManagerAdmission().submit(context.getPlatformId(),
+                () -> publishResourceOperationRpcMessage(rpcConsumer, context, routingKey, descriptionType,
+                        operationType, message, authorizationManager),
+                overloadReply);
+        if (!admitted) {
+            overloadReply.run();
+        }
+    }
 
+    /**
+     * Publishes message on chosen routing key and creates a consumer waiting for responses.
+     * The context of the request is kept by the consumer until the response arrives.
+     */
+    private void publishResourceOperationRpcMessage(DefaultConsumer rpcConsumer,
+                                                    RequestContext<CoreResourceRegistryResponse> context,
+                                                    String routingKey,
+                                                    DescriptionType descriptionType, RegistryOperationType operationType,
+                                                    byte[] message, AuthorizationManager authorizationManager) {
+        String platformId = context.getPlatformId();
+        try {
             ResourceValidationResponseConsumer responseConsumer =
-                    new ResourceValidationResponseConsumer(rpcConsumer, rpcProperties, rpcEnvelope,
-                            rpcChannel, repositoryManager, this, platformId, operationType, descriptionType,
-                            authorizationManager, policiesMap, requestBody);
+                    new ResourceValidationResponseConsumer(rpcConsumer, context,
+                            getRpcReplyDispatcher().getChannel(), repositoryManager, this, operationType, descriptionType,
+                            authorizationManager);
 
-            rpcChannel.basicConsume(replyQueueName, true, responseConsumer);
-
-            log.info("Sending RPC message to Semantic Manager... \nMessage params:\nExchange name: "
-                    + this.resourceExchangeName + "\nRouting key: " + routingKey + "\nProps: " + props);
+            CoreResourceRegistryResponse timeoutResponse = new CoreResourceRegistryResponse();
+            timeoutResponse.setStatus(HttpStatus.SC_GATEWAY_TIMEOUT);
+            timeoutResponse.setMessage(SEMANTIC_MANAGER_TIMEOUT_MESSAGE);
+            timeoutResponse.setDescriptionType(descriptionType);
 
-            rpcChannel.basicPublish(this.resourceExchangeName, routingKey, true, props, message.getBytes());
+            publishRpcRequest(this.resourceExchangeName, routingKey, message,
+                    releaseAfterReply(responseConsumer, platformId),
+                    releaseAfterTimeout(() -> sendSemanticManagerErrorReply(rpcConsumer, context.getProperties(),
+                            context.getEnvelope(), timeoutResponse), platformId));
 
         } catch (IOException e) {
+            getSemanticManagerAdmission().release(platformId);
+            CoreResourceRegistryResponse errorResponse = new CoreResourceRegistryResponse();
+            errorResponse.setStatus(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            errorResponse.setMessage(SEMANTIC_MANAGER_UNREACHABLE_MESSAGE);
+            errorResponse.setDescriptionType(descriptionType);
+            sendSemanticManagerErrorReply(rpcConsumer, context.getProperties(), context.getEnvelope(), errorResponse);
             log.error("Unable to send message. Params: \n RPC consumer: " + rpcConsumer +
-                    "\nRpc props: " + rpcProperties +
-                    "\nrpc envelope: " + rpcEnvelope +
+                    "\nRpc props: " + context.getProperties() +
+                    "\nrpc envelope: " + context.getEnvelope() +
                     "\nrouting key: " + routingKey +
-                    "\nmessage: " + message +
+                    "\nmessage: " + new String(message, StandardCharsets.UTF_8) +
                     "\nplatform id: " + platformId +
                     this.resourceExchangeName + "  -  " + routingKey +
                     "\nerror message: " + e.getMessage() +
@@ -1279,13 +1916,14 @@ public class RabbitManager {
     }
 
     /**
-     * Publishes message on chosen routing key and creates a consumer waiting for responses.
+     * Sends the request to Semantic Manager within the admission limits of the SSP, see
+     * {@link #sendResourceOperationRpcMessageToSemanticManager}.
      *
      * @param rpcConsumer          rabbit consumer that received the request
      * @param rpcProperties        properties of request message received
      * @param rpcEnvelope          envelope of request message received
      * @param routingKey           routing key that is supposed to be used to publish the message on
-     * @param message              request in form of a JSON String (a CoreResourceRegistryRequest)
+     * @param message              serialized request (a CoreResourceRegistryRequest)
      * @param sdevId               id of a platform corresponding to request
      * @param operationType        type of request - creation or modification
      * @param authorizationManager - authorization manager bean
@@ -1295,39 +1933,61 @@ public class RabbitManager {
 
     private void sendSspResourceOperationRpcMessageToSemanticManager(DefaultConsumer rpcConsumer, AMQP.BasicProperties rpcProperties, Envelope rpcEnvelope,
                                                                      String routingKey, RegistryOperationType operationType,
-                                                                     String message, String sdevId, String sspId,
+                                                                     byte[] message, String sdevId, String sspId,
                                                                      AuthorizationManager authorizationManager,
                                                                      Map<String, IAccessPolicySpecifier> policiesMap,
                                                                      Map<String, Resource> requestResourcesMap) {
-        try {
-            String replyQueueName = generateRpcQueue(rpcChannel);
-
-            String correlationId = UUID.randomUUID().toString();
-            AMQP.BasicProperties props = new AMQP.BasicProperties()
-                    .builder()
-                    .correlationId(correlationId)
-                    .replyTo(replyQueueName)
-                    .build();
+        Runnable overloadReply = () -> {
+            CoreSspResourceRegistryResponse overloadResponse = new CoreSspResourceRegistryResponse();
+            overloadResponse.setStatus(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            overloadResponse.setMessage(SEMANTIC_MANAGER_OVERLOADED_MESSAGE);
+            sendSemanticManagerErrorReply(rpcConsumer, rpcProperties, rpcEnvelope, overloadResponse);
+        };
+        boolean admitted = getSemanticManagerAdmission().submit(sspId,
+                () -> publishSspResourceOperationRpcMessage(rpcConsumer, rpcProperties, rpcEnvelope, routingKey,
+                        operationType, message, sdevId, sspId, authorizationManager, policiesMap, requestResourcesMap),
+                overloadReply);
+        if (!admitted) {
+            overloadReply.run();
+        }
+    }
 
+    /**
+     * Publishes message on chosen routing key and creates a consumer waiting for responses.
+     */
+    private void publishSspResourceOperationRpcMessage(DefaultConsumer rpcConsumer, AMQP.BasicProperties rpcProperties, Envelope rpcEnvelope,
+                                                       String routingKey, RegistryOperationType operationType,
+                                                       byte[] message, String sdevId, String sspId,
+                                                       AuthorizationManager authorizationManager,
+                                                       Map<String, IAccessPolicySpecifier> policiesMap,
+                                                       Map<String, Resource> requestResourcesMap) {
+        try {
             SspResourceTranslationResponseConsumer responseConsumer = new SspResourceTranslationResponseConsumer(
                     rpcConsumer, rpcProperties, rpcEnvelope,
-                    rpcChannel, repositoryManager, this, sdevId, sspId, operationType,
+                    getRpcReplyDispatcher().getChannel(), repositoryManager, this, sdevId, sspId, operationType,
                     authorizationManager, policiesMap, requestResourcesMap
             );
 
-            rpcChannel.basicConsume(replyQueueName, true, responseConsumer);
-
-            log.info("Sending RPC message to Semantic Manager... \nMessage params:\nExchange name: "
-                    + this.resourceExchangeName + "\nRouting key: " + routingKey + "\nProps: " + props);
+            CoreSspResourceRegistryResponse timeoutResponse = new CoreSspResourceRegistryResponse();
+            timeoutResponse.setStatus(HttpStatus.SC_GATEWAY_TIMEOUT);
+            timeoutResponse.setMessage(SEMANTIC_MANAGER_TIMEOUT_MESSAGE);
 
-            rpcChannel.basicPublish(this.resourceExchangeName, routingKey, true, props, message.getBytes());
+            publishRpcRequest(this.resourceExchangeName, routingKey, message,
+                    releaseAfterReply(responseConsumer, sspId),
+                    releaseAfterTimeout(() -> sendSemanticManagerErrorReply(rpcConsumer, rpcProperties, rpcEnvelope,
+                            timeoutResponse), sspId));
 
         } catch (IOException e) {
+            getSemanticManagerAdmission().release(sspId);
+            CoreSspResourceRegistryResponse errorResponse = new CoreSspResourceRegistryResponse();
+            errorResponse.setStatus(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            errorResponse.setMessage(SEMANTIC_MANAGER_UNREACHABLE_MESSAGE);
+            sendSemanticManagerErrorReply(rpcConsumer, rpcProperties, rpcEnvelope, errorResponse);
             log.error("Unable to send message. Params: \n RPC consumer: " + rpcConsumer +
                     "\nRpc props: " + rpcProperties +
                     "\nrpc envelope: " + rpcEnvelope +
                     "\nrouting key: " + routingKey +
-                    "\nmessage: " + message +
+                    "\nmessage: " + new String(message, StandardCharsets.UTF_8) +
                     "\nsdev id: " + sdevId +
                     this.resourceExchangeName + "  -  " + routingKey +
                     "\nerror message: " + e.getMessage() +
@@ -1358,7 +2018,7 @@ public class RabbitManager {
 
             rpcChannel.basicConsume(replyQueueName, true, responseConsumer);
 
-            rpcChannel.basicPublish(exchangeName, routingKey, true, props, message.getBytes());
+            rpcChannel.basicPublish(exchangeName, routingKey, true, props, message.getBytes(StandardCharsets.UTF_8));
 
             log.info("Sending Custom RPC Message... \nMessage params:\nExchange name: "
                     + exchangeName + "\nRouting key: " + routingKey + "\nProps: " + props);
@@ -1382,6 +2042,18 @@ public class RabbitManager {
      * @param classType  message content in JSON String format
      */
     private void sendMessage(String exchange, String routingKey, String message, String classType) {
+        sendMessage(exchange, routingKey, message.getBytes(StandardCharsets.UTF_8), classType);
+    }
+
+    /**
+     * Method publishes given, already serialized (UTF-8 JSON) message to the given exchange and routing key.
+     *
+     * @param exchange   name of the proper Rabbit exchange, adequate to topic of the communication
+     * @param routingKey name of the proper Rabbit routing key, adequate to topic of the communication
+     * @param message    message content in UTF-8 encoded JSON
+     * @param classType  message content in JSON String format
+     */
+    private void sendMessage(String exchange, String routingKey, byte[] message, String classType) {
         try {
             Map<String, Object> headers = new HashMap<>();
             headers.put("__TypeId__", classType);
@@ -1393,12 +2065,59 @@ public class RabbitManager {
                     .build();
 
             log.info("Sending message...");
-            getChannel().basicPublish(exchange, routingKey, props, message.getBytes());
+            if (this.publisherConfirmsEnabled) {
+                getConfirmingPublisher().publish(exchange, routingKey, props, message);
+            } else {
+                getPublisherChannelPool().publish(exchange, routingKey, props, message);
+            }
         } catch (IOException e) {
             log.error(e);
         }
     }
 
+    /**
+     * Returns pool of channels used for publishing, separated from the channels consumers are registered on.
+     *
+     * @return publisher channel pool
+     */
+    private synchronized PublisherChannelPool getPublisherChannelPool() {
+        if (this.publisherChannelPool == null) {
+            this.publisherChannelPool = new PublisherChannelPool(getChannel().getConnection(), this.publisherChannels,
+                    this::handleReturnedRpcRequest);
+        }
+        return this.publisherChannelPool;
+    }
+
+    /**
+     * Fails the RPC request returned by the broker as unroutable at once, instead of waiting for its timeout.
+     */
+    private void handleReturnedRpcRequest(int replyCode, String replyText, String exchange, String routingKey,
+                                          AMQP.BasicProperties properties, byte[] body) {
+        log.error("RPC request to " + exchange + " - " + routingKey + " returned: " + replyCode + " " + replyText);
+        RpcReplyDispatcher dispatcher = this.rpcReplyDispatcher;
+        if (dispatcher != null && properties.getCorrelationId() != null) {
+            dispatcher.fail(properties.getCorrelationId());
+        }
+    }
+
+    /**
+     * Returns publisher used for event messages when publisher confirms are enabled.
+     * It publishes on its own channel, so confirm mode does not affect channels used by consumers.
+     *
+     * @return publisher tracking broker confirmations
+     * @throws IOException if confirm channel could not be created
+     */
+    private synchronized ConfirmingPublisher getConfirmingPublisher() throws IOException {
+        if (this.confirmingPublisher == null) {
+            this.confirmingPublisher = new ConfirmingPublisher(getChannel().getConnection().createChannel(),
+                    this.publisherConfirmsMaxOutstanding,
+                    this.publisherConfirmsMaxRetries,
+                    this.publisherConfirmsPublishTimeout);
+            log.info("Publisher confirms enabled for event messages");
+        }
+        return this.confirmingPublisher;
+    }
+
     public void sendCustomMessage(String exchange, String routingKey, String message, String classType) {
         sendMessage(exchange, routingKey, message, classType);
     }
@@ -1418,42 +2137,130 @@ public class RabbitManager {
 
     public void sendInformationModelValidationRpcMessage(DefaultConsumer rpcConsumer,
                                                          AMQP.BasicProperties rpcProperties, Envelope rpcEnvelope,
-                                                         String message, RegistryOperationType operationType) {
+                                                         byte[] message, RegistryOperationType operationType) {
         try {
-            String replyQueueName = generateRpcQueue(rpcChannel);
-
-            String correlationId = UUID.randomUUID().toString();
-            AMQP.BasicProperties props = new AMQP.BasicProperties()
-                    .builder()
-                    .correlationId(correlationId)
-                    .replyTo(replyQueueName)
-                    .build();
-
             InformationModelValidationResponseConsumer responseConsumer =
                     new InformationModelValidationResponseConsumer(rpcConsumer, rpcProperties, rpcEnvelope,
-                            rpcChannel, repositoryManager, this, operationType);
+                            getRpcReplyDispatcher().getChannel(), repositoryManager, this, operationType);
 
-            rpcChannel.basicConsume(replyQueueName, true, responseConsumer);
-
-            log.info("Sending RPC message to Semantic Manager... \nMessage params:" +
-                    "\nExchange name: " + informationModelExchangeName
-                    + "\nRouting key: " + rdfInformationModelValidationRequestedRoutingKey
-                    + "\nProps: " + props);
+            InformationModelResponse timeoutResponse = new InformationModelResponse();
+            timeoutResponse.setStatus(HttpStatus.SC_GATEWAY_TIMEOUT);
+            timeoutResponse.setMessage(SEMANTIC_MANAGER_TIMEOUT_MESSAGE);
 
-            rpcChannel.basicPublish(
-                    this.informationModelExchangeName,
-                    this.rdfInformationModelValidationRequestedRoutingKey,
-                    true, props, message.getBytes());
+            publishRpcRequest(this.informationModelExchangeName, this.rdfInformationModelValidationRequestedRoutingKey,
+                    message, responseConsumer,
+                    () -> sendSemanticManagerErrorReply(rpcConsumer, rpcProperties, rpcEnvelope, timeoutResponse));
 
         } catch (IOException e) {
             log.error(e);
+            InformationModelResponse errorResponse = new InformationModelResponse();
+            errorResponse.setStatus(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            errorResponse.setMessage(SEMANTIC_MANAGER_UNREACHABLE_MESSAGE);
+            sendSemanticManagerErrorReply(rpcConsumer, rpcProperties, rpcEnvelope, errorResponse);
         }
     }
 
-    private String generateRpcQueue(Channel rpcChannel) throws IOException {
-        String queueName = UUID.randomUUID().toString();
-        rpcChannel.queueDeclare(queueName, false, true, true, queueArgs);
-        return queueName;
+    /**
+     * Returns dispatcher of RPC replies, creating it (and the RPC channel) if init was not called before.
+     *
+     * @return shared RPC reply dispatcher
+     * @throws IOException if reply queue could not be declared
+     */
+    private synchronized RpcReplyDispatcher getRpcReplyDispatcher() throws IOException {
+        if (this.rpcReplyDispatcher == null) {
+            if (this.rpcChannel == null) {
+                this.rpcChannel = getChannel().getConnection().createChannel();
+            }
+            this.rpcReplyDispatcher = createRpcReplyDispatcher(this.rpcChannel);
+        }
+        return this.rpcReplyDispatcher;
+    }
+
+    private long getRpcReplyTimeout() {
+        if (this.rpcReplyTimeout > 0) {
+            return this.rpcReplyTimeout;
+        }
+        return this.rabbitMessageTimeout != null ? this.rabbitMessageTimeout : 20000;
+    }
+
+    /**
+     * Publishes RPC request with the shared reply queue set as replyTo. The reply is passed to given continuation
+     * by the RPC reply dispatcher, matched by correlation id.
+     *
+     * @param exchangeName   name of the exchange to publish the request to
+     * @param routingKey     routing key of the request
+     * @param message        request content
+     * @param continuation   consumer handling the reply
+     * @param timeoutHandler action run when the reply does not come in time
+     * @throws IOException if the request could not be published
+     */
+    private void publishRpcRequest(String exchangeName, String routingKey, byte[] message,
+                                   Consumer continuation, Runnable timeoutHandler) throws IOException {
+        publishRpcRequest(exchangeName, routingKey, message, null, continuation, timeoutHandler, getRpcReplyTimeout());
+    }
+
+    private void publishRpcRequest(String exchangeName, String routingKey, byte[] message, String contentType,
+                                   Consumer continuation, Runnable timeoutHandler, long timeoutMillis) throws IOException {
+        RpcReplyDispatcher dispatcher = getRpcReplyDispatcher();
+        String correlationId = dispatcher.register(continuation, timeoutHandler, timeoutMillis);
+        AMQP.BasicProperties props = new AMQP.BasicProperties()
+                .builder()
+                .correlationId(correlationId)
+                .replyTo(dispatcher.getReplyQueueName())
+                .contentType(contentType)
+                .build();
+
+        log.info("Sending RPC message... \nMessage params:\nExchange name: "
+                + exchangeName + "\nRouting key: " + routingKey + "\nProps: " + props);
+
+        try {
+            getPublisherChannelPool().publish(exchangeName, routingKey, true, props, message);
+        } catch (IOException e) {
+            dispatcher.unregister(correlationId);
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps continuation of a Semantic Manager request, so that the request is finished in the admission limits
+     * once its reply is handled.
+     */
+    private DefaultConsumer releaseAfterReply(DefaultConsumer continuation, String platformId) {
+        return new DefaultConsumer(continuation.getChannel()) {
+            @Override
+            public void handleDelivery(String consumerTag, Envelope envelope,
+                                       AMQP.BasicProperties properties, byte[] body) throws IOException {
+                try {
+                    continuation.handleDelivery(consumerTag, envelope, properties, body);
+                } finally {
+                    getSemanticManagerAdmission().release(platformId);
+                }
+            }
+        };
+    }
+
+    private Runnable releaseAfterTimeout(Runnable timeoutHandler, String platformId) {
+        return () -> {
+            try {
+                timeoutHandler.run();
+            } finally {
+                getSemanticManagerAdmission().release(platformId);
+            }
+        };
+    }
+
+    /**
+     * Replies with given error response to the request which is waiting for the answer of Semantic Manager
+     * that did not come in time, or which could not be sent to Semantic Manager at all - because too many requests
+     * wait for the answers or because publishing failed. The request is acknowledged together with the reply.
+     */
+    private void sendSemanticManagerErrorReply(DefaultConsumer rpcConsumer, AMQP.BasicProperties rpcProperties,
+                                         Envelope rpcEnvelope, Object errorResponse) {
+        try {
+            sendRPCReply(rpcConsumer, rpcProperties, rpcEnvelope, errorResponse);
+        } catch (IOException e) {
+            log.error("Unable to send Semantic Manager error reply message", e);
+        }
     }
 
     /**
@@ -1464,8 +2271,7 @@ public class RabbitManager {
      */
     public void sendFederationOperationMessage(Federation federation, RegistryOperationType operationType) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(federation);
+            byte[] message = codecs.writeAsBytes(federation);
 
             switch (operationType) {
                 case CREATION:
@@ -1497,8 +2303,7 @@ public class RabbitManager {
      */
     public void sendSdevOperationMessage(SspRegInfo sDev, RegistryOperationType operationType) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            String message = mapper.writeValueAsString(sDev);
+            byte[] message = codecs.writeAsBytes(sDev);
 
             switch (operationType) {
                 case CREATION:
@@ -1524,9 +2329,10 @@ public class RabbitManager {
 
     /**
      * Method used to send message via RPC (Remote Procedure Call) pattern.
-     * Before sending a message, a temporary response queue is declared and its name is passed along with the message.
-     * When a consumer handles the message, it returns the result via the response queue.
-     * Since this is a synchronous pattern, it uses timeout of 20 seconds. If the response doesn't come in that time, the method returns with null result.
+     * The message is sent with the shared reply queue set as replyTo and the response is matched by correlation id.
+     * Since this is a synchronous pattern, it uses the default RPC timeout. If the response doesn't come in that time, the method returns with null result.
+     * The calling thread never waits longer than the timeout (plus a short grace period), even if the timeout handler
+     * of the request does not run, e.g. because the reply dispatcher was shut down.
      *
      * @param exchangeName name of the exchange to send message to
      * @param routingKey   routing key to send message to
@@ -1534,56 +2340,94 @@ public class RabbitManager {
      * @return response from the consumer or null if timeout occurs
      */
     public String sendRpcMessageAndConsumeResponse(String exchangeName, String routingKey, String message) {
-
-        QueueingConsumer consumer = new QueueingConsumer(getChannel());
-
         try {
             log.debug("Sending RPC message...");
-
-            String replyQueueName = generateRpcQueue(getChannel());
-
-            String correlationId = UUID.randomUUID().toString();
-            AMQP.BasicProperties props = new AMQP.BasicProperties()
-                    .builder()
-                    .correlationId(correlationId)
-                    .replyTo(replyQueueName)
-                    .contentType("application/json")
-                    .build();
-
-            getChannel().basicConsume(replyQueueName, true, consumer);
-
-            String responseMsg = null;
-
-            getChannel().basicPublish(exchangeName, routingKey, props, message.getBytes());
-            while (true) {
-                QueueingConsumer.Delivery delivery = consumer.nextDelivery(20000);
-                if (delivery == null) {
-                    log.info("Timeout in response retrieval");
-                    return null;
-                }
-
-                if (delivery.getProperties().getCorrelationId().equals(correlationId)) {
-                    log.debug("Got reply with correlationId: " + correlationId);
-                    responseMsg = new String(delivery.getBody());
-                    log.debug("reply content: " + responseMsg);
-                    break;
-                } else {
-                    log.debug("Got answer with wrong correlationId... should be " + correlationId + " but got " + delivery.getProperties().getCorrelationId());
-                }
-            }
-            log.debug("Finished rpc loop");
-
+            long timeoutMillis = getRpcReplyTimeout();
+            String responseMsg = sendRpcMessage(exchangeName, routingKey, message, timeoutMillis)
+                    .get(timeoutMillis + RPC_RESPONSE_WAIT_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+            log.debug("reply content: " + responseMsg);
             return responseMsg;
-        } catch (IOException | InterruptedException e) {
-            log.error("Error while sending RPC Message via RabbitMQ", e);
-        } finally {
-            try {
-                getChannel().basicCancel(consumer.getConsumerTag());
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
+        } catch (TimeoutException e) {
+            log.info("Timeout in response retrieval");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.info("Timeout in response retrieval");
+            } else {
+                log.error("Error while sending RPC Message via RabbitMQ", e.getCause());
             }
+        } catch (InterruptedException e) {
+            log.error("Error while sending RPC Message via RabbitMQ", e);
+            Thread.currentThread().interrupt();
         }
         return null;
     }
 
+    /**
+     * Sends message via RPC pattern without blocking the calling thread, using the default RPC timeout.
+     *
+     * @param exchangeName name of the exchange to send message to
+     * @param routingKey   routing key to send message to
+     * @param message      message to be sent
+     * @return future completed with the response, or completed exceptionally with TimeoutException if the response
+     * does not come in time
+     */
+    public CompletableFuture<String> sendRpcMessage(String exchangeName, String routingKey, String message) {
+        return sendRpcMessage(exchangeName, routingKey, message, getRpcReplyTimeout());
+    }
+
+    /**
+     * Sends message via RPC pattern without blocking the calling thread.
+     *
+     * @param exchangeName  name of the exchange to send message to
+     * @param routingKey    routing key to send message to
+     * @param message       message to be sent
+     * @param timeoutMillis time to wait for the response in milliseconds
+     * @return future completed with the response, or completed exceptionally with TimeoutException if the response
+     * does not come in time
+     */
+    public CompletableFuture<String> sendRpcMessage(String exchangeName, String routingKey, String message,
+                                                    long timeoutMillis) {
+        CompletableFuture<String> responseFuture = new CompletableFuture<>();
+        try {
+            RpcReplyDispatcher dispatcher = getRpcReplyDispatcher();
+            Consumer continuation = new DefaultConsumer(dispatcher.getChannel()) {
+                @Override
+                public void handleDelivery(String consumerTag, Envelope envelope,
+                                           AMQP.BasicProperties properties, byte[] body) throws IOException {
+                    responseFuture.complete(new String(body, "UTF-8"));
+                }
+            };
+            publishRpcRequest(exchangeName, routingKey, message.getBytes(StandardCharsets.UTF_8), "application/json", continuation,
+                    () -> responseFuture.completeExceptionally(new TimeoutException(
+                            "No response for RPC message sent to " + exchangeName + " - " + routingKey)),
+                    timeoutMillis);
+        } catch (IOException e) {
+            responseFuture.completeExceptionally(e);
+        }
+        return responseFuture;
+    }
+
+    /**
+     * Sends message via RPC pattern without blocking the calling thread and deserializes the JSON response.
+     *
+     * @param exchangeName  name of the exchange to send message to
+     * @param routingKey    routing key to send message to
+     * @param message       message to be sent
+     * @param responseType  class of the expected response
+     * @param timeoutMillis time to wait for the response in milliseconds
+     * @param <T>           type of the expected response
+     * @return future completed with the deserialized response
+     */
+    public <T> CompletableFuture<T> sendRpcMessage(String exchangeName, String routingKey, String message,
+                                                   Class<T> responseType, long timeoutMillis) {
+        return sendRpcMessage(exchangeName, routingKey, message, timeoutMillis)
+                .thenApply(response -> {
+                    try {
+                        return codecs.read(response, responseType);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
 }
\ No newline at end of file
@@ -1,8 +1,18 @@
 package eu.h2020.symbiote.managers;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
 import eu.h2020.symbiote.cloud.model.ssp.SspRegInfo;
 import eu.h2020.symbiote.core.internal.CoreResource;
 import eu.h2020.symbiote.model.CoreSspResource;
+import eu.h2020.symbiote.model.RegistryOperationType;
+import eu.h2020.symbiote.model.ResourceCompensationLog;
+import eu.h2020.symbiote.model.ResourceSummary;
 import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.mim.*;
 import eu.h2020.symbiote.model.persistenceResults.*;
@@ -14,11 +24,32 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Class managing persistence actions for Platforms, Resources and Locations using MongoDB repositories.
@@ -41,6 +72,12 @@ public class RepositoryManager {
     private SspRepository sspRepository;
     private CoreSspResourceRepository coreSspResourceRepository;
     private SdevRepository sdevRepository;
+    private MongoTemplate mongoTemplate;
+    private PlatformCache platformCache;
+    private InterworkingServiceIndex interworkingServiceIndex;
+    private InformationModelReplyCache informationModelReplyCache;
+    private FederationIndex federationIndex;
+    private TokenVerificationCache tokenVerificationCache;
 
     @Autowired
     public RepositoryManager(PlatformRepository platformRepository,
@@ -49,7 +86,8 @@ public class RepositoryManager {
                              FederationRepository federationRepository,
                              SspRepository sspRepository,
                              CoreSspResourceRepository coreSspResourceRepository,
-                             SdevRepository sdevRepository) {
+                             SdevRepository sdevRepository,
+                             MongoTemplate mongoTemplate) {
         this.platformRepository = platformRepository;
         this.resourceRepository = resourceRepository;
         this.informationModelRepository = informationModelRepository;
@@ -57,6 +95,59 @@ public class RepositoryManager {
         this.sspRepository = sspRepository;
         this.coreSspResourceRepository = coreSspResourceRepository;
         this.sdevRepository = sdevRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Sets cache used for Platform lookups. Without the cache every lookup reads the Platform Repository.
+     *
+     * @param platformCache shared Platform cache
+     */
+    @Autowired
+    public void setPlatformCache(PlatformCache platformCache) {
+        this.platformCache = platformCache;
+    }
+
+    /**
+     * Sets index used to resolve Interworking Service URLs. Without the index Interworking Services of the Platform
+     * are scanned on every lookup.
+     *
+     * @param interworkingServiceIndex shared Interworking Service index
+     */
+    @Autowired
+    public void setInterworkingServiceIndex(InterworkingServiceIndex interworkingServiceIndex) {
+        this.interworkingServiceIndex = interworkingServiceIndex;
+    }
+
+    /**
+     * Sets cache of serialized Information Models replies, invalidated on every Information Model write.
+     *
+     * @param informationModelReplyCache shared Information Models reply cache
+     */
+    @Autowired
+    public void setInformationModelReplyCache(InformationModelReplyCache informationModelReplyCache) {
+        this.informationModelReplyCache = informationModelReplyCache;
+    }
+
+    /**
+     * Sets in-memory index of Federations, updated on every Federation write. Without the index Federations
+     * are read from the Federation Repository.
+     *
+     * @param federationIndex shared Federation index
+     */
+    @Autowired
+    public void setFederationIndex(FederationIndex federationIndex) {
+        this.federationIndex = federationIndex;
+    }
+
+    /**
+     * Sets cache of token verifications, from which verifications of removed Platforms and Smart Spaces are evicted.
+     *
+     * @param tokenVerificationCache shared token verification cache
+     */
+    @Autowired
+    public void setTokenVerificationCache(TokenVerificationCache tokenVerificationCache) {
+        this.tokenVerificationCache = tokenVerificationCache;
     }
 
     //// TODO: 15.06.2018 change all String null checks to StringUtils.isNotBlank(STR)
@@ -89,6 +180,10 @@ public class RepositoryManager {
                     log.info("Saving platform: " + platformToSave.getId());
 
                     savedPlatform = platformRepository.save(platformToSave);
+                    invalidateCachedPlatform(savedPlatform.getId());
+                    if (interworkingServiceIndex != null) {
+                        interworkingServiceIndex.indexPlatform(savedPlatform);
+                    }
                     log.info("Platform \"" + savedPlatform + "\" saved !");
                     platformSavingResult.setStatus(HttpStatus.SC_OK);
                     platformSavingResult.setMessage("OK");
@@ -141,6 +236,10 @@ public class RepositoryManager {
                 Platform modifiedPlatform = copyExistingPlatformData(platformToModify, foundPlatform);
 
                 platformRepository.save(modifiedPlatform);
+                invalidateCachedPlatform(modifiedPlatform.getId());
+                if (interworkingServiceIndex != null) {
+                    interworkingServiceIndex.indexPlatform(modifiedPlatform);
+                }
                 log.info("Platform with id: " + modifiedPlatform.getId() + " modified !");
 
                 platformModifyingResult.setStatus(HttpStatus.SC_OK);
@@ -179,6 +278,13 @@ public class RepositoryManager {
         } else {
             try {
                 platformRepository.delete(platformToRemove.getId());
+                invalidateCachedPlatform(platformToRemove.getId());
+                if (interworkingServiceIndex != null) {
+                    interworkingServiceIndex.remove(platformToRemove.getId());
+                }
+                if (tokenVerificationCache != null) {
+                    tokenVerificationCache.invalidatePlatform(platformToRemove.getId());
+                }
                 log.info("Platform with id: " + platformToRemove.getId() + " removed !");
 
                 platformRemovingResult.setStatus(HttpStatus.SC_OK);
@@ -195,7 +301,7 @@ public class RepositoryManager {
     private boolean ifPlatformHasResources(String platformId) {
         boolean platformHasResources = false;
 
-        Platform platform = platformRepository.findOne(platformId);
+        Platform platform = findPlatform(platformId);
         List<String> urls = platform.getInterworkingServices().stream().map(InterworkingService::getUrl).collect(Collectors.toList());
 
         for (String url : urls) {
@@ -355,6 +461,556 @@ public class RepositoryManager {
         return resourceRemovalResult;
     }
 
+    /**
+     * Saves given resources in MongoDB using one unordered bulk insert instead of a round-trip per resource.
+     * Resources are validated and their URLs normalized the same way as in {@link #saveResource(CoreResource)}.
+     * Resources which fail validation or whose insert fails get an error status, the rest is saved.
+     *
+     * @param resources resources to save, mapped by keys used in the request
+     * @return persistence results mapped by the same keys
+     */
+    public Map<String, ResourcePersistenceResult> saveResources(Map<String, CoreResource> resources) {
+        return saveResources(resources, null);
+    }
+
+    /**
+     * Saves given resources like {@link #saveResources(Map)}, but all or nothing: if any of the resources could not
+     * be saved, the ones already inserted are removed again. Ids and fingerprints of the inserted resources are
+     * journaled in compensation log before the insert, so an operation interrupted in the middle can be compensated
+     * later with {@link #compensateInterruptedOperations(long)}.
+     *
+     * @param resources resources to save, mapped by keys used in the request
+     * @return persistence results mapped by the same keys
+     */
+    public Map<String, ResourcePersistenceResult> saveResourcesAtomically(Map<String, CoreResource> resources) {
+        String operationId = UUID.randomUUID().toString();
+        List<ResourceCompensationLog> compensationLogs = new ArrayList<>();
+        Map<String, ResourcePersistenceResult> results = saveResources(resources, resourcesToSave -> {
+            Date createdAt = new Date();
+            for (CoreResource resource : resourcesToSave) {
+                ResourceCompensationLog compensationLog = new ResourceCompensationLog(
+                        operationId, RegistryOperationType.CREATION, resource.getId(), createdAt);
+                compensationLog.setWrittenVersionFingerprint(fingerprintOf(resource));
+                compensationLogs.add(compensationLog);
+            }
+            writeCompensationLogs(operationId, compensationLogs);
+        });
+        finishAtomicOperation(results, operationId, compensationLogs);
+        return results;
+    }
+
+    private Map<String, ResourcePersistenceResult> saveResources(Map<String, CoreResource> resources,
+                                                                 Consumer<List<CoreResource>> beforeInsert) {
+        Map<String, ResourcePersistenceResult> results = new LinkedHashMap<>();
+        List<String> keysToSave = new ArrayList<>();
+        List<CoreResource> resourcesToSave = new ArrayList<>();
+
+        for (Map.Entry<String, CoreResource> entry : resources.entrySet()) {
+            CoreResource resource = entry.getValue();
+            ResourcePersistenceResult validationResult = validateResourceForBulkOperation(resource);
+            if (validationResult != null) {
+                results.put(entry.getKey(), validationResult);
+            } else {
+                normalizeResourceInterworkingServiceUrl(resource);
+                keysToSave.add(entry.getKey());
+                resourcesToSave.add(resource);
+            }
+        }
+        if (resourcesToSave.isEmpty() || !runBeforeBulkWrite(beforeInsert, resourcesToSave, keysToSave, results)) {
+            return results;
+        }
+
+        Map<Integer, String> failedInserts = new HashMap<>();
+        try {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoreResource.class);
+            bulkOperations.insert(resourcesToSave);
+            bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            log.error("Error occurred during bulk Resource saving in db", e);
+            for (BulkWriteError error : e.getErrors()) {
+                failedInserts.put(error.getIndex(), error.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Error occurred during bulk Resource saving in db", e);
+            for (int i = 0; i < resourcesToSave.size(); i++) {
+                failedInserts.put(i, e.getMessage());
+            }
+        }
+
+        for (int i = 0; i < resourcesToSave.size(); i++) {
+            CoreResource resource = resourcesToSave.get(i);
+            if (failedInserts.containsKey(i)) {
+                results.put(keysToSave.get(i), new ResourcePersistenceResult(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                        "Error occurred during Resource saving in db", resource));
+            } else {
+                results.put(keysToSave.get(i), new ResourcePersistenceResult(HttpStatus.SC_OK, "OK", resource));
+            }
+        }
+        log.info((resourcesToSave.size() - failedInserts.size()) + " of " + resources.size() + " Resources saved in bulk!");
+        return results;
+    }
+
+    /**
+     * Modifies given resources in MongoDB. Existence of all resources is checked with one query and existing ones
+     * are replaced using one unordered bulk operation. Resources which do not exist in database get 'bad request'
+     * status, like in {@link #modifyResource(CoreResource)}.
+     *
+     * @param resources resources to modify, mapped by keys used in the request
+     * @return persistence results mapped by the same keys
+     */
+    public Map<String, ResourcePersistenceResult> modifyResources(Map<String, CoreResource> resources) {
+        return modifyResources(resources, null);
+    }
+
+    /**
+     * Modifies given resources like {@link #modifyResources(Map)}, but all or nothing: if any of the resources could
+     * not be modified, the ones already replaced are restored to their previous versions. The previous versions are
+     * read with the same single query which checks existence of the resources and journaled in compensation log
+     * before the bulk replace, so an operation interrupted in the middle can be compensated later with
+     * {@link #compensateInterruptedOperations(long)}. Fingerprints of the written versions are journaled as well,
+     * so that a resource changed by a later write is never restored to its stale previous version.
+     *
+     * @param resources resources to modify, mapped by keys used in the request
+     * @return persistence results mapped by the same keys
+     */
+    public Map<String, ResourcePersistenceResult> modifyResourcesAtomically(Map<String, CoreResource> resources) {
+        String operationId = UUID.randomUUID().toString();
+        List<ResourceCompensationLog> compensationLogs = new ArrayList<>();
+        Map<String, ResourcePersistenceResult> results = modifyResources(resources, previousVersions -> {
+            Map<String, CoreResource> writtenVersions = resources.values().stream()
+                    .filter(resource -> resource != null && resource.getId() != null)
+                    .collect(Collectors.toMap(CoreResource::getId, resource -> resource, (first, second) -> second));
+            Date createdAt = new Date();
+            for (CoreResource previousVersion : previousVersions) {
+                ResourceCompensationLog compensationLog = new ResourceCompensationLog(
+                        operationId, RegistryOperationType.MODIFICATION, previousVersion.getId(), createdAt);
+                compensationLog.setPreviousVersion(previousVersion);
+                compensationLog.setWrittenVersionFingerprint(
+                        fingerprintOf(writtenVersions.get(previousVersion.getId())));
+                compensationLogs.add(compensationLog);
+            }
+            writeCompensationLogs(operationId, compensationLogs);
+        });
+        finishAtomicOperation(results, operationId, compensationLogs);
+        return results;
+    }
+
+    private Map<String, ResourcePersistenceResult> modifyResources(Map<String, CoreResource> resources,
+                                                                   Consumer<List<CoreResource>> beforeReplace) {
+        Map<String, ResourcePersistenceResult> results = new LinkedHashMap<>();
+        Map<String, CoreResource> validResources = new LinkedHashMap<>();
+
+        for (Map.Entry<String, CoreResource> entry : resources.entrySet()) {
+            CoreResource resource = entry.getValue();
+            ResourcePersistenceResult validationResult = validateResourceForBulkOperation(resource);
+            if (validationResult != null) {
+                results.put(entry.getKey(), validationResult);
+            } else {
+                normalizeResourceInterworkingServiceUrl(resource);
+                validResources.put(entry.getKey(), resource);
+            }
+        }
+        if (validResources.isEmpty()) {
+            return results;
+        }
+
+        Map<String, CoreResource> storedResources;
+        try {
+            // full documents are needed only as snapshot for compensation, otherwise only ids are fetched
+            storedResources = findResourcesByIds(validResources.values().stream()
+                    .map(CoreResource::getId)
+                    .collect(Collectors.toList()), beforeReplace == null);
+        } catch (Exception e) {
+            log.error("Error occurred during Resources existence check in db", e);
+            validResources.forEach((key, resource) -> results.put(key, new ResourcePersistenceResult(
+                    HttpStatus.SC_INTERNAL_SERVER_ERROR, "Error occurred during Resource modifying in db", resource)));
+            return results;
+        }
+
+        List<String> keysToModify = new ArrayList<>();
+        List<CoreResource> resourcesToModify = new ArrayList<>();
+        List<CoreResource> previousVersions = new ArrayList<>();
+        validResources.forEach((key, resource) -> {
+            if (storedResources.containsKey(resource.getId())) {
+                keysToModify.add(key);
+                resourcesToModify.add(resource);
+                previousVersions.add(storedResources.get(resource.getId()));
+            } else {
+                log.error("Given resource does not exist in database! Id: " + resource.getId());
+                results.put(key, new ResourcePersistenceResult(HttpStatus.SC_BAD_REQUEST,
+                        "Given resource does not exist in database!", resource));
+            }
+        });
+        if (resourcesToModify.isEmpty()
+                || !runBeforeBulkWrite(beforeReplace, previousVersions, keysToModify, results)) {
+            return results;
+        }
+
+        Set<Integer> failedReplaces = replaceResourcesInBulk(resourcesToModify);
+        for (int i = 0; i < resourcesToModify.size(); i++) {
+            CoreResource resource = resourcesToModify.get(i);
+            if (failedReplaces.contains(i)) {
+                results.put(keysToModify.get(i), new ResourcePersistenceResult(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                        "Error occurred during Resource modifying in db", resource));
+            } else {
+                results.put(keysToModify.get(i), new ResourcePersistenceResult(HttpStatus.SC_OK, "OK", resource));
+            }
+        }
+        log.info((resourcesToModify.size() - failedReplaces.size()) + " of " + resources.size() + " Resources modified in bulk!");
+        return results;
+    }
+
+    /**
+     * Replaces stored documents of given resources using one unordered bulk operation.
+     * Spring Data BulkOperations can not replace whole documents, so bulk write of the driver is used.
+     *
+     * @return indexes of resources which could not be replaced
+     */
+    private Set<Integer> replaceResourcesInBulk(List<CoreResource> resources) {
+        Set<Integer> failedReplaces = new HashSet<>();
+        try {
+            BulkWriteOperation bulkOperation = mongoTemplate.getCollection(
+                    mongoTemplate.getCollectionName(CoreResource.class)).initializeUnorderedBulkOperation();
+            for (CoreResource resource : resources) {
+                DBObject document = new BasicDBObject();
+                mongoTemplate.getConverter().write(resource, document);
+                bulkOperation.find(new BasicDBObject("_id", resource.getId())).replaceOne(document);
+            }
+            bulkOperation.execute();
+        } catch (BulkWriteException e) {
+            log.error("Error occurred during bulk Resource modifying in db", e);
+            for (BulkWriteError error : e.getWriteErrors()) {
+                failedReplaces.add(error.getIndex());
+            }
+        } catch (Exception e) {
+            log.error("Error occurred during bulk Resource modifying in db", e);
+            for (int i = 0; i < resources.size(); i++) {
+                failedReplaces.add(i);
+            }
+        }
+        return failedReplaces;
+    }
+
+    /**
+     * Runs action which has to succeed before the bulk write. If it fails, none of the resources is written.
+     *
+     * @return true if the bulk write may continue
+     */
+    private boolean runBeforeBulkWrite(Consumer<List<CoreResource>> beforeBulkWrite, List<CoreResource> resources,
+                                       List<String> keys, Map<String, ResourcePersistenceResult> results) {
+        if (beforeBulkWrite == null) {
+            return true;
+        }
+        try {
+            beforeBulkWrite.accept(resources);
+            return true;
+        } catch (Exception e) {
+            log.error("Error occurred during journaling of bulk Resource operation, nothing was written", e);
+            keys.forEach(key -> results.put(key, new ResourcePersistenceResult(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                    "Error occurred during journaling of bulk Resource operation", resources.get(keys.indexOf(key)))));
+            return false;
+        }
+    }
+
+    /**
+     * Finishes atomic bulk operation - when all of the resources were written, marks the operation as committed
+     * in compensation log before the results are returned, so the operation is never compensated later, even if
+     * the log can not be removed. When any of the resources failed (or the operation could not be committed),
+     * compensates the ones which were written and marks them as rolled back. Compensation log is removed unless
+     * the compensation itself failed, in which case it is left for {@link #compensateInterruptedOperations(long)}.
+     */
+    private void finishAtomicOperation(Map<String, ResourcePersistenceResult> results, String operationId,
+                                       List<ResourceCompensationLog> compensationLogs) {
+        List<ResourcePersistenceResult> written = results.values().stream()
+                .filter(result -> result.getStatus() == HttpStatus.SC_OK)
+                .collect(Collectors.toList());
+        if (written.isEmpty()) {
+            removeCompensationLogs(operationId);
+            return;
+        }
+        boolean committed = written.size() == results.size() && markCommitted(operationId);
+        if (committed) {
+            removeCompensationLogs(operationId);
+            return;
+        }
+
+        Set<String> writtenIds = written.stream()
+                .map(result -> result.getResource().getId())
+                .collect(Collectors.toSet());
+        boolean compensated = compensate(operationId, compensationLogs, writtenIds);
+        String rollbackReason = written.size() == results.size()
+                ? "Rolled back because bulk operation could not be committed"
+                : "Rolled back because other resources of the bulk operation failed";
+        for (ResourcePersistenceResult result : written) {
+            result.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+            result.setMessage(compensated ? rollbackReason
+                    : "Rollback failed, resource will be restored from compensation log");
+        }
+        if (compensated) {
+            removeCompensationLogs(operationId);
+        } else {
+            log.error("Compensation of bulk operation " + operationId + " failed, left in compensation log");
+        }
+    }
+
+    /**
+     * Compensates bulk operations which were interrupted before they finished (e.g. by a crash of the Registry).
+     * Only operations older than given age are compensated, so operations still running on other Registry
+     * instances are not touched. Logs of committed operations, whose removal failed, are only removed.
+     *
+     * @param olderThanMillis minimal age of compensated operations in milliseconds
+     * @return number of compensated operations
+     */
+    public int compensateInterruptedOperations(long olderThanMillis) {
+        Query query = new Query(Criteria.where("createdAt").lt(new Date(System.currentTimeMillis() - olderThanMillis)));
+        Map<String, List<ResourceCompensationLog>> operations = mongoTemplate.find(query, ResourceCompensationLog.class)
+                .stream()
+                .collect(Collectors.groupingBy(ResourceCompensationLog::getOperationId, LinkedHashMap::new,
+                        Collectors.toList()));
+        int compensatedCount = 0;
+        for (Map.Entry<String, List<ResourceCompensationLog>> operation : operations.entrySet()) {
+            if (operation.getValue().stream().anyMatch(ResourceCompensationLog::isCommitted)) {
+                log.info("Removing left compensation log of committed bulk operation " + operation.getKey());
+                removeCompensationLogs(operation.getKey());
+                continue;
+            }
+            log.info("Compensating interrupted " + operation.getValue().get(0).getOperationType()
+                    + " bulk operation " + operation.getKey());
+            if (compensate(operation.getKey(), operation.getValue(), null)) {
+                removeCompensationLogs(operation.getKey());
+                compensatedCount++;
+            }
+        }
+        return compensatedCount;
+    }
+
+    /**
+     * Reverts written resources of given operation - removes created resources or restores previous versions
+     * of modified ones, each with a single bulk write. Modified resources which were changed again since the
+     * operation wrote them are not restored. When it is not known which resources were written, created resources
+     * are removed only if they are still stored in the version written by the operation, so that documents
+     * whose insert failed (e.g. on duplicate key) are not removed.
+     *
+     * @param writtenIds ids of resources to revert, or null to revert all resources of the operation
+     * @return true if compensation succeeded
+     */
+    private boolean compensate(String operationId, List<ResourceCompensationLog> compensationLogs,
+                               Set<String> writtenIds) {
+        List<ResourceCompensationLog> logsToCompensate = compensationLogs.stream()
+                .filter(compensationLog -> writtenIds == null || writtenIds.contains(compensationLog.getResourceId()))
+                .collect(Collectors.toList());
+        if (logsToCompensate.isEmpty()) {
+            return true;
+        }
+        try {
+            switch (logsToCompensate.get(0).getOperationType()) {
+                case CREATION:
+                    List<String> createdIds = (writtenIds != null ? logsToCompensate
+                            : getLogsOfUnchangedResources(operationId, logsToCompensate)).stream()
+                            .map(ResourceCompensationLog::getResourceId)
+                            .collect(Collectors.toList());
+                    if (!createdIds.isEmpty()) {
+                        mongoTemplate.remove(new Query(Criteria.where("id").in(createdIds)), CoreResource.class);
+                    }
+                    return true;
+                case MODIFICATION:
+                    List<CoreResource> previousVersions = getLogsOfUnchangedResources(operationId, logsToCompensate)
+                            .stream()
+                            .map(ResourceCompensationLog::getPreviousVersion)
+                            .collect(Collectors.toList());
+                    return previousVersions.isEmpty() || replaceResourcesInBulk(previousVersions).isEmpty();
+                default:
+                    return true;
+            }
+        } catch (Exception e) {
+            log.error("Error occurred during compensation of bulk Resource operation", e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns logs of resources which are still stored in the version written by given operation. Resources
+     * changed or removed since, or never written by the operation, are skipped, so that a later write (or a write
+     * of another operation) is not undone.
+     */
+    private List<ResourceCompensationLog> getLogsOfUnchangedResources(String operationId,
+                                                                      List<ResourceCompensationLog> compensationLogs) {
+        Map<String, CoreResource> currentVersions = findResourcesByIds(compensationLogs.stream()
+                .map(ResourceCompensationLog::getResourceId)
+                .collect(Collectors.toList()), false);
+        List<ResourceCompensationLog> unchangedLogs = new ArrayList<>();
+        for (ResourceCompensationLog compensationLog : compensationLogs) {
+            CoreResource currentVersion = currentVersions.get(compensationLog.getResourceId());
+            if (currentVersion != null
+                    && fingerprintOf(currentVersion).equals(compensationLog.getWrittenVersionFingerprint())) {
+                unchangedLogs.add(compensationLog);
+            } else {
+                log.warn("Resource " + compensationLog.getResourceId() + " is not stored in the version written by "
+                        + "bulk operation " + operationId + ", it is not compensated");
+            }
+        }
+        return unchangedLogs;
+    }
+
+    /**
+     * Returns SHA-256 hash of the resource as it is stored in MongoDB.
+     */
+    private String fingerprintOf(CoreResource resource) {
+        DBObject document = new BasicDBObject();
+        mongoTemplate.getConverter().write(resource, document);
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256")
+                    .digest(document.toString().getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes compensation logs of an operation with journaled write concern, so they survive crash of the database
+     * node. Every resource has its own document, inserted together in batches split by the driver. If the insert
+     * fails, logs already written are removed.
+     */
+    private void writeCompensationLogs(String operationId, List<ResourceCompensationLog> compensationLogs) {
+        List<DBObject> documents = new ArrayList<>();
+        for (ResourceCompensationLog compensationLog : compensationLogs) {
+            DBObject document = new BasicDBObject();
+            mongoTemplate.getConverter().write(compensationLog, document);
+            documents.add(document);
+        }
+        DBCollection collection =
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(ResourceCompensationLog.class));
+        try {
+            collection.insert(documents, WriteConcern.JOURNALED);
+        } catch (RuntimeException e) {
+            removeCompensationLogs(operationId);
+            throw e;
+        }
+    }
+
+    /**
+     * Marks compensation logs of an operation as committed with journaled write concern.
+     *
+     * @return true if the operation was marked as committed
+     */
+    private boolean markCommitted(String operationId) {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(ResourceCompensationLog.class))
+                    .update(new BasicDBObject("operationId", operationId),
+                            new BasicDBObject("$set", new BasicDBObject("committed", true)),
+                            false, true, WriteConcern.JOURNALED);
+            return true;
+        } catch (Exception e) {
+            log.error("Could not mark bulk operation " + operationId + " as committed", e);
+            return false;
+        }
+    }
+
+    private void removeCompensationLogs(String operationId) {
+        try {
+            mongoTemplate.remove(new Query(Criteria.where("operationId").is(operationId)),
+                    ResourceCompensationLog.class);
+        } catch (Exception e) {
+            log.error("Could not remove compensation log of bulk operation " + operationId, e);
+        }
+    }
+
+    /**
+     * Deletes given resources from MongoDB using one $in query to find them and one delete for all of them, instead
+     * of a find and a delete per resource. Results hold resources as they were stored in database, so they can be
+     * restored with {@link #saveResources(Map)} if the removal has to be rolled back.
+     *
+     * @param resources resources to delete, mapped by keys used in the request
+     * @return persistence results mapped by the same keys
+     */
+    public Map<String, ResourcePersistenceResult> removeResources(Map<String, ? extends Resource> resources) {
+        Map<String, ResourcePersistenceResult> results = new LinkedHashMap<>();
+        Map<String, String> idsToRemove = new LinkedHashMap<>();
+
+        for (Map.Entry<String, ? extends Resource> entry : resources.entrySet()) {
+            Resource resource = entry.getValue();
+            if (resource == null || StringUtils.isBlank(resource.getId())) {
+                log.error("Given resource is null or it has null or empty ID!");
+                results.put(entry.getKey(), new ResourcePersistenceResult(HttpStatus.SC_BAD_REQUEST,
+                        "Given resource is null or it has null or empty ID!", null));
+            } else {
+                idsToRemove.put(entry.getKey(), resource.getId());
+            }
+        }
+        if (idsToRemove.isEmpty()) {
+            return results;
+        }
+
+        Map<String, CoreResource> foundResources;
+        try {
+            foundResources = findResourcesByIds(idsToRemove.values(), false);
+        } catch (Exception e) {
+            log.error("Error occurred during Resources existence check in db", e);
+            idsToRemove.forEach((key, id) -> results.put(key, new ResourcePersistenceResult(
+                    HttpStatus.SC_INTERNAL_SERVER_ERROR, "Error occurred during Resource deleting from db",
+                    RegistryUtils.convertResourceToCoreResource(resources.get(key)))));
+            return results;
+        }
+
+        int status = HttpStatus.SC_OK;
+        String message = "OK";
+        if (!foundResources.isEmpty()) {
+            try {
+                mongoTemplate.remove(new Query(Criteria.where("id").in(foundResources.keySet())), CoreResource.class);
+                log.info(foundResources.size() + " Resources removed in bulk!");
+            } catch (Exception e) {
+                log.error("Error occurred during Resource deleting from db", e);
+                status = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+                message = "Error occurred during Resource deleting from db";
+            }
+        }
+
+        for (Map.Entry<String, String> entry : idsToRemove.entrySet()) {
+            CoreResource foundResource = foundResources.get(entry.getValue());
+            if (foundResource == null) {
+                log.error("Given resource does not exist in database. Id: " + entry.getValue());
+                results.put(entry.getKey(), new ResourcePersistenceResult(HttpStatus.SC_BAD_REQUEST,
+                        "Given resource does not exist in database",
+                        RegistryUtils.convertResourceToCoreResource(resources.get(entry.getKey()))));
+            } else {
+                results.put(entry.getKey(), new ResourcePersistenceResult(status, message, foundResource));
+            }
+        }
+        return results;
+    }
+
+    private ResourcePersistenceResult validateResourceForBulkOperation(CoreResource resource) {
+        if (resource == null || StringUtils.isBlank(resource.getId())) {
+            log.error(RESOURCE_HAS_NULL_OR_EMPTY_ID);
+            return new ResourcePersistenceResult(HttpStatus.SC_BAD_REQUEST, RESOURCE_HAS_NULL_OR_EMPTY_ID, resource);
+        }
+        if (StringUtils.isBlank(resource.getInterworkingServiceURL())) {
+            log.error("Given resource has null or empty Interworking service URL!");
+            return new ResourcePersistenceResult(HttpStatus.SC_BAD_REQUEST,
+                    "Given resource has null or empty Interworking service URL!", resource);
+        }
+        return null;
+    }
+
+    /**
+     * Finds resources with given ids using single $in query.
+     *
+     * @param idsOnly if true, only ids of the resources are fetched
+     * @return found resources mapped by their ids
+     */
+    private Map<String, CoreResource> findResourcesByIds(Collection<String> ids, boolean idsOnly) {
+        Query query = new Query(Criteria.where("id").in(ids));
+        if (idsOnly) {
+            query.fields().include("id");
+        }
+        return mongoTemplate.find(query, CoreResource.class).stream()
+                .collect(Collectors.toMap(CoreResource::getId, resource -> resource, (first, second) -> first));
+    }
+
     public InformationModelPersistenceResult saveInformationModel(InformationModel informationModel) {
 
         InformationModelPersistenceResult informationModelPersistenceResult = new InformationModelPersistenceResult();
@@ -370,6 +1026,7 @@ public class RepositoryManager {
 
                 InformationModel savedIM = informationModelRepository.save(informationModel);
                 log.info("Information Model with id: " + savedIM.getId() + " saved !");
+                invalidateInformationModelReplies();
 
                 informationModelPersistenceResult.setStatus(HttpStatus.SC_OK);
                 informationModelPersistenceResult.setMessage("OK");
@@ -408,6 +1065,7 @@ public class RepositoryManager {
         try {
             InformationModel savedInformationModel = informationModelRepository.save(informationModel);
             log.info("informationModel with id: " + informationModel.getId() + " modified !");
+            invalidateInformationModelReplies();
 
             informationModelPersistenceResult.setStatus(HttpStatus.SC_OK);
             informationModelPersistenceResult.setMessage("OK");
@@ -430,6 +1088,7 @@ public class RepositoryManager {
         if (foundInformationModel != null) {
             try {
                 informationModelRepository.delete(informationModelReceived);
+                invalidateInformationModelReplies();
                 informationModelPersistenceResult.setStatus(200);
                 informationModelPersistenceResult.setMessage("ok");
             } catch (Exception e) {
@@ -459,6 +1118,9 @@ public class RepositoryManager {
 
                 Federation savedFederation = federationRepository.save(federation);
                 log.info("Federation with id: " + savedFederation.getId() + " saved !");
+                if (federationIndex != null) {
+                    federationIndex.put(savedFederation);
+                }
 
                 federationPersistenceResult.setStatus(HttpStatus.SC_OK);
                 federationPersistenceResult.setMessage("OK");
@@ -495,6 +1157,9 @@ public class RepositoryManager {
         try {
             Federation savedFederation = federationRepository.save(federation);
             log.info("federation with id: " + federation.getId() + " modified !");
+            if (federationIndex != null) {
+                federationIndex.put(savedFederation);
+            }
             federationPersistenceResult.setStatus(HttpStatus.SC_OK);
             federationPersistenceResult.setMessage("OK");
             federationPersistenceResult.setFederation(savedFederation);
@@ -520,6 +1185,9 @@ public class RepositoryManager {
             if (foundFederation != null) {
                 try {
                     federationRepository.delete(federation);
+                    if (federationIndex != null) {
+                        federationIndex.remove(federation.getId());
+                    }
                     federationPersistenceResult.setStatus(200);
                     federationPersistenceResult.setMessage("ok");
                 } catch (Exception e) {
@@ -563,6 +1231,9 @@ public class RepositoryManager {
                     log.info("Saving smart space: " + smartSpaceReceived.getId());
 
                     savedSsp = sspRepository.save(smartSpaceReceived);
+                    if (interworkingServiceIndex != null) {
+                        interworkingServiceIndex.indexSsp(savedSsp);
+                    }
                     log.info("SmartSpace \"" + savedSsp + "\" saved !");
                     sspSavingResult.setStatus(HttpStatus.SC_OK);
                     sspSavingResult.setMessage("OK");
@@ -613,6 +1284,9 @@ public class RepositoryManager {
                 SmartSpace modifiedSsp = copyExistingSspData(sspToModify, foundSsp);
 
                 sspRepository.save(modifiedSsp);
+                if (interworkingServiceIndex != null) {
+                    interworkingServiceIndex.indexSsp(modifiedSsp);
+                }
                 log.info("Smart Space with id: " + modifiedSsp.getId() + " modified !");
 
                 sspModifyingResult.setStatus(HttpStatus.SC_OK);
@@ -653,6 +1327,13 @@ public class RepositoryManager {
         } else {
             try {
                 platformRepository.delete(sspToRemove.getId());
+                invalidateCachedPlatform(sspToRemove.getId());
+                if (interworkingServiceIndex != null) {
+                    interworkingServiceIndex.remove(sspToRemove.getId());
+                }
+                if (tokenVerificationCache != null) {
+                    tokenVerificationCache.invalidatePlatform(sspToRemove.getId());
+                }
                 log.info("Smart Space with id: " + sspToRemove.getId() + " removed !");
 
                 sspRemovingResult.setStatus(HttpStatus.SC_OK);
@@ -684,13 +1365,111 @@ public class RepositoryManager {
         return requestedSmartSpace;
     }
 
+    /**
+     * Returns all resources of given platform, found with a single query over normalized URLs of all its
+     * interworking services. If the platform does not exist, an empty list is returned.
+     *
+     * @param platformId id of the platform
+     * @return resources of the platform
+     */
     public List<CoreResource> getResourcesForPlatform(String platformId) {
-        Platform platform = platformRepository.findOne(platformId);
-        List<CoreResource> coreResources = new ArrayList<>();
-        for (InterworkingService interworkingService : platform.getInterworkingServices()) {
-            coreResources.addAll(resourceRepository.findByInterworkingServiceURL(interworkingService.getUrl()));
+        List<String> urls = getNormalizedInterworkingServiceUrls(platformId);
+        if (urls.isEmpty()) {
+            return new ArrayList<>();
         }
-        return coreResources;
+        return resourceRepository.findByInterworkingServiceURLIn(urls);
+    }
+
+    /**
+     * Streaming variant of {@link #getResourcesForPlatform(String)} - resources are read from database cursor while
+     * the stream is consumed, so they are never all held in memory. The stream has to be closed by the caller.
+     *
+     * @param platformId id of the platform
+     * @return cursor-backed stream of resources of the platform
+     */
+    public Stream<CoreResource> streamResourcesForPlatform(String platformId) {
+        List<String> urls = getNormalizedInterworkingServiceUrls(platformId);
+        if (urls.isEmpty()) {
+            return Stream.empty();
+        }
+        return resourceRepository.streamByInterworkingServiceURLIn(urls);
+    }
+
+    /**
+     * Returns one page of summaries of resources of given platform, ordered by id. Next page is requested with id of the last
+     * resource of the previous page, so pages stay consistent when resources are added or removed in between.
+     *
+     * @param platformId  id of the platform
+     * @param resumeAfter id of the last resource of the previous page, or null for the first page
+     * @param pageSize    maximal number of returned resources
+     * @return page of resources of the platform
+     */
+    public List<ResourceSummary> getResourcesForPlatformPage(String platformId, String resumeAfter, int pageSize) {
+        List<String> urls = getNormalizedInterworkingServiceUrls(platformId);
+        if (urls.isEmpty()) {
+            return new ArrayList<>();
+        }
+        PageRequest pageRequest = new PageRequest(0, pageSize);
+        if (StringUtils.isBlank(resumeAfter)) {
+            return resourceRepository.findSummariesByInterworkingServiceURLInOrderByIdAsc(urls, pageRequest);
+        }
+        return resourceRepository.findSummariesByInterworkingServiceURLInAndIdGreaterThanOrderByIdAsc(urls, resumeAfter, pageRequest);
+    }
+
+    /**
+     * Returns summaries of all resources of given platform - only fields needed for resource listings are read
+     * from the database. If the platform does not exist, an empty list is returned.
+     *
+     * @param platformId id of the platform
+     * @return summaries of resources of the platform
+     */
+    public List<ResourceSummary> getResourceSummariesForPlatform(String platformId) {
+        List<String> urls = getNormalizedInterworkingServiceUrls(platformId);
+        if (urls.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return resourceRepository.findSummariesByInterworkingServiceURLIn(urls);
+    }
+
+    /**
+     * Streaming variant of {@link #getResourceSummariesForPlatform(String)}. The stream has to be closed by the caller.
+     *
+     * @param platformId id of the platform
+     * @return cursor-backed stream of summaries of resources of the platform
+     */
+    public Stream<ResourceSummary> streamResourceSummariesForPlatform(String platformId) {
+        List<String> urls = getNormalizedInterworkingServiceUrls(platformId);
+        if (urls.isEmpty()) {
+            return Stream.empty();
+        }
+        return resourceRepository.streamSummariesByInterworkingServiceURLIn(urls);
+    }
+
+    /**
+     * Creates indexes used by resource, federation membership and compensation log queries, if they do not exist yet.
+     */
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(CoreResource.class)
+                .ensureIndex(new Index().on("interworkingServiceURL", Sort.Direction.ASC));
+        mongoTemplate.indexOps(Federation.class)
+                .ensureIndex(new Index().on("members.platformId", Sort.Direction.ASC));
+        mongoTemplate.indexOps(ResourceCompensationLog.class)
+                .ensureIndex(new Index().on("operationId", Sort.Direction.ASC));
+        log.info("Resource, federation and compensation log indexes ensured");
+    }
+
+    private List<String> getNormalizedInterworkingServiceUrls(String platformId) {
+        Platform platform = platformId != null ? findPlatform(platformId) : null;
+        if (platform == null || platform.getInterworkingServices() == null) {
+            log.error(GIVEN_PLATFORM_DOES_NOT_EXIST_IN_DATABASE + " Id: " + platformId);
+            return new ArrayList<>();
+        }
+        return platform.getInterworkingServices().stream()
+                .filter(interworkingService -> interworkingService != null
+                        && StringUtils.isNotBlank(interworkingService.getUrl()))
+                .map(interworkingService -> trimAndAddSlashIfNotPresent(interworkingService.getUrl()))
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     private void normalizeResourceInterworkingServiceUrl(CoreResource resource) {
@@ -706,11 +1485,16 @@ public class RepositoryManager {
     }
 
     public String getInformationModelIdByInterworkingServiceUrl(String platformId, String requestedInterworkingServiceUrl) {
+        if (interworkingServiceIndex != null) {
+            InterworkingServiceIndex.Entry entry =
+                    interworkingServiceIndex.findPlatformService(platformId, requestedInterworkingServiceUrl);
+            return entry != null ? entry.getInformationModelId() : null;
+        }
         String id = null;
 
         String requestedInterworkingServiceUrlTrimmed = trimAndAddSlashIfNotPresent(requestedInterworkingServiceUrl);
 
-        Platform platform = platformRepository.findOne(platformId);
+        Platform platform = findPlatform(platformId);
         if (platform != null && platform.getInterworkingServices() != null) {
             for (InterworkingService interworkingService : platform.getInterworkingServices()) {
                 if (interworkingService != null && interworkingService.getInformationModelId() != null) {
@@ -737,16 +1521,38 @@ public class RepositoryManager {
         return informationModelRepository.findAll();
     }
 
+    private void invalidateInformationModelReplies() {
+        if (informationModelReplyCache != null) {
+            informationModelReplyCache.invalidate();
+        }
+    }
+
     public List<Federation> getFederationsForPlatform(Platform platform) {
+        if (federationIndex != null) {
+            return federationIndex.getFederationsForPlatform(platform.getId());
+        }
         return federationRepository.findByMembersPlatformId(platform.getId());
     }
 
     public List<Federation> getAllFederations() {
+        if (federationIndex != null) {
+            return federationIndex.getAllFederations();
+        }
         return federationRepository.findAll();
     }
 
     public Platform getPlatformById(String id) {
-        return platformRepository.findOne(id);
+        return findPlatform(id);
+    }
+
+    private Platform findPlatform(String platformId) {
+        return platformCache != null ? platformCache.get(platformId) : platformRepository.findOne(platformId);
+    }
+
+    private void invalidateCachedPlatform(String platformId) {
+        if (platformCache != null) {
+            platformCache.invalidate(platformId);
+        }
     }
 
     public CoreSspResourcePersistenceResult saveCoreSspResource(CoreSspResource sspResource) {
@@ -969,6 +1775,34 @@ public class RepositoryManager {
         return sdevPersistenceResult;
     }
 
+    /**
+     * Indexes Interworking Services of given Smart Space read from database, so that lookups of a request see
+     * the current Smart Space even if it was changed by another Registry node - Smart Space events are not consumed.
+     *
+     * @param smartSpace Smart Space found in database
+     */
+    public void refreshInterworkingServicesOfSsp(SmartSpace smartSpace) {
+        if (interworkingServiceIndex != null) {
+            interworkingServiceIndex.indexSsp(smartSpace);
+        }
+    }
+
+    /**
+     * Checks if given Smart Space has Interworking Service with given URL (ignoring case).
+     *
+     * @param smartSpace Smart Space found in database
+     * @param url        Interworking Service URL of a resource
+     * @return true if the URL belongs to the Smart Space
+     */
+    public boolean isInterworkingServiceOfSsp(SmartSpace smartSpace, String url) {
+        if (interworkingServiceIndex != null) {
+            return interworkingServiceIndex.findSspService(smartSpace.getId(), url) != null;
+        }
+        return smartSpace.getInterworkingServices() != null && smartSpace.getInterworkingServices().stream()
+                .map(InterworkingService::getUrl)
+                .anyMatch(serviceUrl -> serviceUrl.equalsIgnoreCase(url));
+    }
+
     /**
      * @param requestedSspId
      * @return null if Ssp does not exists
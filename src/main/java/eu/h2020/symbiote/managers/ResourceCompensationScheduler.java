@@ -0,0 +1,85 @@
+package eu.h2020.symbiote.managers;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically compensates bulk Resource operations interrupted in the middle, so that operations interrupted
+ * on a Registry instance which keeps running (or on an instance which never comes back) are compensated too,
+ * not only those found at startup.
+ */
+@Component
+public class ResourceCompensationScheduler {
+
+    private static Log log = LogFactory.getLog(ResourceCompensationScheduler.class);
+    private final RepositoryManager repositoryManager;
+    private final long replayAgeMillis;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param repositoryManager repository manager compensating the operations
+     * @param replayAgeMillis   minimal age of compensated operations, longer than any bulk operation may run
+     * @param intervalMillis    delay between compensation runs, compensation is run only at startup if not positive
+     */
+    @Autowired
+    public ResourceCompensationScheduler(RepositoryManager repositoryManager,
+                                         @Value("${registry.resources.compensationReplayAge:600000}") long replayAgeMillis,
+                                         @Value("${registry.resources.compensationInterval:60000}") long intervalMillis) {
+        this.repositoryManager = repositoryManager;
+        this.replayAgeMillis = replayAgeMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Compensates interrupted operations once and schedules periodic compensation.
+     */
+    public synchronized void start() {
+        compensate();
+        if (this.scheduler != null || this.intervalMillis <= 0) {
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("resource-compensation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::compensate, this.intervalMillis, this.intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compensates bulk Resource operations older than the replay age.
+     *
+     * @return number of compensated operations
+     */
+    public int compensate() {
+        try {
+            int compensated = this.repositoryManager.compensateInterruptedOperations(this.replayAgeMillis);
+            if (compensated > 0) {
+                log.info("Compensated " + compensated + " interrupted bulk resource operation(s)");
+            }
+            return compensated;
+        } catch (Exception e) {
+            log.error("Error occurred during compensation of interrupted bulk resource operations", e);
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+    }
+}
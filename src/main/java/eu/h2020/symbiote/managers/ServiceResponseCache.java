@@ -0,0 +1,167 @@
+package eu.h2020.symbiote.managers;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signed service response reused by all RPC replies for a short validity window. The response only proves that
+ * the reply comes from the Registry at about the current time, so it does not have to be signed for every reply.
+ * <p>
+ * When a response is used during the last part of its validity window, a new one is signed in the background,
+ * so replies wait for signing only when no valid response is available, e.g. on the first reply or after a pause.
+ * With validity of 0 or less every call signs a new response.
+ */
+@Component
+public class ServiceResponseCache {
+
+    private static Log log = LogFactory.getLog(ServiceResponseCache.class);
+    private final long validityMillis;
+    private final long refreshAheadMillis;
+    private final ExecutorService refresher;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong signingCount = new AtomicLong();
+    private final AtomicLong signingNanos = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+    private volatile Callable<String> signer;
+    private volatile SignedResponse current;
+
+    /**
+     * @param validityMillis     how long a signed response is reused
+     * @param refreshAheadMillis how long before the end of validity a new response is signed in the background
+     */
+    @Autowired
+    public ServiceResponseCache(@Value("${registry.security.serviceResponse.validityMillis:5000}") long validityMillis,
+                                @Value("${registry.security.serviceResponse.refreshAheadMillis:1000}") long refreshAheadMillis) {
+        this.validityMillis = validityMillis;
+        this.refreshAheadMillis = Math.min(Math.max(refreshAheadMillis, 0), Math.max(validityMillis, 0));
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("service-response-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets action signing a new service response and drops the response signed by the previous one.
+     *
+     * @param signer action signing a service response
+     */
+    public void setSigner(Callable<String> signer) {
+        this.signer = signer;
+        this.current = null;
+    }
+
+    /**
+     * @return valid signed service response
+     * @throws Exception if there is no valid response and a new one could not be signed
+     */
+    public String get() throws Exception {
+        SignedResponse response = current;
+        long now = System.currentTimeMillis();
+        if (response == null || now >= response.expiresAt) {
+            return signNow();
+        }
+        reuseCount.incrementAndGet();
+        if (now >= response.expiresAt - refreshAheadMillis) {
+            refreshInBackground();
+        }
+        return response.value;
+    }
+
+    /**
+     * @return number of signed responses
+     */
+    public long getSigningCount() {
+        return signingCount.get();
+    }
+
+    /**
+     * @return total time spent signing responses, in nanoseconds
+     */
+    public long getSigningNanos() {
+        return signingNanos.get();
+    }
+
+    /**
+     * @return number of replies which reused an already signed response
+     */
+    public long getReuseCount() {
+        return reuseCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private synchronized String signNow() throws Exception {
+        // another caller could have signed the response while this one was waiting
+        SignedResponse response = current;
+        if (response != null && System.currentTimeMillis() < response.expiresAt) {
+            reuseCount.incrementAndGet();
+            return response.value;
+        }
+        return sign().value;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    sign();
+                } catch (Exception e) {
+                    log.warn("Service response could not be refreshed, current one is used until it expires: " + e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    private SignedResponse sign() throws Exception {
+        Callable<String> currentSigner = this.signer;
+        if (currentSigner == null) {
+            throw new IllegalStateException("No service response signer set");
+        }
+        long start = System.nanoTime();
+        long signedAt = System.currentTimeMillis();
+        String value = currentSigner.call();
+        long elapsed = System.nanoTime() - start;
+        signingCount.incrementAndGet();
+        signingNanos.addAndGet(elapsed);
+        log.debug("Service response signed in " + elapsed / 1000 + " us");
+
+        SignedResponse response = new SignedResponse(value, signedAt + validityMillis);
+        if (validityMillis > 0 && currentSigner == this.signer) {
+            this.current = response;
+        }
+        return response;
+    }
+
+    private static class SignedResponse {
+        private final String value;
+        private final long expiresAt;
+
+        private SignedResponse(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package eu.h2020.symbiote.managers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import eu.h2020.symbiote.security.communication.payloads.SecurityCredentials;
+import eu.h2020.symbiote.security.communication.payloads.SecurityRequest;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of successful token verifications, so that requests carrying the same tokens for the same
+ * platforms and component do not verify token signatures and certificates again.
+ * <p>
+ * Entries are keyed by a SHA-256 hash of the tokens and certificates of the request, platform ids and component
+ * id. Timestamp and authentication challenges are new in every request, so they are not part of the key and have
+ * to be checked by the caller also when the verification is found in the cache. An entry lives until the earliest
+ * expiry of its tokens, but not longer than the configured maximum time. Entries are evicted when one of their
+ * platforms is removed and when any of their tokens is revoked. Failed verifications are never cached.
+ * <p>
+ * The Registry does not receive revocation events from AAMs, so the only revocation signal is a failed full
+ * verification of a token, which evicts all cached verifications done with that token. Otherwise the maximum
+ * time to live is the longest time a revoked token can still be accepted, so it is kept short.
+ */
+@Component
+public class TokenVerificationCache {
+
+    private static Log log = LogFactory.getLog(TokenVerificationCache.class);
+    private final int maxSize;
+    private final long maxTimeToLiveMillis;
+    private final Map<String, Entry> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Autowired
+    public TokenVerificationCache(@Value("${registry.cache.tokens.maxSize:1000}") int maxSize,
+                                  @Value("${registry.cache.tokens.maxTimeToLiveMillis:10000}") long maxTimeToLiveMillis) {
+        this.maxSize = maxSize > 0 ? maxSize : 1;
+        this.maxTimeToLiveMillis = maxTimeToLiveMillis;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TokenVerificationCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param securityRequest verified security request
+     * @param platformIds     ids of platforms the access is checked for
+     * @param componentId     id of the component the access is checked for
+     * @return key of the verification, or null if the request has no credentials to build it from
+     */
+    public String keyOf(SecurityRequest securityRequest, Collection<String> platformIds, String componentId) {
+        if (securityRequest == null || securityRequest.getSecurityCredentials() == null
+                || securityRequest.getSecurityCredentials().isEmpty()) {
+            return null;
+        }
+        List<String> credentials = new ArrayList<>();
+        for (SecurityCredentials credential : securityRequest.getSecurityCredentials()) {
+            credentials.add(credential.getToken() + "\n" + credential.getClientCertificate() + "\n"
+                    + credential.getClientCertificateSigningAAMCertificate() + "\n"
+                    + credential.getForeignTokenIssuingAAMCertificate());
+        }
+        Collections.sort(credentials);
+        StringBuilder key = new StringBuilder();
+        key.append(componentId).append('\n')
+                .append(new TreeSet<>(platformIds)).append('\n');
+        for (String credential : credentials) {
+            key.append(credential).append('\n');
+        }
+        return sha256(key.toString());
+    }
+
+    /**
+     * @param key key of the verification
+     * @return identifiers of satisfied policies, or null if the verification is not cached or has expired
+     */
+    public Set<String> get(String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hitCount.incrementAndGet();
+                return entry.satisfiedPolicies;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches successful verification of given request. Empty results are not cached.
+     *
+     * @param key               key of the verification
+     * @param securityRequest   verified security request
+     * @param platformIds       ids of platforms the access was checked for
+     * @param satisfiedPolicies identifiers of satisfied policies
+     */
+    public void put(String key, SecurityRequest securityRequest, Collection<String> platformIds,
+                    Set<String> satisfiedPolicies) {
+        if (key == null || satisfiedPolicies == null || satisfiedPolicies.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTimeToLiveMillis;
+        Set<String> tokenHashes = new HashSet<>();
+        for (SecurityCredentials credential : securityRequest.getSecurityCredentials()) {
+            if (credential.getToken() != null) {
+                tokenHashes.add(sha256(credential.getToken()));
+                long tokenExpiry = readExpiry(credential.getToken());
+                if (tokenExpiry > 0) {
+                    expiresAt = Math.min(expiresAt, tokenExpiry);
+                }
+            }
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        Entry entry = new Entry(Collections.unmodifiableSet(new HashSet<>(satisfiedPolicies)), expiresAt,
+                tokenHashes, new HashSet<>(platformIds));
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Evicts verifications done with given token.
+     *
+     * @param token revoked token
+     */
+    public void revokeToken(String token) {
+        if (token == null) {
+            return;
+        }
+        String tokenHash = sha256(token);
+        int removed = removeIf(entry -> entry.tokenHashes.contains(tokenHash));
+        log.debug("Token revoked, " + removed + " cached verification(s) evicted");
+    }
+
+    /**
+     * Evicts verifications of access to given platform (or SSP), e.g. because it was removed.
+     *
+     * @param platformId id of the platform
+     */
+    public void invalidatePlatform(String platformId) {
+        if (platformId != null) {
+            removeIf(entry -> entry.platformIds.contains(platformId));
+        }
+    }
+
+    /**
+     * Evicts all cached verifications.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of cached verifications
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private int removeIf(Predicate<Entry> predicate) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (predicate.test(iterator.next())) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Reads expiry of a JWT token from its "exp" claim.
+     *
+     * @param token JWT token
+     * @return expiry in milliseconds, or 0 if it could not be read
+     */
+    static long readExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            JsonNode claims = RegistryCodecs.getInstance().getMapper()
+                    .readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode expiry = claims.get("exp");
+            return expiry != null && expiry.canConvertToLong() ? expiry.asLong() * 1000 : 0;
+        } catch (Exception e) {
+            log.debug("Could not read expiry of a token: " + e);
+            return 0;
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(value.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+        private final Set<String> satisfiedPolicies;
+        private final long expiresAt;
+        private final Set<String> tokenHashes;
+        private final Set<String> platformIds;
+
+        private Entry(Set<String> satisfiedPolicies, long expiresAt, Set<String> tokenHashes, Set<String> platformIds) {
+            this.satisfiedPolicies = satisfiedPolicies;
+            this.expiresAt = expiresAt;
+            this.tokenHashes = tokenHashes;
+            this.platformIds = platformIds;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package eu.h2020.symbiote.messaging;
+
+import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs authorization of requests (token verification, which may fetch certificates from the AAM) on a dedicated
+ * bounded pool, so that consumers hand the request off and return from handleDelivery at once. The result of
+ * the check is passed to the continuation of the consumer, which is run on the same pool thread.
+ * <p>
+ * When all threads are busy and the queue is full, or the stage is shut down, the check runs on the delivery thread,
+ * which slows down deliveries instead of dropping requests. With no threads configured checks always run on the
+ * delivery thread.
+ * <p>
+ * With threads configured, deliveries of one queue are processed in parallel and may be answered out of order,
+ * so the stage should only be enabled together with dedicated consumer channels, whose prefetch bounds the number
+ * of requests in processing.
+ */
+public class AuthorizationStage {
+
+    private static Log log = LogFactory.getLog(AuthorizationStage.class);
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Part of the request processing which follows authorization.
+     */
+    public interface Continuation {
+        void proceed(AuthorizationResult authorizationResult) throws Exception;
+    }
+
+    /**
+     * Reply to the request when its processing after authorization failed. It has to answer and ack the request,
+     * otherwise the delivery stays unacknowledged.
+     */
+    public interface FailureHandler {
+        void failed(Exception exception);
+    }
+
+    /**
+     * @param threads       number of authorization threads; 0 or less runs checks on the delivery thread
+     * @param queueCapacity maximum number of requests waiting for a free authorization thread
+     */
+    public AuthorizationStage(int threads, int queueCapacity) {
+        if (threads > 0) {
+            this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                    runnable -> {
+                        Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                        thread.setName("registry-authorization-" + thread.getId());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, pool) -> task.run());
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Runs given check and then the continuation with its result. A check which throws an exception gives
+     * a not validated result, a continuation which throws an exception is passed to the failure handler.
+     *
+     * @param check          authorization check
+     * @param continuation   processing of the request after authorization
+     * @param failureHandler replies with an error when the continuation fails
+     */
+    public void authorize(Supplier<AuthorizationResult> check, Continuation continuation,
+                          FailureHandler failureHandler) {
+        Runnable task = () -> {
+            AuthorizationResult authorizationResult;
+            try {
+                authorizationResult = check.get();
+            } catch (Exception e) {
+                log.error("Authorization Error: " + e);
+                authorizationResult = new AuthorizationResult("Authorization error: " + e, false);
+            }
+            try {
+                continuation.proceed(authorizationResult);
+            } catch (Exception e) {
+                log.error("Request could not be processed after authorization", e);
+                try {
+                    failureHandler.failed(e);
+                } catch (Exception failureHandlerException) {
+                    log.error("Error reply could not be sent", failureHandlerException);
+                }
+            }
+        };
+        if (executor != null) {
+            executor.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * @return number of requests waiting for a free authorization thread
+     */
+    public int getQueueSize() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    /**
+     * Stops the authorization threads; checks already queued are completed, new checks run on the delivery thread.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package eu.h2020.symbiote.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes messages on a channel in publisher confirm mode and tracks broker confirmations asynchronously.
+ * <p>
+ * At most maxOutstanding publishes may wait for confirmation at once - further publishes wait for a free slot
+ * (up to the publish timeout). Acks, including multiple acks, release the tracked publishes. Nacked publishes,
+ * and publishes which failed with an I/O error, are put into a local buffer and retried in the background
+ * until maxRetries is reached.
+ * <p>
+ * When the channel is closed or recovered, publishes waiting for confirmation will never be confirmed (a recovered
+ * channel starts its sequence numbers again), so they are moved to the retry buffer and their slots are released.
+ * Publishes are not retried while the channel is closed.
+ */
+public class ConfirmingPublisher implements ConfirmListener, ShutdownListener, RecoveryListener {
+
+    private static final long RETRY_INTERVAL_MILLIS = 1000;
+
+    private static Log log = LogFactory.getLog(ConfirmingPublisher.class);
+    private final Channel channel;
+    private final Semaphore window;
+    private final int maxRetries;
+    private final long publishTimeoutMillis;
+    private final ConcurrentNavigableMap<Long, PendingPublish> outstandingPublishes = new ConcurrentSkipListMap<>();
+    private final Queue<PendingPublish> retryBuffer = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService retryScheduler;
+
+    /**
+     * Puts given channel in confirm mode and starts retrying of failed publishes.
+     *
+     * @param channel              channel used only by this publisher
+     * @param maxOutstanding       maximum number of publishes waiting for confirmation
+     * @param maxRetries           how many times a nacked or failed publish is retried before it is dropped
+     * @param publishTimeoutMillis how long a publish waits for a free slot before it goes to the retry buffer
+     * @throws IOException if confirm mode could not be enabled
+     */
+    public ConfirmingPublisher(Channel channel, int maxOutstanding, int maxRetries, long publishTimeoutMillis)
+            throws IOException {
+        this.channel = channel;
+        this.window = new Semaphore(maxOutstanding);
+        this.maxRetries = maxRetries;
+        this.publishTimeoutMillis = publishTimeoutMillis;
+        this.channel.confirmSelect();
+        this.channel.addConfirmListener(this);
+        this.channel.addShutdownListener(this);
+        if (this.channel instanceof Recoverable) {
+            ((Recoverable) this.channel).addRecoveryListener(this);
+        }
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("publisher-confirms-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retryScheduler.scheduleWithFixedDelay(this::retryFailedPublishes,
+                RETRY_INTERVAL_MILLIS, RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the message. The method does not wait for the confirmation.
+     *
+     * @param exchange   name of the exchange
+     * @param routingKey routing key of the message
+     * @param props      message properties
+     * @param body       message content
+     */
+    public void publish(String exchange, String routingKey, AMQP.BasicProperties props, byte[] body) {
+        publish(new PendingPublish(exchange, routingKey, props, body));
+    }
+
+    /**
+     * @return number of publishes waiting for confirmation from the broker
+     */
+    public int getOutstandingCount() {
+        return outstandingPublishes.size();
+    }
+
+    /**
+     * @return number of publishes waiting for retry
+     */
+    public int getRetryBufferSize() {
+        return retryBuffer.size();
+    }
+
+    @Override
+    public void handleAck(long deliveryTag, boolean multiple) {
+        release(deliveryTag, multiple);
+    }
+
+    @Override
+    public void handleNack(long deliveryTag, boolean multiple) {
+        Map<Long, PendingPublish> nacked = release(deliveryTag, multiple);
+        log.warn("Broker nacked " + nacked.size() + " message(s), scheduling retry");
+        nacked.values().forEach(this::scheduleRetry);
+    }
+
+    @Override
+    public void shutdownCompleted(ShutdownSignalException cause) {
+        requeueOutstandingPublishes();
+    }
+
+    @Override
+    public void handleRecovery(Recoverable recoverable) {
+        requeueOutstandingPublishes();
+    }
+
+    // present only in newer versions of RecoveryListener, so not marked with @Override
+    public void handleRecoveryStarted(Recoverable recoverable) {
+    }
+
+    /**
+     * Stops retrying and closes the channel of the publisher. Publishes still in the retry buffer are logged as lost.
+     */
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        if (!retryBuffer.isEmpty() || !outstandingPublishes.isEmpty()) {
+            log.warn("Publisher stopped with " + outstandingPublishes.size() + " unconfirmed and "
+                    + retryBuffer.size() + " not retried message(s)");
+        }
+        try {
+            if (channel.isOpen()) {
+                channel.close();
+            }
+        } catch (Exception e) {
+            log.debug("Channel of the publisher already closed: " + e);
+        }
+    }
+
+    private void publish(PendingPublish pendingPublish) {
+        try {
+            if (!window.tryAcquire(publishTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Too many messages waiting for confirmation, message to " + pendingPublish.routingKey
+                        + " moved to retry buffer");
+                scheduleRetry(pendingPublish);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduleRetry(pendingPublish);
+            return;
+        }
+
+        long sequenceNumber = -1;
+        try {
+            synchronized (channel) {
+                sequenceNumber = channel.getNextPublishSeqNo();
+                outstandingPublishes.put(sequenceNumber, pendingPublish);
+                channel.basicPublish(pendingPublish.exchange, pendingPublish.routingKey,
+                        pendingPublish.props, pendingPublish.body);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to publish message to " + pendingPublish.routingKey, e);
+            // otherwise the publish was already moved to the retry buffer when the channel closed
+            if (sequenceNumber < 0 || outstandingPublishes.remove(sequenceNumber) != null) {
+                window.release();
+                scheduleRetry(pendingPublish);
+            }
+        }
+    }
+
+    private Map<Long, PendingPublish> release(long deliveryTag, boolean multiple) {
+        Map<Long, PendingPublish> confirmed = multiple
+                ? outstandingPublishes.headMap(deliveryTag, true)
+                : outstandingPublishes.subMap(deliveryTag, true, deliveryTag, true);
+        Map<Long, PendingPublish> released = new HashMap<>();
+        for (Long sequenceNumber : confirmed.keySet()) {
+            PendingPublish pendingPublish = outstandingPublishes.remove(sequenceNumber);
+            if (pendingPublish != null) {
+                released.put(sequenceNumber, pendingPublish);
+            }
+        }
+        window.release(released.size());
+        return released;
+    }
+
+    private void requeueOutstandingPublishes() {
+        int requeued = 0;
+        for (Long sequenceNumber : outstandingPublishes.keySet()) {
+            PendingPublish pendingPublish = outstandingPublishes.remove(sequenceNumber);
+            if (pendingPublish != null) {
+                requeued++;
+                retryBuffer.add(pendingPublish);
+            }
+        }
+        window.release(requeued);
+        if (requeued > 0) {
+            log.warn("Channel of the publisher closed or recovered, " + requeued
+                    + " unconfirmed message(s) moved to retry buffer");
+        }
+    }
+
+    private void scheduleRetry(PendingPublish pendingPublish) {
+        if (pendingPublish.attempts >= maxRetries) {
+            log.error("Message to " + pendingPublish.exchange + " - " + pendingPublish.routingKey
+                    + " dropped after " + pendingPublish.attempts + " retries");
+            return;
+        }
+        retryBuffer.add(pendingPublish);
+    }
+
+    private void retryFailedPublishes() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        int toRetry = retryBuffer.size();
+        for (int i = 0; i < toRetry; i++) {
+            PendingPublish pendingPublish = retryBuffer.poll();
+            if (pendingPublish == null) {
+                return;
+            }
+            pendingPublish.attempts++;
+            publish(pendingPublish);
+        }
+    }
+
+    private static class PendingPublish {
+        private final String exchange;
+        private final String routingKey;
+        private final AMQP.BasicProperties props;
+        private final byte[] body;
+        private int attempts;
+
+        private PendingPublish(String exchange, String routingKey, AMQP.BasicProperties props, byte[] body) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.props = props;
+            this.body = body;
+        }
+    }
+}
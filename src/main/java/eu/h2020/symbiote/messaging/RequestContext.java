@@ -0,0 +1,78 @@
+package eu.h2020.symbiote.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Envelope;
+import eu.h2020.symbiote.model.cim.Resource;
+import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+
+import java.util.Map;
+
+/**
+ * Holds the state of a single delivery handled by a consumer (envelope, properties, response in preparation).
+ * Consumers keep it as a local variable instead of instance fields, so one consumer instance
+ * can process many deliveries in parallel.
+ * <p>
+ * Requests passed to the Semantic Manager keep their context until its answer arrives, so the already deserialized
+ * resources, policies and platform id are not read from the request again.
+ *
+ * @param <T> type of the response sent back to the requester
+ */
+public class RequestContext<T> {
+
+    private final Envelope envelope;
+    private final AMQP.BasicProperties properties;
+    private final T response;
+    private Map<String, IAccessPolicySpecifier> policiesMap;
+    private String platformId;
+    private Map<String, Resource> resources;
+
+    /**
+     * @param envelope   packaging data of the delivered message
+     * @param properties content header data of the delivered message
+     * @param response   response object prepared for this delivery
+     */
+    public RequestContext(Envelope envelope, AMQP.BasicProperties properties, T response) {
+        this.envelope = envelope;
+        this.properties = properties;
+        this.response = response;
+    }
+
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    public AMQP.BasicProperties getProperties() {
+        return properties;
+    }
+
+    public T getResponse() {
+        return response;
+    }
+
+    public Map<String, IAccessPolicySpecifier> getPoliciesMap() {
+        return policiesMap;
+    }
+
+    public void setPoliciesMap(Map<String, IAccessPolicySpecifier> policiesMap) {
+        this.policiesMap = policiesMap;
+    }
+
+    public String getPlatformId() {
+        return platformId;
+    }
+
+    public void setPlatformId(String platformId) {
+        this.platformId = platformId;
+    }
+
+    /**
+     * @return resources deserialized from the request body, null if the body was not deserialized to resources
+     */
+    public Map<String, Resource> getResources() {
+        return resources;
+    }
+
+    public void setResources(Map<String, Resource> resources) {
+        this.resources = resources;
+    }
+}
@@ -0,0 +1,234 @@
+package eu.h2020.symbiote.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.impl.recovery.QueueRecoveryListener;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single, long-lived consumer of RPC replies for the whole Registry instance.
+ * <p>
+ * Instead of declaring a temporary queue and attaching a new consumer for every RPC request, requests are published
+ * with one shared reply queue and a fresh correlation id. Incoming replies are matched by correlation id against the
+ * map of pending continuations and passed to the one that waits for it. Continuations which do not get a reply within
+ * the timeout are evicted and their timeout handler is run. Continuations are run on the reply executor, so that
+ * a slow continuation does not hold back replies to other requests.
+ * <p>
+ * The reply queue is server-named, so when the connection is recovered automatically it gets a new name - the
+ * dispatcher follows the rename when registered as queue recovery listener of the connection.
+ */
+public class RpcReplyDispatcher extends DefaultConsumer implements QueueRecoveryListener {
+
+    private static Log log = LogFactory.getLog(RpcReplyDispatcher.class);
+    private final Map<String, PendingReply> pendingReplies = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
+    private final Executor replyExecutor;
+    private volatile String replyQueueName;
+
+    /**
+     * Declares exclusive, auto-deleted reply queue on given channel and starts consuming from it.
+     * Continuations are run on the thread delivering the replies.
+     *
+     * @param channel the channel used for publishing RPC requests and consuming replies
+     * @throws IOException if the reply queue could not be declared or consumed
+     */
+    public RpcReplyDispatcher(Channel channel) throws IOException {
+        this(channel, Runnable::run);
+    }
+
+    /**
+     * Declares exclusive, auto-deleted reply queue on given channel and starts consuming from it.
+     *
+     * @param channel       the channel used for publishing RPC requests and consuming replies
+     * @param replyExecutor executor running continuations with the replies
+     * @throws IOException if the reply queue could not be declared or consumed
+     */
+    public RpcReplyDispatcher(Channel channel, Executor replyExecutor) throws IOException {
+        super(channel);
+        this.replyExecutor = replyExecutor;
+        this.timeoutScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("rpc-reply-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+        start();
+    }
+
+    /**
+     * (Re)declares the reply queue and registers this dispatcher as its consumer.
+     * Pending continuations are kept, so replies to requests sent before are still matched if they arrive.
+     *
+     * @throws IOException if the reply queue could not be declared or consumed
+     */
+    public void start() throws IOException {
+        this.replyQueueName = getChannel().queueDeclare().getQueue();
+        getChannel().basicConsume(this.replyQueueName, true, this);
+        log.info("RPC reply dispatcher listening on queue " + this.replyQueueName);
+    }
+
+    /**
+     * @return name of the queue that should be set as replyTo of outgoing RPC requests
+     */
+    public String getReplyQueueName() {
+        return replyQueueName;
+    }
+
+    /**
+     * Registers continuation waiting for a reply and generates correlation id for the request.
+     *
+     * @param continuation   consumer which handles the reply
+     * @param timeoutHandler action run when no reply comes within the timeout, may be null
+     * @param timeoutMillis  time to wait for the reply in milliseconds
+     * @return correlation id that should be set in the outgoing request
+     */
+    public String register(Consumer continuation, Runnable timeoutHandler, long timeoutMillis) {
+        String correlationId = UUID.randomUUID().toString();
+        PendingReply pendingReply = new PendingReply(continuation, timeoutHandler);
+        pendingReplies.put(correlationId, pendingReply);
+        pendingReply.timeout = timeoutScheduler.schedule(() -> evict(correlationId), timeoutMillis, TimeUnit.MILLISECONDS);
+        return correlationId;
+    }
+
+    /**
+     * Removes continuation registered for given correlation id without running its timeout handler.
+     * Used when the request could not be published.
+     *
+     * @param correlationId correlation id of the request
+     */
+    public void unregister(String correlationId) {
+        PendingReply pendingReply = pendingReplies.remove(correlationId);
+        if (pendingReply != null && pendingReply.timeout != null) {
+            pendingReply.timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Runs the timeout handler of the request at once. Used when the request was returned by the broker
+     * as unroutable, so no reply will come.
+     *
+     * @param correlationId correlation id of the request
+     */
+    public void fail(String correlationId) {
+        PendingReply pendingReply = pendingReplies.remove(correlationId);
+        if (pendingReply == null) {
+            return;
+        }
+        if (pendingReply.timeout != null) {
+            pendingReply.timeout.cancel(false);
+        }
+        log.error("RPC request with correlation id " + correlationId + " could not be routed");
+        Runnable task = () -> runTimeoutHandler(correlationId, pendingReply);
+        try {
+            replyExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * @return number of requests still waiting for a reply
+     */
+    public int getPendingRepliesCount() {
+        return pendingReplies.size();
+    }
+
+    @Override
+    public void handleDelivery(String consumerTag, Envelope envelope,
+                               AMQP.BasicProperties properties, byte[] body)
+            throws IOException {
+        String correlationId = properties.getCorrelationId();
+        PendingReply pendingReply = correlationId != null ? pendingReplies.remove(correlationId) : null;
+        if (pendingReply == null) {
+            log.warn("Received RPC reply with unknown or expired correlation id: " + correlationId);
+            return;
+        }
+        if (pendingReply.timeout != null) {
+            pendingReply.timeout.cancel(false);
+        }
+        Runnable task = () -> {
+            try {
+                pendingReply.continuation.handleDelivery(consumerTag, envelope, properties, body);
+            } catch (Exception e) {
+                log.error("Error occurred when handling RPC reply with correlation id " + correlationId, e);
+            }
+        };
+        try {
+            replyExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    @Override
+    public void queueRecovered(String oldName, String newName) {
+        if (oldName.equals(this.replyQueueName)) {
+            this.replyQueueName = newName;
+            log.info("RPC reply queue recovered as " + newName);
+        }
+    }
+
+    /**
+     * Runs timeout handlers of all pending continuations. Used when the channel of the dispatcher is lost
+     * and replies to the pending requests can not come anymore.
+     */
+    public void evictAll() {
+        pendingReplies.keySet().forEach(this::evict);
+    }
+
+    /**
+     * Runs timeout handlers of all pending continuations, so that no caller keeps waiting for a reply,
+     * and stops timeout scheduler.
+     */
+    public void shutdown() {
+        evictAll();
+        timeoutScheduler.shutdownNow();
+        pendingReplies.clear();
+    }
+
+    private void evict(String correlationId) {
+        PendingReply pendingReply = pendingReplies.remove(correlationId);
+        if (pendingReply == null) {
+            return;
+        }
+        log.error("No RPC reply received in time for correlation id " + correlationId);
+        runTimeoutHandler(correlationId, pendingReply);
+    }
+
+    private void runTimeoutHandler(String correlationId, PendingReply pendingReply) {
+        if (pendingReply.timeoutHandler != null) {
+            try {
+                pendingReply.timeoutHandler.run();
+            } catch (Exception e) {
+                log.error("Error occurred when handling RPC timeout for correlation id " + correlationId, e);
+            }
+        }
+    }
+
+    private static class PendingReply {
+        private final Consumer continuation;
+        private final Runnable timeoutHandler;
+        private volatile ScheduledFuture<?> timeout;
+
+        private PendingReply(Consumer continuation, Runnable timeoutHandler) {
+            this.continuation = continuation;
+            this.timeoutHandler = timeoutHandler;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package eu.h2020.symbiote.messaging;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of requests waiting for a reply of the Semantic Manager, in total and per platform (or SSP).
+ * <p>
+ * A request within the limits is sent at once. A request above the limits waits in a bounded local queue until
+ * one of the requests in flight is finished - the queued request is then sent on the thread which finished it.
+ * When the queue is full the request is rejected, so the caller can reply without waiting. A queued request which
+ * is not sent within the maximum queue time expires - it is removed from the queue and its expiry handler is run,
+ * so the caller can reply instead of waiting for ever. Every started request has to be finished with
+ * {@link #release(String)} exactly once - on reply, on timeout or when it could not be sent.
+ * <p>
+ * Limits of 0 or less mean no limit.
+ */
+public class SemanticManagerAdmission {
+
+    private static final long EXPIRY_CHECK_INTERVAL_MILLIS = 1000;
+
+    private static Log log = LogFactory.getLog(SemanticManagerAdmission.class);
+    private final int maxInFlight;
+    private final int maxInFlightPerPlatform;
+    private final int maxQueued;
+    private final long maxQueuedMillis;
+    private final Map<String, Integer> inFlightPerPlatform = new HashMap<>();
+    private final LinkedList<QueuedRequest> queue = new LinkedList<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final ScheduledExecutorService expiryScheduler;
+    private int inFlight;
+
+    /**
+     * @param maxInFlight            maximum number of requests waiting for a reply
+     * @param maxInFlightPerPlatform maximum number of requests of a single platform waiting for a reply
+     * @param maxQueued              maximum number of requests waiting to be sent
+     */
+    public SemanticManagerAdmission(int maxInFlight, int maxInFlightPerPlatform, int maxQueued) {
+        this(maxInFlight, maxInFlightPerPlatform, maxQueued, 0);
+    }
+
+    /**
+     * @param maxInFlight            maximum number of requests waiting for a reply
+     * @param maxInFlightPerPlatform maximum number of requests of a single platform waiting for a reply
+     * @param maxQueued              maximum number of requests waiting to be sent
+     * @param maxQueuedMillis        maximum time a request waits to be sent before it expires
+     */
+    public SemanticManagerAdmission(int maxInFlight, int maxInFlightPerPlatform, int maxQueued, long maxQueuedMillis) {
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerPlatform = maxInFlightPerPlatform;
+        this.maxQueued = maxQueued;
+        this.maxQueuedMillis = maxQueuedMillis;
+        if (maxQueuedMillis > 0 && maxQueued > 0) {
+            this.expiryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setName("semantic-manager-queue-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.min(EXPIRY_CHECK_INTERVAL_MILLIS, maxQueuedMillis);
+            this.expiryScheduler.scheduleWithFixedDelay(this::expireQueued, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.expiryScheduler = null;
+        }
+    }
+
+    /**
+     * Sends the request at once if the limits allow it, otherwise puts it in the queue.
+     *
+     * @param platformId id of the platform the request comes from
+     * @param request    action sending the request
+     * @return false if the request was rejected because the queue is full
+     */
+    public boolean submit(String platformId, Runnable request) {
+        return submit(platformId, request, null);
+    }
+
+    /**
+     * Sends the request at once if the limits allow it, otherwise puts it in the queue.
+     *
+     * @param platformId    id of the platform the request comes from
+     * @param request       action sending the request
+     * @param expiryHandler action run when the request expires in the queue, may be null
+     * @return false if the request was rejected because the queue is full
+     */
+    public boolean submit(String platformId, Runnable request, Runnable expiryHandler) {
+        String key = platformId != null ? platformId : "";
+        synchronized (this) {
+            if (!hasCapacity(key)) {
+                if (queue.size() >= maxQueued) {
+                    rejectedCount.incrementAndGet();
+                    log.warn("Semantic Manager request of platform " + key + " rejected, " + inFlight
+                            + " request(s) in flight and " + queue.size() + " queued");
+                    return false;
+                }
+                queue.add(new QueuedRequest(key, request, expiryHandler,
+                        maxQueuedMillis > 0 ? System.currentTimeMillis() + maxQueuedMillis : Long.MAX_VALUE));
+                return true;
+            }
+            acquire(key);
+        }
+        start(key, request);
+        return true;
+    }
+
+    /**
+     * Finishes a request in flight and sends queued requests which fit in the freed limits.
+     *
+     * @param platformId id of the platform the finished request came from
+     */
+    public void release(String platformId) {
+        expireQueued();
+        String key = platformId != null ? platformId : "";
+        List<QueuedRequest> toStart = new ArrayList<>();
+        synchronized (this) {
+            Integer platformInFlight = inFlightPerPlatform.get(key);
+            if (platformInFlight == null) {
+                log.warn("Semantic Manager request of platform " + key + " released more than once");
+                return;
+            }
+            if (platformInFlight <= 1) {
+                inFlightPerPlatform.remove(key);
+            } else {
+                inFlightPerPlatform.put(key, platformInFlight - 1);
+            }
+            inFlight--;
+
+            Iterator<QueuedRequest> iterator = queue.iterator();
+            while (iterator.hasNext() && (maxInFlight <= 0 || inFlight < maxInFlight)) {
+                QueuedRequest queued = iterator.next();
+                if (hasCapacity(queued.platformId)) {
+                    iterator.remove();
+                    acquire(queued.platformId);
+                    toStart.add(queued);
+                }
+            }
+        }
+        for (QueuedRequest queued : toStart) {
+            start(queued.platformId, queued.request);
+        }
+    }
+
+    /**
+     * Removes requests which waited in the queue longer than the maximum queue time and runs their expiry handlers.
+     *
+     * @return number of expired requests
+     */
+    public int expireQueued() {
+        if (maxQueuedMillis <= 0) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        List<QueuedRequest> expired = new ArrayList<>();
+        synchronized (this) {
+            Iterator<QueuedRequest> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                QueuedRequest queued = iterator.next();
+                // requests are queued in order with the same maximum queue time
+                if (queued.deadline > now) {
+                    break;
+                }
+                iterator.remove();
+                expired.add(queued);
+            }
+        }
+        for (QueuedRequest queued : expired) {
+            expiredCount.incrementAndGet();
+            log.warn("Semantic Manager request of platform " + queued.platformId + " expired in the queue");
+            if (queued.expiryHandler != null) {
+                try {
+                    queued.expiryHandler.run();
+                } catch (RuntimeException e) {
+                    log.error("Error occurred when handling expiry of Semantic Manager request of platform "
+                            + queued.platformId, e);
+                }
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Stops checking expiry of queued requests.
+     */
+    public void shutdown() {
+        if (expiryScheduler != null) {
+            expiryScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of requests waiting for a reply
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /**
+     * @return number of requests waiting to be sent
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of requests rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return number of requests which expired in the queue
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private boolean hasCapacity(String platformId) {
+        return (maxInFlight <= 0 || inFlight < maxInFlight)
+                && (maxInFlightPerPlatform <= 0
+                || inFlightPerPlatform.getOrDefault(platformId, 0) < maxInFlightPerPlatform);
+    }
+
+    private void acquire(String platformId) {
+        inFlight++;
+        inFlightPerPlatform.merge(platformId, 1, Integer::sum);
+    }
+
+    private void start(String platformId, Runnable request) {
+        try {
+            request.run();
+        } catch (RuntimeException e) {
+            log.error("Semantic Manager request of platform " + platformId + " could not be sent", e);
+            release(platformId);
+        }
+    }
+
+    private static class QueuedRequest {
+        private final String platformId;
+        private final Runnable request;
+        private final Runnable expiryHandler;
+        private final long deadline;
+
+        private QueuedRequest(String platformId, Runnable request, Runnable expiryHandler, long deadline) {
+            this.platformId = platformId;
+            this.request = request;
+            this.expiryHandler = expiryHandler;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.federation;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -58,13 +57,12 @@ public class FederationCreationRequestConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        String message = new String(body, "UTF-8");
+        RegistryCodecs codecs = rabbitManager.getCodecs();
         log.info(" [x] Received Federation to create");
         FederationRegistryResponse federationResponse = new FederationRegistryResponse();
 
         try {
-            Federation requestFederation = mapper.readValue(message, Federation.class);
+            Federation requestFederation = codecs.read(body, Federation.class);
             federationResponse.setBody(requestFederation);
 
             if (ValidationUtils.validateFields(requestFederation)) {
@@ -89,6 +87,6 @@ public class FederationCreationRequestConsumer extends DefaultConsumer {
             federationResponse.setMessage("Error occurred during Federation retrieving from message");
             federationResponse.setStatus(400);
         }
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(federationResponse));
+        rabbitManager.sendRPCReply(this, properties, envelope, federationResponse);
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package eu.h2020.symbiote.messaging.consumers.federation;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import eu.h2020.symbiote.managers.FederationIndex;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+
+/**
+ * Consumer of federation created/modified/removed events, published by any Registry node, which drops
+ * the Federation index of this node so that it is read again from the database. The index is dropped also
+ * after recovery of the connection, as events could have been lost in the meantime.
+ */
+public class FederationIndexInvalidationConsumer extends DefaultConsumer implements RecoveryListener {
+
+    private static Log log = LogFactory.getLog(FederationIndexInvalidationConsumer.class);
+    private FederationIndex federationIndex;
+
+    /**
+     * Constructs a new instance and records its association to the passed-in channel.
+     *
+     * @param channel         the channel to which this consumer is attached
+     * @param federationIndex Federation index of this Registry node
+     */
+    public FederationIndexInvalidationConsumer(Channel channel, FederationIndex federationIndex) {
+        super(channel);
+        this.federationIndex = federationIndex;
+    }
+
+    @Override
+    public void handleDelivery(String consumerTag, Envelope envelope,
+                               AMQP.BasicProperties properties, byte[] body)
+            throws IOException {
+        log.debug("Received " + envelope.getRoutingKey() + " event, invalidating Federation index");
+        federationIndex.invalidate();
+    }
+
+    @Override
+    public void handleRecovery(Recoverable recoverable) {
+        federationIndex.invalidate();
+    }
+
+    // present only in newer versions of RecoveryListener, so not marked with @Override
+    public void handleRecoveryStarted(Recoverable recoverable) {
+    }
+}
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.federation;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -59,13 +58,12 @@ public class FederationModificationRequestConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
+        RegistryCodecs codecs = rabbitManager.getCodecs();
         FederationRegistryResponse federationResponse = new FederationRegistryResponse();
-        String message = new String(body, "UTF-8");
         log.info(" [x] Received Federation to modify");
 
         try {
-            Federation federation = mapper.readValue(message, Federation.class);
+            Federation federation = codecs.read(body, Federation.class);
             federationResponse.setBody(federation);
 
             if (ValidationUtils.validateFields(federation)) {
@@ -90,6 +88,6 @@ public class FederationModificationRequestConsumer extends DefaultConsumer {
             federationResponse.setMessage("Error occurred during Federation retrieving from message");
             federationResponse.setStatus(400);
         }
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(federationResponse));
+        rabbitManager.sendRPCReply(this, properties, envelope, federationResponse);
     }
 }
@@ -1,14 +1,16 @@
 package eu.h2020.symbiote.messaging.consumers.federation;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.DefaultConsumer;
 import com.rabbitmq.client.Envelope;
 import eu.h2020.symbiote.core.internal.FederationListResponse;
+import eu.h2020.symbiote.managers.FederationIndex;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
 import eu.h2020.symbiote.model.mim.Federation;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
@@ -23,24 +25,28 @@ import java.util.List;
 public class GetAllFederationsRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(GetAllFederationsRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private RepositoryManager repositoryManager;
+    private FederationIndex federationIndex;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
      * Managers beans passed as parameters because of lack of possibility to inject it to consumer.
      *
-     * @param channel       the channel to which this consumer is attached
-     * @param rabbitManager rabbit manager bean passed for access to messages manager
+     * @param channel         the channel to which this consumer is attached
+     * @param rabbitManager   rabbit manager bean passed for access to messages manager
+     * @param federationIndex Federation index with serialized replies, if null Federations are read on every request
      */
     public GetAllFederationsRequestConsumer(Channel channel,
                                             RepositoryManager repositoryManager,
-                                            RabbitManager rabbitManager) {
+                                            RabbitManager rabbitManager,
+                                            FederationIndex federationIndex) {
         super(channel);
         this.rabbitManager = rabbitManager;
         this.repositoryManager = repositoryManager;
-        this.mapper = new ObjectMapper();
+        this.federationIndex = federationIndex;
+        this.codecs = rabbitManager.getCodecs();
     }
 
     /**
@@ -64,6 +70,19 @@ public class GetAllFederationsRequestConsumer extends DefaultConsumer {
         List<Federation> federations;
         log.info(" [x] Received request to retrieve all federations");
 
+        if (federationIndex != null) {
+            try {
+                rabbitManager.sendRPCReplyMessage(this, properties, envelope, federationIndex.getAllFederationsReply());
+                return;
+            } catch (JsonProcessingException e) {
+                log.error(e);
+                federationResponse.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+                federationResponse.setMessage("Repository error");
+                rabbitManager.sendRPCReply(this, properties, envelope, federationResponse);
+                return;
+            }
+        }
+
         try {
             federations = repositoryManager.getAllFederations();
             federationResponse.setStatus(HttpStatus.SC_OK);
@@ -75,6 +94,6 @@ public class GetAllFederationsRequestConsumer extends DefaultConsumer {
             federationResponse.setMessage("Repository error");
             federationResponse.setBody(new ArrayList<>());
         }
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(federationResponse));
+        rabbitManager.sendRPCReply(this, properties, envelope, federationResponse);
     }
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.federation;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -9,9 +8,11 @@ import com.rabbitmq.client.DefaultConsumer;
 import com.rabbitmq.client.Envelope;
 import eu.h2020.symbiote.core.cci.PlatformRegistryRequest;
 import eu.h2020.symbiote.core.internal.FederationListResponse;
+import eu.h2020.symbiote.managers.FederationIndex;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
 import eu.h2020.symbiote.model.mim.Federation;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
@@ -26,24 +27,28 @@ import java.util.List;
 public class GetFederationForPlatformRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(GetFederationForPlatformRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private RepositoryManager repositoryManager;
+    private FederationIndex federationIndex;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
      * Managers beans passed as parameters because of lack of possibility to inject it to consumer.
      *
-     * @param channel       the channel to which this consumer is attached
-     * @param rabbitManager rabbit manager bean passed for access to messages manager
+     * @param channel         the channel to which this consumer is attached
+     * @param rabbitManager   rabbit manager bean passed for access to messages manager
+     * @param federationIndex Federation index with serialized replies, if null Federations are read on every request
      */
     public GetFederationForPlatformRequestConsumer(Channel channel,
                                                    RepositoryManager repositoryManager,
-                                                   RabbitManager rabbitManager) {
+                                                   RabbitManager rabbitManager,
+                                                   FederationIndex federationIndex) {
         super(channel);
         this.rabbitManager = rabbitManager;
         this.repositoryManager = repositoryManager;
-        this.mapper = new ObjectMapper();
+        this.federationIndex = federationIndex;
+        this.codecs = rabbitManager.getCodecs();
     }
 
 
@@ -67,11 +72,16 @@ public class GetFederationForPlatformRequestConsumer extends DefaultConsumer {
         FederationListResponse federationResponse = new FederationListResponse();
         federationResponse.setBody(new ArrayList<>());
         List<Federation> federations;
-        String message = new String(body, "UTF-8");
         log.info(" [x] Received request to retrieve federations for platform!");
 
         try {
-            request = mapper.readValue(message, PlatformRegistryRequest.class);
+            request = codecs.read(body, PlatformRegistryRequest.class);
+
+            if (federationIndex != null && request.getBody() != null) {
+                rabbitManager.sendRPCReplyMessage(this, properties, envelope,
+                        federationIndex.getFederationsForPlatformReply(request.getBody().getId()));
+                return;
+            }
 
             federations = repositoryManager.getFederationsForPlatform(request.getBody());
             federationResponse.setStatus(HttpStatus.SC_OK);
@@ -83,6 +93,6 @@ public class GetFederationForPlatformRequestConsumer extends DefaultConsumer {
             federationResponse.setStatus(400);
         }
 
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(federationResponse));
+        rabbitManager.sendRPCReply(this, properties, envelope, federationResponse);
     }
 }
\ No newline at end of file
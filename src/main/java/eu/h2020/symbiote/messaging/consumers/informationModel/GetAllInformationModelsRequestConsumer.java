@@ -1,14 +1,16 @@
 package eu.h2020.symbiote.messaging.consumers.informationModel;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.DefaultConsumer;
 import com.rabbitmq.client.Envelope;
 import eu.h2020.symbiote.core.internal.InformationModelListResponse;
+import eu.h2020.symbiote.managers.InformationModelReplyCache;
+import eu.h2020.symbiote.managers.InformationModelReplyCache.ReplyMode;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
 import eu.h2020.symbiote.model.mim.InformationModel;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
@@ -22,27 +24,42 @@ import java.util.List;
  */
 public class GetAllInformationModelsRequestConsumer extends DefaultConsumer {
 
+    /**
+     * Request body asking for summaries of Information Models (without RDF, with hash of it).
+     */
+    public static final String SUMMARY_REQUEST = "summary";
+
     private static Log log = LogFactory.getLog(GetAllInformationModelsRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private RepositoryManager repositoryManager;
+    private InformationModelReplyCache informationModelReplyCache;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
      * Managers beans passed as parameters because of lack of possibility to inject it to consumer.
      *
-     * @param channel       the channel to which this consumer is attached
-     * @param rabbitManager rabbit manager bean passed for access to messages manager
+     * @param channel                    the channel to which this consumer is attached
+     * @param rabbitManager              rabbit manager bean passed for access to messages manager
+     * @param informationModelReplyCache cache of serialized replies, if null replies are serialized on every request
      */
     public GetAllInformationModelsRequestConsumer(Channel channel,
                                                   RepositoryManager repositoryManager,
-                                                  RabbitManager rabbitManager) {
+                                                  RabbitManager rabbitManager,
+                                                  InformationModelReplyCache informationModelReplyCache) {
         super(channel);
         this.rabbitManager = rabbitManager;
         this.repositoryManager = repositoryManager;
-        this.mapper = new ObjectMapper();
+        this.informationModelReplyCache = informationModelReplyCache;
+        this.codecs = rabbitManager.getCodecs();
     }
 
+    /**
+     * Called when a <code><b>basic.deliver</b></code> is received for this consumer.
+     * Body "false" asks for Information Models without RDF, body "summary" for their summaries (id, uri, name, owner
+     * and hash of RDF). Any other body asks for full Information Models.
+     * RPC reply: InformationModelListResponse.
+     */
     @Override
     public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) throws IOException {
         super.handleDelivery(consumerTag, envelope, properties, body);
@@ -53,10 +70,24 @@ public class GetAllInformationModelsRequestConsumer extends DefaultConsumer {
         String message = new String(body, "UTF-8");
         log.info(" [x] Received request to retrieve list of existing Information Models.");
 
+        if (informationModelReplyCache != null) {
+            try {
+                byte[] reply = informationModelReplyCache.getReply(getReplyMode(message));
+                rabbitManager.sendRPCReplyMessage(this, properties, envelope, reply);
+                return;
+            } catch (Exception e) {
+                log.error(e);
+                informationModelListResponse.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+                informationModelListResponse.setMessage("Repository error!");
+                rabbitManager.sendRPCReply(this, properties, envelope, informationModelListResponse);
+                return;
+            }
+        }
+
         try {
             informationModels = repositoryManager.getAllInformationModels();
 
-            if (message.equalsIgnoreCase("false")) {
+            if (message.equalsIgnoreCase("false") || message.equalsIgnoreCase(SUMMARY_REQUEST)) {
                 clearRDFInfoFromModels(informationModels);
             }
 
@@ -68,7 +99,14 @@ public class GetAllInformationModelsRequestConsumer extends DefaultConsumer {
             informationModelListResponse.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
             informationModelListResponse.setMessage("Repository error!");
         }
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(informationModelListResponse));
+        rabbitManager.sendRPCReply(this, properties, envelope, informationModelListResponse);
+    }
+
+    private ReplyMode getReplyMode(String message) {
+        if (message.equalsIgnoreCase(SUMMARY_REQUEST)) {
+            return ReplyMode.SUMMARY;
+        }
+        return message.equalsIgnoreCase("false") ? ReplyMode.WITHOUT_RDF : ReplyMode.FULL;
     }
 
     private void clearRDFInfoFromModels(List<InformationModel> informationModels) {
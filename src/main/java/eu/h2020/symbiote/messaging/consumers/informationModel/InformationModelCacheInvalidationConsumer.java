@@ -0,0 +1,53 @@
+package eu.h2020.symbiote.messaging.consumers.informationModel;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import eu.h2020.symbiote.managers.InformationModelReplyCache;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+
+/**
+ * Consumer of information model created/modified/removed events, published by any Registry node, which marks
+ * cached Information Models replies of this node as outdated. Replies are also invalidated when the connection
+ * is recovered, as events could have been lost in the meantime.
+ */
+public class InformationModelCacheInvalidationConsumer extends DefaultConsumer implements RecoveryListener {
+
+    private static Log log = LogFactory.getLog(InformationModelCacheInvalidationConsumer.class);
+    private InformationModelReplyCache informationModelReplyCache;
+
+    /**
+     * Constructs a new instance and records its association to the passed-in channel.
+     *
+     * @param channel                    the channel to which this consumer is attached
+     * @param informationModelReplyCache cache of Information Models replies of this Registry node
+     */
+    public InformationModelCacheInvalidationConsumer(Channel channel,
+                                                     InformationModelReplyCache informationModelReplyCache) {
+        super(channel);
+        this.informationModelReplyCache = informationModelReplyCache;
+    }
+
+    @Override
+    public void handleDelivery(String consumerTag, Envelope envelope,
+                               AMQP.BasicProperties properties, byte[] body)
+            throws IOException {
+        log.debug("Received " + envelope.getRoutingKey() + " event, invalidating Information Models replies");
+        informationModelReplyCache.invalidate();
+    }
+
+    @Override
+    public void handleRecovery(Recoverable recoverable) {
+        informationModelReplyCache.invalidate();
+    }
+
+    // present only in newer versions of RecoveryListener, so not marked with @Override
+    public void handleRecoveryStarted(Recoverable recoverable) {
+    }
+}
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.informationModel;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.DefaultConsumer;
@@ -54,14 +53,13 @@ public class InformationModelCreationRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
 
-        ObjectMapper mapper = new ObjectMapper();
-        String message = new String(body, "UTF-8");
+        RegistryCodecs codecs = rabbitManager.getCodecs();
         InformationModelResponse response = new InformationModelResponse();
 
         log.info(" [x] Received Information Model to create");
 
         try {
-            InformationModelRequest informationModelRequest = mapper.readValue(message, InformationModelRequest.class);
+            InformationModelRequest informationModelRequest = codecs.read(body, InformationModelRequest.class);
             InformationModel informationModelReceived = informationModelRequest.getBody();
             response.setBody(informationModelReceived);
 
@@ -71,20 +69,20 @@ public class InformationModelCreationRequestConsumer extends DefaultConsumer {
             //sending JSON content to Semantic Manager and passing responsibility to another consumer
 
             rabbitManager.sendInformationModelValidationRpcMessage(this, properties, envelope,
-                    mapper.writeValueAsString(informationModelReceived),
+                    codecs.writeAsBytes(informationModelReceived),
                     RegistryOperationType.CREATION);
 
         } catch (IllegalArgumentException | JsonMappingException | NullPointerException e) {
             log.error(e.getMessage());
             response.setMessage(e.getMessage());
             response.setStatus(HttpStatus.SC_BAD_REQUEST);
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+            rabbitManager.sendRPCReply(this, properties, envelope, response);
 
         } catch (Exception e) {
             log.error(e.getMessage());
             response.setMessage(e.getMessage());
             response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+            rabbitManager.sendRPCReply(this, properties, envelope, response);
         }
     }
 }
\ No newline at end of file
@@ -1,8 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.informationModel;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -15,10 +13,12 @@ import eu.h2020.symbiote.managers.RepositoryManager;
 import eu.h2020.symbiote.model.RegistryOperationType;
 import eu.h2020.symbiote.model.mim.InformationModel;
 import eu.h2020.symbiote.model.persistenceResults.InformationModelPersistenceResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by mateuszl on 16.08.2017.
@@ -33,7 +33,7 @@ public class InformationModelValidationResponseConsumer extends DefaultConsumer
     private RepositoryManager repositoryManager;
     private RabbitManager rabbitManager;
     private RegistryOperationType operationType;
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -57,7 +57,7 @@ public class InformationModelValidationResponseConsumer extends DefaultConsumer
         this.rpcEnvelope = rpcEnvelope;
         this.rpcProperties = rpcProperties;
         this.operationType = operationType;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
         this.informationModelResponse = new InformationModelResponse();
     }
 
@@ -75,7 +75,6 @@ public class InformationModelValidationResponseConsumer extends DefaultConsumer
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-        String message = new String(body, "UTF-8");
         InformationModelValidationResult informationModelValidationResult = new InformationModelValidationResult();
         InformationModel informationModel;
 
@@ -84,11 +83,11 @@ public class InformationModelValidationResponseConsumer extends DefaultConsumer
         try {
             try {
                 //receive and read message from Semantic Manager
-                informationModelValidationResult = mapper.readValue(message, InformationModelValidationResult.class);
+                informationModelValidationResult = codecs.read(body, InformationModelValidationResult.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
                 log.error("Unable to get Information Model validation result from Message body!", e);
                 informationModelResponse.setStatus(500);
-                informationModelResponse.setMessage("VALIDATION CONTENT INVALID:\n" + message);
+                informationModelResponse.setMessage("VALIDATION CONTENT INVALID:\n" + new String(body, StandardCharsets.UTF_8));
             }
 
             if (informationModelValidationResult.isSuccess()) {
@@ -163,15 +162,8 @@ public class InformationModelValidationResponseConsumer extends DefaultConsumer
      * //odeslanie na RPC core response (z listą resourców z ID'kami jesli zapis sie powiódł)
      */
     private void sendRpcResponse() {
-        String response = "error";
         try {
-            response = mapper.writeValueAsString(informationModelResponse);
-        } catch (JsonProcessingException e) {
-            log.error(e);
-        }
-
-        try {
-            rabbitManager.sendRPCReplyMessage(rpcConsumer, rpcProperties, rpcEnvelope, response);
+            rabbitManager.sendRPCReply(rpcConsumer, rpcProperties, rpcEnvelope, informationModelResponse);
 //            rabbitManager.chancelConsumersChannel(this); //// TODO: 16.08.2018 Removed to find and fix bugs -> to check!
         } catch (IOException e) {
             log.error(e);
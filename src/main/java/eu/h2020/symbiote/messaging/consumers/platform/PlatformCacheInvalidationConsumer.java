@@ -0,0 +1,89 @@
+package eu.h2020.symbiote.messaging.consumers.platform;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import eu.h2020.symbiote.managers.InterworkingServiceIndex;
+import eu.h2020.symbiote.managers.PlatformCache;
+import eu.h2020.symbiote.model.mim.Platform;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+
+/**
+ * Consumer of platform created/modified/removed events, published by any Registry node, which removes the changed
+ * Platform from the Platform cache and from the Interworking Service index of this node (the index reads it again
+ * on the next lookup).
+ * <p>
+ * Events published while the connection was down are lost, so the whole cache is cleared when the connection
+ * is recovered.
+ */
+public class PlatformCacheInvalidationConsumer extends DefaultConsumer implements RecoveryListener {
+
+    private static Log log = LogFactory.getLog(PlatformCacheInvalidationConsumer.class);
+    private RegistryCodecs codecs;
+    private PlatformCache platformCache;
+    private InterworkingServiceIndex interworkingServiceIndex;
+
+    /**
+     * Constructs a new instance and records its association to the passed-in channel.
+     *
+     * @param channel                  the channel to which this consumer is attached
+     * @param codecs                   codecs used to read the events
+     * @param platformCache            cache of Platforms of this Registry node
+     * @param interworkingServiceIndex Interworking Service index of this Registry node, may be null
+     */
+    public PlatformCacheInvalidationConsumer(Channel channel, RegistryCodecs codecs, PlatformCache platformCache,
+                                             InterworkingServiceIndex interworkingServiceIndex) {
+        super(channel);
+        this.codecs = codecs;
+        this.platformCache = platformCache;
+        this.interworkingServiceIndex = interworkingServiceIndex;
+    }
+
+    /**
+     * Called when a <code><b>basic.deliver</b></code> is received for this consumer.
+     * Waiting for message containing created, modified or removed Platform.
+     *
+     * @param consumerTag the <i>consumer tag</i> associated with the consumer
+     * @param envelope    packaging data for the message
+     * @param properties  content header data for the message
+     * @param body        the message body (opaque, client-specific byte array) In this case - Platform in JSON.
+     * @throws IOException if the consumer encounters an I/O error while processing the message
+     * @see Envelope
+     */
+    @Override
+    public void handleDelivery(String consumerTag, Envelope envelope,
+                               AMQP.BasicProperties properties, byte[] body)
+            throws IOException {
+        try {
+            Platform platform = codecs.read(body, Platform.class);
+            log.debug("Received " + envelope.getRoutingKey() + " event of platform " + platform.getId());
+            if (platform.getId() != null) {
+                platformCache.invalidate(platform.getId());
+                if (interworkingServiceIndex != null) {
+                    interworkingServiceIndex.remove(platform.getId());
+                }
+            } else {
+                platformCache.invalidateAll();
+            }
+        } catch (IOException e) {
+            log.error("Unable to read platform from " + envelope.getRoutingKey() + " event, clearing platform cache", e);
+            platformCache.invalidateAll();
+        }
+    }
+
+    @Override
+    public void handleRecovery(Recoverable recoverable) {
+        platformCache.invalidateAll();
+    }
+
+    // present only in newer versions of RecoveryListener, so not marked with @Override
+    public void handleRecoveryStarted(Recoverable recoverable) {
+    }
+}
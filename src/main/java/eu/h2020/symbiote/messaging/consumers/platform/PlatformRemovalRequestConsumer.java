@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.platform;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -17,6 +16,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by mateuszl on 07.08.2017.
@@ -59,16 +59,17 @@ public class PlatformRemovalRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
 
-        ObjectMapper mapper = new ObjectMapper();
-        String response;
-        String message = new String(body, "UTF-8");
+        RegistryCodecs codecs = rabbitManager.getCodecs();
         PlatformRegistryResponse platformResponse = new PlatformRegistryResponse();
-        log.info(" [x] Received platform to remove: '" + message + "'");
+        log.info(" [x] Received platform to remove");
+        if (log.isDebugEnabled()) {
+            log.debug(" [x] Received platform to remove: '" + new String(body, StandardCharsets.UTF_8) + "'");
+        }
 
         Platform requestPlatform;
 
         try {
-            requestPlatform = mapper.readValue(message, Platform.class);
+            requestPlatform = codecs.read(body, Platform.class);
             platformResponse.setBody(requestPlatform);
 
             //// TODO: 11.08.2017 should i check some information given in platform?
@@ -93,9 +94,7 @@ public class PlatformRemovalRequestConsumer extends DefaultConsumer {
             platformResponse.setStatus(400);
         }
 
-        response = mapper.writeValueAsString(platformResponse);
-
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, response);
+        rabbitManager.sendRPCReply(this, properties, envelope, platformResponse);
     }
 }
 
@@ -2,37 +2,64 @@ package eu.h2020.symbiote.messaging.consumers.platform;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.DefaultConsumer;
 import com.rabbitmq.client.Envelope;
-import eu.h2020.symbiote.core.internal.CoreResource;
 import eu.h2020.symbiote.core.internal.CoreResourceRegistryRequest;
 import eu.h2020.symbiote.core.internal.ResourceListResponse;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.model.ResourceSummary;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.RegistryUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
+ * Consumer of requests for all resources of a platform.
+ * <p>
+ * By default all resources are sent in a single reply. Request headers switch to one of the bounded modes:
+ * <ul>
+ * <li>pageSize (with optional resumeAfter) - single reply with one page of resources ordered by id; nextResumeAfter
+ * reply header holds the value for the next page request and is missing in the last page,</li>
+ * <li>chunkSize - all resources sent in many replies with the same correlation id, numbered by sequenceNumber
+ * header; the last one has lastChunk header set to true.</li>
+ * </ul>
+ * <p>
  * Created by mateuszl on 12.06.2017.
  */
 public class PlatformResourcesRequestConsumer extends DefaultConsumer {
 
+    /* request headers */
+    public static final String PAGE_SIZE_HEADER = "pageSize";
+    public static final String RESUME_AFTER_HEADER = "resumeAfter";
+    public static final String CHUNK_SIZE_HEADER = "chunkSize";
+    /* reply headers */
+    public static final String NEXT_RESUME_AFTER_HEADER = "nextResumeAfter";
+    public static final String SEQUENCE_NUMBER_HEADER = "sequenceNumber";
+    public static final String LAST_CHUNK_HEADER = "lastChunk";
+    private static final int MAX_PAGE_SIZE = 5000;
+
     private static Log log = LogFactory.getLog(PlatformResourcesRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
 
     /**
@@ -50,7 +77,8 @@ public class PlatformResourcesRequestConsumer extends DefaultConsumer {
         this.rabbitManager = rabbitManager;
         this.repositoryManager = repositoryManager;
         this.authorizationManager = authorizationManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
 
@@ -73,48 +101,162 @@ public class PlatformResourcesRequestConsumer extends DefaultConsumer {
         CoreResourceRegistryRequest request;
         ResourceListResponse resourceRegistryResponse = new ResourceListResponse();
         resourceRegistryResponse.setBody(new ArrayList<>());
-        List<CoreResource> coreResources;
-        AuthorizationResult authorizationResult;
-        String message = new String(body, "UTF-8");
-        log.info(" [x] Received request to retrieve resources for platform: '" + message + "'");
+        log.info(" [x] Received request to retrieve resources for platform");
+        if (log.isDebugEnabled()) {
+            log.debug(" [x] Received request to retrieve resources for platform: '" + new String(body, StandardCharsets.UTF_8) + "'");
+        }
 
         try {
-            request = mapper.readValue(message, CoreResourceRegistryRequest.class);
+            request = codecs.read(body, CoreResourceRegistryRequest.class);
         } catch (JsonSyntaxException | JsonMappingException | JsonParseException e) {
             log.error("Error occurred during getting Request from Json", e);
             resourceRegistryResponse.setMessage("Error occurred during getting Request from Json");
             resourceRegistryResponse.setStatus(400);
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(resourceRegistryResponse));
+            rabbitManager.sendRPCReply(this, properties, envelope, resourceRegistryResponse);
             return;
         }
 
         if (request != null) {
-            try {
-                authorizationResult = authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId());
-            } catch (Exception e) {
-                log.error("Authorization Error: " + e);
-                resourceRegistryResponse.setMessage("Request invalid!");
-                resourceRegistryResponse.setStatus(400);
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(resourceRegistryResponse));
-                return;
-            }
-            if (!authorizationResult.isValidated()) {
-                log.error("Token invalid! " + authorizationResult.getMessage());
-                resourceRegistryResponse.setMessage(authorizationResult.getMessage());
-                resourceRegistryResponse.setStatus(400);
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(resourceRegistryResponse));
-            } else {
-                coreResources = repositoryManager.getResourcesForPlatform(request.getPlatformId());
-                resourceRegistryResponse.setStatus(HttpStatus.SC_OK);
-                resourceRegistryResponse.setMessage("OK. " + coreResources.size() + " resources found!");
-                resourceRegistryResponse.setBody(RegistryUtils.convertCoreResourcesToResourcesList(coreResources));
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(resourceRegistryResponse));
-            }
+            //token is verified off the delivery thread, resources are sent when it is done
+            authorizationStage.authorize(
+                    () -> authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId()),
+                    authorizationResult -> sendResources(request, authorizationResult, properties, envelope),
+                    exception -> sendFailureReply(properties, envelope, exception));
         } else {
             log.error("Request is null!");
             resourceRegistryResponse.setMessage("Request is null!");
             resourceRegistryResponse.setStatus(400);
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(resourceRegistryResponse));
+            rabbitManager.sendRPCReply(this, properties, envelope, resourceRegistryResponse);
+        }
+    }
+
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(AMQP.BasicProperties properties, Envelope envelope, Exception exception) {
+        sendFailureReply(properties, envelope, exception, null);
+    }
+
+    private void sendFailureReply(AMQP.BasicProperties properties, Envelope envelope, Exception exception,
+                                  Map<String, Object> headers) {
+        ResourceListResponse response = new ResourceListResponse();
+        response.setBody(new ArrayList<>());
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, properties, envelope, response, headers);
+    }
+
+    private void sendResources(CoreResourceRegistryRequest request, AuthorizationResult authorizationResult,
+                               AMQP.BasicProperties properties, Envelope envelope) throws IOException {
+        ResourceListResponse resourceRegistryResponse = new ResourceListResponse();
+        resourceRegistryResponse.setBody(new ArrayList<>());
+        List<ResourceSummary> resourceSummaries;
+
+        if (!authorizationResult.isValidated()) {
+            log.error("Token invalid! " + authorizationResult.getMessage());
+            resourceRegistryResponse.setMessage(authorizationResult.getMessage());
+            resourceRegistryResponse.setStatus(400);
+            rabbitManager.sendRPCReply(this, properties, envelope, resourceRegistryResponse);
+        } else if (getIntHeader(properties, CHUNK_SIZE_HEADER) > 0) {
+            sendChunkedReply(request.getPlatformId(), getIntHeader(properties, CHUNK_SIZE_HEADER), properties, envelope);
+        } else if (getIntHeader(properties, PAGE_SIZE_HEADER) > 0) {
+            sendPageReply(request.getPlatformId(), getIntHeader(properties, PAGE_SIZE_HEADER),
+                    getStringHeader(properties, RESUME_AFTER_HEADER), properties, envelope);
+        } else {
+            resourceSummaries = repositoryManager.getResourceSummariesForPlatform(request.getPlatformId());
+            resourceRegistryResponse.setStatus(HttpStatus.SC_OK);
+            resourceRegistryResponse.setMessage("OK. " + resourceSummaries.size() + " resources found!");
+            resourceRegistryResponse.setBody(RegistryUtils.convertResourceSummariesToResourcesList(resourceSummaries));
+            rabbitManager.sendRPCReply(this, properties, envelope, resourceRegistryResponse);
+        }
+    }
+
+    /**
+     * Sends one page of resources. Id of the last resource is returned in the reply header, to be passed
+     * as resume-after header of the request for the next page. The header is missing in the last page.
+     * When the page can not be read or sent, the request is answered with 500 status.
+     */
+    private void sendPageReply(String platformId, int pageSize, String resumeAfter,
+                               AMQP.BasicProperties properties, Envelope envelope) {
+        try {
+            int limitedPageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+            List<ResourceSummary> page = repositoryManager.getResourcesForPlatformPage(platformId, resumeAfter, limitedPageSize);
+
+            Map<String, Object> headers = new HashMap<>();
+            if (page.size() == limitedPageSize) {
+                headers.put(NEXT_RESUME_AFTER_HEADER, page.get(page.size() - 1).getId());
+            }
+            ResourceListResponse response = new ResourceListResponse();
+            response.setStatus(HttpStatus.SC_OK);
+            response.setMessage("OK. " + page.size() + " resources found!");
+            response.setBody(RegistryUtils.convertResourceSummariesToResourcesList(page));
+            rabbitManager.sendRPCReply(this, properties, envelope, response, headers);
+        } catch (Exception e) {
+            log.error("Page of resources of platform " + platformId + " could not be sent", e);
+            sendFailureReply(properties, envelope, e);
+        }
+    }
+
+    /**
+     * Sends all resources of the platform in many reply messages of given size, read from database cursor while
+     * they are sent. Every reply has the correlation id of the request and a sequence number header, the last one
+     * is marked with last chunk header. The request is acked with the last chunk. When the resources can not be read
+     * or sent, the reply is finished with a last chunk with 500 status.
+     */
+    private void sendChunkedReply(String platformId, int chunkSize,
+                                  AMQP.BasicProperties properties, Envelope envelope) {
+        int sequenceNumber = 0;
+        try (Stream<ResourceSummary> resources = repositoryManager.streamResourceSummariesForPlatform(platformId)) {
+            Iterator<ResourceSummary> iterator = resources.iterator();
+            do {
+                List<ResourceSummary> chunk = new ArrayList<>(chunkSize);
+                while (iterator.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(iterator.next());
+                }
+                boolean lastChunk = !iterator.hasNext();
+
+                Map<String, Object> headers = new HashMap<>();
+                headers.put(SEQUENCE_NUMBER_HEADER, sequenceNumber);
+                headers.put(LAST_CHUNK_HEADER, lastChunk);
+                ResourceListResponse response = new ResourceListResponse();
+                response.setStatus(HttpStatus.SC_OK);
+                response.setMessage("OK. " + chunk.size() + " resources in chunk " + sequenceNumber);
+                response.setBody(RegistryUtils.convertResourceSummariesToResourcesList(chunk));
+                byte[] chunkMessage = codecs.writeAsBytes(response);
+
+                if (lastChunk) {
+                    rabbitManager.sendRPCReplyMessage(this, properties, envelope, chunkMessage, headers);
+                } else {
+                    rabbitManager.sendRPCReplyPart(properties, chunkMessage, headers);
+                }
+                sequenceNumber++;
+            } while (iterator.hasNext());
+        } catch (Exception e) {
+            log.error("Resources of platform " + platformId + " could not be sent in chunks", e);
+            Map<String, Object> headers = new HashMap<>();
+            headers.put(SEQUENCE_NUMBER_HEADER, sequenceNumber);
+            headers.put(LAST_CHUNK_HEADER, true);
+            sendFailureReply(properties, envelope, e, headers);
+            return;
+        }
+        log.info("Resources of platform " + platformId + " sent in " + sequenceNumber + " chunk(s)");
+    }
+
+    private static int getIntHeader(AMQP.BasicProperties properties, String name) {
+        String value = getStringHeader(properties, name);
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : 0;
+        } catch (NumberFormatException e) {
+            log.error("Invalid value of " + name + " header: " + value);
+            return 0;
+        }
+    }
+
+    private static String getStringHeader(AMQP.BasicProperties properties, String name) {
+        if (properties.getHeaders() == null || properties.getHeaders().get(name) == null) {
+            return null;
         }
+        // string headers are received as LongString
+        return properties.getHeaders().get(name).toString();
     }
 }
\ No newline at end of file
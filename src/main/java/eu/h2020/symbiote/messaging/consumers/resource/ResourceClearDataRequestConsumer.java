@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.resource;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -13,9 +12,11 @@ import eu.h2020.symbiote.core.internal.CoreResource;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.model.ResourceSummary;
 import eu.h2020.symbiote.model.cim.Resource;
-import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.ResourcePersistenceResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.RegistryUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,11 +37,11 @@ import java.util.stream.Collectors;
 public class ResourceClearDataRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(ResourceClearDataRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
     private RabbitManager rabbitManager;
-    private ClearDataResponse response;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -58,7 +59,8 @@ public class ResourceClearDataRequestConsumer extends DefaultConsumer {
         this.repositoryManager = repositoryManager;
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -75,85 +77,102 @@ public class ResourceClearDataRequestConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-        Map<String, ResourcePersistenceResult> resourceRemovalMap = new HashMap<>();
-        List<Resource> resourcesRemoved = new ArrayList<>();
-        List<CoreResource> resourceList;
-
         ClearDataRequest request;
-        ResourcePersistenceResult resourceRemovalResult;
-
-        String message = new String(body, "UTF-8");
+        ClearDataResponse response;
         log.info(" [x] Received clear resource data");
 
         try {
             try {
-                request = mapper.readValue(message, ClearDataRequest.class);
+                request = codecs.read(body, ClearDataRequest.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
                 log.error("Error occurred during getting Operation Request from Json", e);
-                generateResponse(HttpStatus.SC_BAD_REQUEST, "Error occurred during getting Operation Request from Json");
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+                response = generateResponse(HttpStatus.SC_BAD_REQUEST, "Error occurred during getting Operation Request from Json");
+                rabbitManager.sendRPCReply(this, properties, envelope, response);
                 return;
             }
 
             if (request == null) {
                 log.error("Request for clear data is null");
-                generateResponse(HttpStatus.SC_BAD_REQUEST, "Request for clear data is null");
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+                response = generateResponse(HttpStatus.SC_BAD_REQUEST, "Request for clear data is null");
+                rabbitManager.sendRPCReply(this, properties, envelope, response);
                 return;
             }
 
             if (request.getSecurityRequest() != null) {
                 //This happens if request came from external server, this check is skipped for internal communication from Admin
-                AuthorizationResult tokenAuthorizationResult =
-                        authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getBody());
-                if (!tokenAuthorizationResult.isValidated()) {
-                    log.error("Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-                    generateResponse(HttpStatus.SC_BAD_REQUEST, "Token invalid: \"" + tokenAuthorizationResult.getMessage()
-                            + "\" could not clear data for a platform");
-                    rabbitManager.sendRPCReplyMessage(this, properties, envelope,
-                            mapper.writeValueAsString(response));
-                    return;
-                }
+                //token is verified off the delivery thread, data is cleared when it is done
+                authorizationStage.authorize(
+                        () -> authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getBody()),
+                        tokenAuthorizationResult -> {
+                            if (!tokenAuthorizationResult.isValidated()) {
+                                log.error("Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
+                                rabbitManager.sendRPCReply(this, properties, envelope, generateResponse(HttpStatus.SC_BAD_REQUEST,
+                                        "Token invalid: \"" + tokenAuthorizationResult.getMessage()
+                                                + "\" could not clear data for a platform"));
+                            } else {
+                                clearData(request, properties, envelope);
+                            }
+                        },
+                        exception -> rabbitManager.sendErrorReplyAndAck(this, properties, envelope,
+                                new ClearDataResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                                        "Consumer critical error: " + exception, null)));
+            } else {
+                clearData(request, properties, envelope);
             }
+        } catch (Exception e) {
+            log.error(e);
+            response = generateResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
+            rabbitManager.sendRPCReply(this, properties, envelope, response);
+        }
+    }
+
+    private void clearData(ClearDataRequest request, AMQP.BasicProperties properties, Envelope envelope)
+            throws IOException {
+        Map<String, ResourcePersistenceResult> resourceRemovalMap;
+        List<CoreResource> resourcesRemoved = new ArrayList<>();
+        List<ResourceSummary> resourceList;
+        ClearDataResponse response;
 
+        try {
             //List all resources of a platform
-            resourceList = repositoryManager.getResourcesForPlatform(request.getBody());
+            resourceList = repositoryManager.getResourceSummariesForPlatform(request.getBody());
             log.debug("Found resources number: " + resourceList.size());
 
             if (resourceList.isEmpty()) {
                 log.error("Request to clear the data - there are no resources to remove.");
-                generateResponse(HttpStatus.SC_OK, "Request to clear the data - there are no resources to remove.");
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+                response = generateResponse(HttpStatus.SC_OK, "Request to clear the data - there are no resources to remove.");
+                rabbitManager.sendRPCReply(this, properties, envelope, response);
                 return;
             }
 
-            for (CoreResource res : resourceList) {
+            Map<String, Resource> resourcesToRemove = new HashMap<>();
+            for (ResourceSummary res : resourceList) {
                 if (res == null) {
                     log.error("Resources list contains a NULL resource!");
                 } else {
-                    resourceRemovalResult = this.repositoryManager.removeResource(RegistryUtils.convertCoreResourceToResource(res));
-                    resourceRemovalMap.put(res.getId(), resourceRemovalResult);
+                    resourcesToRemove.put(res.getId(), RegistryUtils.convertResourceSummaryToResource(res));
                 }
             }
+            resourceRemovalMap = this.repositoryManager.removeResources(resourcesToRemove);
 
             if (checkIfRemovalWasSuccessful(resourceRemovalMap.values().stream().collect(Collectors.toList()), resourcesRemoved, resourceList)) {
                 sendFanoutMessage(resourceRemovalMap.values().stream().collect(Collectors.toList()));
-                generateResponse(HttpStatus.SC_OK, "Success");
+                response = generateResponse(HttpStatus.SC_OK, "Success");
             } else {
-                generateResponse(410, "Operation not performed");
+                response = generateResponse(410, "Operation not performed");
             }
 
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+            rabbitManager.sendRPCReply(this, properties, envelope, response);
         } catch (Exception e) {
             log.error(e);
-            generateResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+            response = generateResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
+            rabbitManager.sendRPCReply(this, properties, envelope, response);
         }
     }
 
     private ClearDataResponse generateResponse(int status, String msg) {
-        this.response = new ClearDataResponse(status, msg, null);
-        this.response.setServiceResponse(authorizationManager.generateServiceResponse());
+        ClearDataResponse response = new ClearDataResponse(status, msg, null);
+        response.setServiceResponse(authorizationManager.generateServiceResponse());
         return response;
     }
 
@@ -169,7 +188,7 @@ public class ResourceClearDataRequestConsumer extends DefaultConsumer {
     }
 
     private boolean checkIfRemovalWasSuccessful(List<ResourcePersistenceResult> resourceRemovalResultList,
-                                                List<Resource> resourcesRemoved, List<CoreResource> resources) {
+                                                List<CoreResource> resourcesRemoved, List<ResourceSummary> resources) {
         for (ResourcePersistenceResult result : resourceRemovalResultList) {
             if (result.getStatus() == 200) {
                 resourcesRemoved.add(result.getResource());
@@ -182,10 +201,12 @@ public class ResourceClearDataRequestConsumer extends DefaultConsumer {
         return true;
     }
 
-    private void rollback(List<Resource> resourcesRemoved) {
-        for (Resource resource : resourcesRemoved) {
-            this.repositoryManager.saveResource(RegistryUtils.convertResourceToCoreResource(resource));
-            log.info("Removed resources rollback performed.");
-        }
+    /**
+     * Re-inserts removed resources, as they were stored in database, with a single bulk insert.
+     */
+    private void rollback(List<CoreResource> resourcesRemoved) {
+        this.repositoryManager.saveResources(resourcesRemoved.stream()
+                .collect(Collectors.toMap(CoreResource::getId, resource -> resource)));
+        log.info("Removed resources rollback performed.");
     }
 }
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.resource;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -15,15 +14,19 @@ import eu.h2020.symbiote.core.internal.ResourceInstanceValidationRequest;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.RegistryOperationType;
+import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
-import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.ValidationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -34,14 +37,11 @@ import java.util.Map;
 public class ResourceCreationRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(ResourceCreationRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
-    private Map<String, IAccessPolicySpecifier> policiesMap;
-    private CoreResourceRegistryResponse response;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -58,7 +58,8 @@ public class ResourceCreationRequestConsumer extends DefaultConsumer {
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
         this.repositoryManager = repositoryManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -76,69 +77,95 @@ public class ResourceCreationRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
         CoreResourceRegistryRequest request = null;
-        response = new CoreResourceRegistryResponse();
-        String message = new String(body, "UTF-8");
+        RequestContext<CoreResourceRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new CoreResourceRegistryResponse());
         log.info(" [x] Received resources to create (CoreResourceRegistryRequest)");
-        log.info("Content: " + message);
-        this.envelope = envelope;
-        this.properties = properties;
+        if (log.isDebugEnabled()) {
+            log.debug("Content: " + new String(body, StandardCharsets.UTF_8));
+        }
 
         try {
             try {
                 //request from CCI received and deserialized
-                request = mapper.readValue(message, CoreResourceRegistryRequest.class);
+                request = codecs.read(body, CoreResourceRegistryRequest.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
-                prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, "Unable to get CoreResourceRegistryRequest from Message body! Resources not modified! " + e);
+                prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Unable to get CoreResourceRegistryRequest from Message body! Resources not modified! " + e);
             }
 
             if (request != null) {
-                //checking access by token verification
-                AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId());
-                if (!tokenAuthorizationResult.isValidated()) {
-                    prepareAndSendErrorResponse(400, "Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-                    return;
-                }
+                //checking access by token verification, off the delivery thread
+                CoreResourceRegistryRequest authorizedRequest = request;
+                authorizationStage.authorize(
+                        () -> authorizationManager.checkSinglePlatformOperationAccess(authorizedRequest.getSecurityRequest(), authorizedRequest.getPlatformId()),
+                        tokenAuthorizationResult -> handleAuthorizedRequest(context, authorizedRequest, body, tokenAuthorizationResult),
+                        exception -> sendFailureReply(context, exception));
+            }
+        } catch (Exception e) {
+            prepareAndSendErrorResponse(context, 500, "Consumer critical error!" + e);
+        }
+    }
 
-                if (request.getBody() != null) {
-
-                    this.policiesMap = request.getFilteringPolicies();
-
-                    //contact with Semantic Manager accordingly to Type of object Description received
-                    switch (request.getDescriptionType()) {
-                        case RDF:
-                            log.info("Message to Semantic Manager Sent. Request: " + request.getBody());
-
-                            createAndSendValidationRequest(envelope, properties, request);
-
-                            break;
-                        case BASIC:
-                            if (ValidationUtils.checkIfResourcesDoesNotHaveIds(request)) {
-                                log.info("Message to Semantic Manager Sent. Request: " + request.getBody());
-                                //sending JSON content to Semantic Manager and passing responsibility to another consumer
-                                rabbitManager.sendResourceJsonTranslationRpcMessage(this, properties, envelope,
-                                        message,
-                                        request.getPlatformId(),
-                                        RegistryOperationType.CREATION,
-                                        authorizationManager,
-                                        this.policiesMap,
-                                        request.getBody());
-                            } else {
-                                prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, "One of the resources has ID or list with resources is invalid. Resources not created!");
+    private void handleAuthorizedRequest(RequestContext<CoreResourceRegistryResponse> context,
+                                         CoreResourceRegistryRequest request, byte[] body,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        try {
+            if (!tokenAuthorizationResult.isValidated()) {
+                prepareAndSendErrorResponse(context, 400, "Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
+                return;
+            }
+
+            if (request.getBody() != null) {
+
+                context.setPoliciesMap(request.getFilteringPolicies());
+                context.setPlatformId(request.getPlatformId());
+
+                //contact with Semantic Manager accordingly to Type of object Description received
+                switch (request.getDescriptionType()) {
+                    case RDF:
+                        log.info("Message to Semantic Manager Sent");
+                        if (log.isDebugEnabled()) {
+                            log.debug("Request: " + request.getBody());
+                        }
+
+                        createAndSendValidationRequest(context, request);
+
+                        break;
+                    case BASIC:
+                        //resources are read once and kept in the context until Semantic Manager answers
+                        Map<String, Resource> resources;
+                        try {
+                            resources = codecs.readResourceMap(request.getBody());
+                        } catch (IOException e) {
+                            prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Unable to get Resources from request body! Resources not created! " + e);
+                            return;
+                        }
+                        if (ValidationUtils.checkIfResourcesDoesNotHaveIds(resources)) {
+                            log.info("Message to Semantic Manager Sent");
+                            if (log.isDebugEnabled()) {
+                                log.debug("Request: " + request.getBody());
                             }
-                            break;
-                    }
-                } else {
-                    prepareAndSendErrorResponse(400, "Message body is null!");
+                            context.setResources(resources);
+                            //sending JSON content to Semantic Manager and passing responsibility to another consumer
+                            rabbitManager.sendResourceJsonTranslationRpcMessage(this, context,
+                                    body,
+                                    RegistryOperationType.CREATION,
+                                    authorizationManager);
+                        } else {
+                            prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "One of the resources has ID or list with resources is invalid. Resources not created!");
+                        }
+                        break;
                 }
+            } else {
+                prepareAndSendErrorResponse(context, 400, "Message body is null!");
             }
         } catch (Exception e) {
-            prepareAndSendErrorResponse(500, "Consumer critical error!" + e);
+            prepareAndSendErrorResponse(context, 500, "Consumer critical error!" + e);
         }
     }
 
-    private void createAndSendValidationRequest(Envelope envelope, AMQP.BasicProperties properties,
+    private void createAndSendValidationRequest(RequestContext<CoreResourceRegistryResponse> context,
                                                 CoreResourceRegistryRequest request) throws IOException {
-        RDFResourceRegistryRequest rdfResourceRegistryRequest = mapper.readValue(request.getBody(), RDFResourceRegistryRequest.class);
+        RDFResourceRegistryRequest rdfResourceRegistryRequest = codecs.read(request.getBody(), RDFResourceRegistryRequest.class);
 
         String requestedInterworkingServiceUrl = rdfResourceRegistryRequest.getInterworkingServiceUrl();
 
@@ -146,7 +173,7 @@ public class ResourceCreationRequestConsumer extends DefaultConsumer {
                 repositoryManager.getInformationModelIdByInterworkingServiceUrl(request.getPlatformId(), requestedInterworkingServiceUrl);
 
         if (informationModelIdByInterworkingServiceUrl == null) {
-            prepareAndSendErrorResponse(400, "Requested Interworking Service Url does not exist for given platform! Resource not accepted.");
+            prepareAndSendErrorResponse(context, 400, "Requested Interworking Service Url does not exist for given platform! Resource not accepted.");
         } else {
             ResourceInstanceValidationRequest resourceInstanceValidationRequest = new ResourceInstanceValidationRequest();
             resourceInstanceValidationRequest.setRdf(rdfResourceRegistryRequest.getBody().getRdf());
@@ -155,18 +182,30 @@ public class ResourceCreationRequestConsumer extends DefaultConsumer {
             resourceInstanceValidationRequest.setInterworkingServiceURL(requestedInterworkingServiceUrl);
 
             //sending RDF content to Semantic Manager and passing responsibility to another consumer
-            rabbitManager.sendResourceRdfValidationRpcMessage(this, properties, envelope,
-                    mapper.writeValueAsString(resourceInstanceValidationRequest),
-                    request.getPlatformId(), RegistryOperationType.CREATION, authorizationManager, this.policiesMap);
+            rabbitManager.sendResourceRdfValidationRpcMessage(this, context,
+                    codecs.writeAsBytes(resourceInstanceValidationRequest),
+                    RegistryOperationType.CREATION, authorizationManager);
         }
     }
 
-    private void prepareAndSendErrorResponse(int status, String message) throws IOException {
+    private void prepareAndSendErrorResponse(RequestContext<CoreResourceRegistryResponse> context,
+                                             int status, String message) throws IOException {
         log.error(message);
-        this.response.setStatus(status);
-        this.response.setMessage(message);
-        this.response.setDescriptionType(DescriptionType.BASIC);
-        this.response.setServiceResponse(authorizationManager.generateServiceResponse());
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(status);
+        response.setMessage(message);
+        response.setDescriptionType(DescriptionType.BASIC);
+        response.setServiceResponse(authorizationManager.generateServiceResponse());
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
+    }
+
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<CoreResourceRegistryResponse> context, Exception exception) {
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
     }
 }
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.resource;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -13,9 +12,12 @@ import eu.h2020.symbiote.core.internal.DescriptionType;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.RegistryOperationType;
+import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
-import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.ValidationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,13 +35,10 @@ public class ResourceModificationRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(ResourceModificationRequestConsumer.class);
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RabbitManager rabbitManager;
     private RepositoryManager repositoryManager;
-    private ObjectMapper mapper;
-    private Map<String, IAccessPolicySpecifier> policiesMap;
-    private CoreResourceRegistryResponse response;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
+    private RegistryCodecs codecs;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -56,7 +55,8 @@ public class ResourceModificationRequestConsumer extends DefaultConsumer {
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
         this.repositoryManager = repositoryManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -74,76 +74,114 @@ public class ResourceModificationRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
         CoreResourceRegistryRequest request;
-        response = new CoreResourceRegistryResponse();
-        String message = new String(body, "UTF-8");
-        this.envelope = envelope;
-        this.properties = properties;
+        RequestContext<CoreResourceRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new CoreResourceRegistryResponse());
 
         log.info(" [x] Received resources to modify (CoreResourceRegistryRequest)");
 
         try {
             try {
                 //request from CCI received and deserialized
-                request = mapper.readValue(message, CoreResourceRegistryRequest.class);
+                request = codecs.read(body, CoreResourceRegistryRequest.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
-                prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, "Unable to get CoreResourceRegistryRequest from Message body! Resources not modified! " + e);
+                prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Unable to get CoreResourceRegistryRequest from Message body! Resources not modified! " + e);
                 return;
             }
 
             if (request != null) {
-                this.policiesMap = request.getFilteringPolicies();
-                AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId());
-                if (!tokenAuthorizationResult.isValidated()) {
-                    prepareAndSendErrorResponse(400, "Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-                    return;
-                }
+                context.setPoliciesMap(request.getFilteringPolicies());
+                context.setPlatformId(request.getPlatformId());
+                //token is verified off the delivery thread, processing continues when it is done
+                authorizationStage.authorize(
+                        () -> authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId()),
+                        tokenAuthorizationResult -> handleAuthorizedRequest(context, request, body, tokenAuthorizationResult),
+                        exception -> sendFailureReply(context, exception));
             } else {
-                prepareAndSendErrorResponse(400, "Request is null!");
+                prepareAndSendErrorResponse(context, 400, "Request is null!");
+            }
+        } catch (Exception e) {
+            sendCriticalErrorResponse(context, e);
+        }
+    }
+
+    private void handleAuthorizedRequest(RequestContext<CoreResourceRegistryResponse> context,
+                                         CoreResourceRegistryRequest request, byte[] body,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        try {
+            if (!tokenAuthorizationResult.isValidated()) {
+                prepareAndSendErrorResponse(context, 400, "Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
                 return;
             }
 
             //contact with Semantic Manager accordingly to Type of object Description received
             switch (request.getDescriptionType()) {
                 case RDF:
-                    log.info("Message to Semantic Manager Sent. Content Type : RDF. Request: " + request.getBody());    //sending RDF content to Semantic Manager and passing responsibility to another consumer
-                    rabbitManager.sendResourceRdfValidationRpcMessage(this, properties, envelope,
-                            message,
-                            request.getPlatformId(),
+                    log.info("Message to Semantic Manager Sent. Content Type : RDF");    //sending RDF content to Semantic Manager and passing responsibility to another consumer
+                    if (log.isDebugEnabled()) {
+                        log.debug("Request: " + request.getBody());
+                    }
+                    rabbitManager.sendResourceRdfValidationRpcMessage(this, context,
+                            body,
                             RegistryOperationType.MODIFICATION,
-                            authorizationManager,
-                            this.policiesMap);
+                            authorizationManager);
                     break;
                 case BASIC:
-                    if (ValidationUtils.checkIfEveryResourceHasId(request)) {                                                           //if all of the resources have an Id, request is passed do SM
-                        log.info("Message to Semantic Manager Sent. Content Type : BASIC. Request: " + request.getBody());
+                    //resources are read once and kept in the context until Semantic Manager answers
+                    Map<String, Resource> resources;
+                    try {
+                        resources = codecs.readResourceMap(request.getBody());
+                    } catch (IOException e) {
+                        prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Unable to get Resources from request body! Resources not modified! " + e);
+                        return;
+                    }
+                    if (ValidationUtils.checkIfEveryResourceHasId(resources)) {                                                         //if all of the resources have an Id, request is passed do SM
+                        log.info("Message to Semantic Manager Sent. Content Type : BASIC");
+                        if (log.isDebugEnabled()) {
+                            log.debug("Request: " + request.getBody());
+                        }
+                        context.setResources(resources);
                         //sending JSON content to Semantic Manager and passing responsibility to another consumer
-                        rabbitManager.sendResourceJsonTranslationRpcMessage(this, properties, envelope,
-                                message,
-                                request.getPlatformId(),
+                        rabbitManager.sendResourceJsonTranslationRpcMessage(this, context,
+                                body,
                                 RegistryOperationType.MODIFICATION,
-                                authorizationManager,
-                                this.policiesMap,
-                                request.getBody());
+                                authorizationManager);
                     } else {                                                                                            //if any of the resources does not have an ID, request is rejected.
-                        prepareAndSendErrorResponse(400, "One of the resources has no ID or list with resources is invalid. Resources not modified!");
+                        prepareAndSendErrorResponse(context, 400, "One of the resources has no ID or list with resources is invalid. Resources not modified!");
                     }
                     break;
             }
         } catch (Exception e) {
-            log.error(e);
-            response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
-            response.setMessage("Consumer critical exception!");
-            rabbitManager.sendRPCReplyMessage(this, properties, envelope,
-                    mapper.writeValueAsString(response));
+            sendCriticalErrorResponse(context, e);
         }
     }
 
-    private void prepareAndSendErrorResponse(int status, String message) throws IOException {
+    private void sendCriticalErrorResponse(RequestContext<CoreResourceRegistryResponse> context,
+                                           Exception e) throws IOException {
+        log.error(e);
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical exception!");
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
+    }
+
+    private void prepareAndSendErrorResponse(RequestContext<CoreResourceRegistryResponse> context,
+                                             int status, String message) throws IOException {
         log.error(message);
-        this.response.setStatus(status);
-        this.response.setMessage(message);
-        this.response.setDescriptionType(DescriptionType.BASIC);
-        this.response.setServiceResponse(authorizationManager.generateServiceResponse());
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(status);
+        response.setMessage(message);
+        response.setDescriptionType(DescriptionType.BASIC);
+        response.setServiceResponse(authorizationManager.generateServiceResponse());
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
+    }
+
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<CoreResourceRegistryResponse> context, Exception exception) {
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
     }
 }
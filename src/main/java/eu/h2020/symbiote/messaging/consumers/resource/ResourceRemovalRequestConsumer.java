@@ -1,8 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.resource;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -15,10 +13,14 @@ import eu.h2020.symbiote.core.internal.DescriptionType;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.ResourcePersistenceResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.RegistryUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
@@ -38,13 +40,11 @@ import java.util.stream.Collectors;
 public class ResourceRemovalRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(ResourceRemovalRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
     private RabbitManager rabbitManager;
-    private CoreResourceRegistryResponse response;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
 
     //todo 11.06.18 SEND BACK LIST WITH ONLY IDs instead of full resources???!?!?!
 
@@ -64,7 +64,8 @@ public class ResourceRemovalRequestConsumer extends DefaultConsumer {
         this.repositoryManager = repositoryManager;
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -81,44 +82,53 @@ public class ResourceRemovalRequestConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-        Map<String, ResourcePersistenceResult> resourceRemovalMap = new HashMap<>();
-        List<Resource> resourcesRemoved = new ArrayList<>();
-        Map<String, Resource> resources;
-        this.envelope = envelope;
-        this.properties = properties;
-        this.response = new CoreResourceRegistryResponse();
+        RequestContext<CoreResourceRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new CoreResourceRegistryResponse());
 
         CoreResourceRegistryRequest request;
-        ResourcePersistenceResult resourceRemovalResult;
-
-        String message = new String(body, "UTF-8");
         log.info(" [x] Received resource to remove");
 
         try {
             try {
-                request = mapper.readValue(message, CoreResourceRegistryRequest.class);
+                request = codecs.read(body, CoreResourceRegistryRequest.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
                 log.error("Error occurred during getting Operation Request from Json", e);
-                prepareAndSendErrorResponse(400, "Error occurred during getting Operation Request from Json");
+                prepareAndSendErrorResponse(context, 400, "Error occurred during getting Operation Request from Json");
                 return;
             }
 
             if (request != null) {
-                AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId());
-                if (!tokenAuthorizationResult.isValidated()) {
-                    prepareAndSendErrorResponse(400, "Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-                    return;
-                }
+                //token is verified off the delivery thread, removal continues when it is done
+                authorizationStage.authorize(
+                        () -> authorizationManager.checkSinglePlatformOperationAccess(request.getSecurityRequest(), request.getPlatformId()),
+                        tokenAuthorizationResult -> handleAuthorizedRequest(context, request, tokenAuthorizationResult),
+                        exception -> sendFailureReply(context, exception));
             } else {
-                prepareAndSendErrorResponse(400, "Request is null");
+                prepareAndSendErrorResponse(context, 400, "Request is null");
+            }
+        } catch (Exception e) {
+            prepareAndSendErrorResponse(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
+        }
+    }
+
+    private void handleAuthorizedRequest(RequestContext<CoreResourceRegistryResponse> context,
+                                         CoreResourceRegistryRequest request,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        Map<String, ResourcePersistenceResult> resourceRemovalMap;
+        List<CoreResource> resourcesRemoved = new ArrayList<>();
+        Map<String, Resource> resources;
+        CoreResourceRegistryResponse response = context.getResponse();
+
+        try {
+            if (!tokenAuthorizationResult.isValidated()) {
+                prepareAndSendErrorResponse(context, 400, "Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
                 return;
             }
 
             try {
-                resources = mapper.readValue(request.getBody(), new TypeReference<Map<String, Resource>>() {
-                });
+                resources = codecs.readResourceMap(request.getBody());
             } catch (JsonSyntaxException | JsonMappingException e) {
-                prepareAndSendErrorResponse(400, "Error occurred during getting Resources from Json" + e);
+                prepareAndSendErrorResponse(context, 400, "Error occurred during getting Resources from Json" + e);
                 return;
             }
 
@@ -126,24 +136,20 @@ public class ResourceRemovalRequestConsumer extends DefaultConsumer {
                     authorizationManager.checkIfResourcesBelongToPlatform(resources, request.getPlatformId());
 
             if (!resourcesAccessAuthorizationResult.isValidated()) {
-                prepareAndSendErrorResponse(400, resourcesAccessAuthorizationResult.getMessage() + resources);
+                prepareAndSendErrorResponse(context, 400, resourcesAccessAuthorizationResult.getMessage() + resources);
                 return;
             }
 
             for (String key : resources.keySet()) {
                 if (resources.get(key) == null) {
-                    prepareAndSendErrorResponse(410, "Resources list contains a NULL resource!" + resources);
+                    prepareAndSendErrorResponse(context, 410, "Resources list contains a NULL resource!" + resources);
+                    return;
+                } else if (StringUtils.isBlank(resources.get(key).getId())) {
+                    prepareAndSendErrorResponse(context, 400, "Given Resource has id null or empty");
                     return;
-                } else {
-                    if (resources.get(key).getId() != null || !resources.get(key).getId().isEmpty()) {
-                        resourceRemovalResult = this.repositoryManager.removeResource(resources.get(key));
-                    } else {
-                        prepareAndSendErrorResponse(400, "Given Resource has id null or empty");
-                        return;
-                    }
-                    resourceRemovalMap.put(key, resourceRemovalResult);
                 }
             }
+            resourceRemovalMap = this.repositoryManager.removeResources(resources);
 
             if (checkIfRemovalWasSuccessful(resourceRemovalMap.values().stream().collect(Collectors.toList()), resourcesRemoved, resources)) {
 
@@ -159,16 +165,15 @@ public class ResourceRemovalRequestConsumer extends DefaultConsumer {
                     resourcesDeletedMap.put(key, RegistryUtils.convertCoreResourceToResource(resourceRemovalMap.get(key).getResource()));
                 }
 
-                response.setBody(mapper.writerFor(new TypeReference<Map<String, Resource>>() {
-                }).writeValueAsString(resourcesDeletedMap));
+                response.setBody(codecs.writeResourceMap(resourcesDeletedMap));
 
-                rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+                rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
 
             } else {
-                prepareAndSendErrorResponse(410, "Operation not performed");
+                prepareAndSendErrorResponse(context, 410, "Operation not performed");
             }
         } catch (Exception e) {
-            prepareAndSendErrorResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
+            prepareAndSendErrorResponse(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
         }
     }
 
@@ -184,7 +189,7 @@ public class ResourceRemovalRequestConsumer extends DefaultConsumer {
     }
 
     private boolean checkIfRemovalWasSuccessful(List<ResourcePersistenceResult> resourceRemovalResultList,
-                                                List<Resource> resourcesRemoved, Map<String, Resource> resources) {
+                                                List<CoreResource> resourcesRemoved, Map<String, Resource> resources) {
         for (ResourcePersistenceResult result : resourceRemovalResultList) {
             if (result.getStatus() == 200) {
                 resourcesRemoved.add(result.getResource());
@@ -197,20 +202,34 @@ public class ResourceRemovalRequestConsumer extends DefaultConsumer {
         return true;
     }
 
-    private void prepareAndSendErrorResponse(int status, String message) throws IOException {
+    private void prepareAndSendErrorResponse(RequestContext<CoreResourceRegistryResponse> context,
+                                             int status, String message) throws IOException {
         log.error(message);
-        this.response.setStatus(status);
-        this.response.setMessage(message);
-        this.response.setDescriptionType(DescriptionType.BASIC);
-        this.response.setServiceResponse(authorizationManager.generateServiceResponse());
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(status);
+        response.setMessage(message);
+        response.setDescriptionType(DescriptionType.BASIC);
+        response.setServiceResponse(authorizationManager.generateServiceResponse());
 
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
     }
 
-    private void rollback(List<Resource> resourcesRemoved) {
-        for (Resource resource : resourcesRemoved) {
-            this.repositoryManager.saveResource(RegistryUtils.convertResourceToCoreResource(resource));
-            log.info("Removed resources rollback performed.");
-        }
+    /**
+     * Re-inserts removed resources, as they were stored in database, with a single bulk insert.
+     */
+    private void rollback(List<CoreResource> resourcesRemoved) {
+        this.repositoryManager.saveResources(resourcesRemoved.stream()
+                .collect(Collectors.toMap(CoreResource::getId, resource -> resource)));
+        log.info("Removed resources rollback performed.");
+    }
+
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<CoreResourceRegistryResponse> context, Exception exception) {
+        CoreResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,7 @@
 package eu.h2020.symbiote.messaging.consumers.resource;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -13,16 +11,19 @@ import eu.h2020.symbiote.core.internal.*;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.RegistryOperationType;
 import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.ResourcePersistenceResult;
 import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.RegistryUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -40,55 +41,43 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
     Map<String, Resource> requestedResourcesMap;
     private CoreResourceRegistryResponse registryResponse;
     private DefaultConsumer rpcConsumer;
-    private AMQP.BasicProperties rpcProperties;
-    private Envelope rpcEnvelope;
+    private RequestContext<CoreResourceRegistryResponse> requestContext;
     private RepositoryManager repositoryManager;
     private RabbitManager rabbitManager;
-    private String resourcesPlatformId;
     private RegistryOperationType operationType;
     private boolean bulkRequestSuccess = true;
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private DescriptionType descriptionType;
-    private String response;
     private AuthorizationManager authorizationManager;
-    private Map<String, IAccessPolicySpecifier> policiesMap;
-    private String requestBody;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
      * Managers beans passed as parameters because of lack of possibility to inject it to consumer.
      *
+     * @param rpcConsumer       consumer which received the request
+     * @param requestContext    context of the request, with resources already deserialized from BASIC requests
      * @param channel           the channel to which this consumer is attached
      * @param rabbitManager     rabbit manager bean passed for access to messages manager
      * @param repositoryManager repository manager bean passed for persistence actions
      */
     public ResourceValidationResponseConsumer(DefaultConsumer rpcConsumer,
-                                              AMQP.BasicProperties rpcProperties,
-                                              Envelope rpcEnvelope,
+                                              RequestContext<CoreResourceRegistryResponse> requestContext,
                                               Channel channel,
                                               RepositoryManager repositoryManager,
                                               RabbitManager rabbitManager,
-                                              String resourcesPlatformId,
                                               RegistryOperationType operationType,
                                               DescriptionType descriptionType,
-                                              AuthorizationManager authorizationManager,
-                                              Map<String, IAccessPolicySpecifier> policiesMap,
-                                              String requestBody) {
+                                              AuthorizationManager authorizationManager) {
         super(channel);
         this.repositoryManager = repositoryManager;
         this.rabbitManager = rabbitManager;
         this.rpcConsumer = rpcConsumer;
-        this.rpcEnvelope = rpcEnvelope;
-        this.rpcProperties = rpcProperties;
-        this.resourcesPlatformId = resourcesPlatformId;
+        this.requestContext = requestContext;
         this.operationType = operationType;
         this.descriptionType = descriptionType;
         this.authorizationManager = authorizationManager;
-        this.policiesMap = policiesMap;
-        this.requestBody = requestBody;
-        this.mapper = new ObjectMapper();
-        this.registryResponse = new CoreResourceRegistryResponse();
-        response = "";
+        this.codecs = rabbitManager.getCodecs();
+        this.registryResponse = requestContext.getResponse();
         log.info("Resource Validation Response Consumer created - waiting for answers from SM!");
     }
 
@@ -106,22 +95,23 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-
-        String message = new String(body, "UTF-8");
         ResourceInstanceValidationResult resourceInstanceValidationResult = new ResourceInstanceValidationResult();
         Map<String, CoreResource> coreResources;
         registryResponse.setDescriptionType(descriptionType);
 
-        log.info("[x] Received '" + descriptionType + "' validation result: '" + message + "'");
+        log.info("[x] Received '" + descriptionType + "' validation result");
+        if (log.isDebugEnabled()) {
+            log.debug("[x] Received '" + descriptionType + "' validation result: '" + new String(body, StandardCharsets.UTF_8) + "'");
+        }
 
         try {
             try {
                 //receive and read message from Semantic Manager
-                resourceInstanceValidationResult = mapper.readValue(message, ResourceInstanceValidationResult.class);
+                resourceInstanceValidationResult = codecs.read(body, ResourceInstanceValidationResult.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
                 log.error("Unable to get resource validation result from Message body!", e);
                 registryResponse.setStatus(500);
-                registryResponse.setMessage("VALIDATION CONTENT INVALID:\n" + message);
+                registryResponse.setMessage("VALIDATION CONTENT INVALID:\n" + new String(body, StandardCharsets.UTF_8));
             }
 
             try {
@@ -132,8 +122,10 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
                         requestedResourcesMap.put(k,RegistryUtils.convertCoreResourceToResource(resourceInstanceValidationResult.getObjectDescription().get(k)));
                     }
                 } else {
-                    requestedResourcesMap = mapper.readValue(requestBody, new TypeReference<Map<String, Resource>>() {
-                    });
+                    requestedResourcesMap = requestContext.getResources();
+                    if (requestedResourcesMap == null) {
+                        throw new IllegalStateException("Resources of the request were not deserialized");
+                    }
                 }
             } catch (Exception e) {
                 log.error("Unable to get resources from request body! ", e);
@@ -143,10 +135,12 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
 
             if (resourceInstanceValidationResult.isSuccess()) {
                 coreResources = resourceInstanceValidationResult.getObjectDescription();
-                log.info("CoreResources received from SM! Content: " + coreResources);
+                if (log.isDebugEnabled()) {
+                    log.debug("CoreResources received from SM! Content: " + coreResources);
+                }
 
                 AuthorizationResult authorizationResult = authorizationManager.checkIfResourcesBelongToPlatform
-                        (RegistryUtils.convertCoreResourcesToResourcesMap(coreResources), resourcesPlatformId);
+                        (RegistryUtils.convertCoreResourcesToResourcesMap(coreResources), requestContext.getPlatformId());
 
                 if (authorizationResult.isValidated()) {
                     Map<String, ResourcePersistenceResult> persistenceResultMap = makePersistenceOperations(coreResources);
@@ -170,46 +164,39 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
 
     /**
      * Performing persistence operations accordingly - saving or modyfying resources in Mongo DB.
+     * All resources are persisted with a single bulk operation, which is rolled back by repository manager
+     * when any of the resources fails.
      *
      * @param coreResources
      */
     private Map<String, ResourcePersistenceResult> makePersistenceOperations(Map<String, CoreResource> coreResources) {
         Map<String, ResourcePersistenceResult> persistenceOperationResultsMap = new HashMap<>();
-        switch (operationType) {
-            case CREATION:
-                for (String key : coreResources.keySet()) {
-                    CoreResource coreResource = coreResources.get(key);
-                    if( policiesMap != null && policiesMap.get(key) != null ) {
-                        try {
-                            coreResource.setPolicySpecifier(policiesMap.get(key));
-                        } catch (Exception e) {
-                            log.error("Couldn't get Access Policies for Core Resource. " + e);
-                            persistenceOperationResultsMap.put(key,
-                                    new ResourcePersistenceResult(500, "Couldn't get Access Policies for Core Resource. " + e, coreResource));
-                        }
-                    }
-                    ResourcePersistenceResult resourceSavingResult =
-                            this.repositoryManager.saveResource(coreResource);
-                    persistenceOperationResultsMap.put(key, resourceSavingResult);
+        Map<String, CoreResource> resourcesToPersist = new HashMap<>();
+        Map<String, IAccessPolicySpecifier> policiesMap = requestContext.getPoliciesMap();
+        for (String key : coreResources.keySet()) {
+            CoreResource coreResource = coreResources.get(key);
+            if (policiesMap != null && policiesMap.get(key) != null) {
+                try {
+                    coreResource.setPolicySpecifier(policiesMap.get(key));
+                } catch (Exception e) {
+                    log.error("Couldn't get Access Policies for Core Resource. " + e);
+                    persistenceOperationResultsMap.put(key,
+                            new ResourcePersistenceResult(500, "Couldn't get Access Policies for Core Resource. " + e, coreResource));
+                    continue;
                 }
-                break;
-            case MODIFICATION:
-                for (String key : coreResources.keySet()) {
-                    CoreResource coreResource = coreResources.get(key);
-                    if( policiesMap != null && policiesMap.get(key) != null ) {
-                        try {
-                            coreResource.setPolicySpecifier(policiesMap.get(key));
-                        } catch (Exception e) {
-                            log.error("Couldn't get Access Policies for Core Resource. " + e);
-                            persistenceOperationResultsMap.put(key,
-                                    new ResourcePersistenceResult(500, "Couldn't get Access Policies for Core Resource. " + e, coreResource));
-                        }
-                    }
-                    ResourcePersistenceResult resourceModificationResult =
-                            this.repositoryManager.modifyResource(coreResources.get(key));
-                    persistenceOperationResultsMap.put(key, resourceModificationResult);
-                }
-                break;
+            }
+            resourcesToPersist.put(key, coreResource);
+        }
+        // whole bulk fails anyway, so nothing is written
+        if (persistenceOperationResultsMap.isEmpty()) {
+            switch (operationType) {
+                case CREATION:
+                    persistenceOperationResultsMap.putAll(this.repositoryManager.saveResourcesAtomically(resourcesToPersist));
+                    break;
+                case MODIFICATION:
+                    persistenceOperationResultsMap.putAll(this.repositoryManager.modifyResourcesAtomically(resourcesToPersist));
+                    break;
+            }
         }
         for (String key : persistenceOperationResultsMap.keySet()) {
             if (persistenceOperationResultsMap.get(key).getStatus() != 200) {
@@ -247,27 +234,18 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
             registryResponse.setMessage("Bulk operation successful! (" + this.operationType.toString() + ")");
 
             try {
-                registryResponse.setBody(mapper.writerFor(new TypeReference<Map<String, Resource>>() {
-                }).writeValueAsString(savedResourcesMap));
+                registryResponse.setBody(codecs.writeResourceMap(savedResourcesMap));
             } catch (JsonProcessingException e) {
                 log.error("Could not map list of resource to JSON", e);
             }
 
         } else {
-            rollback(persistenceOperationResultsMap);
             log.error("Bulk request ERROR");
             registryResponse.setStatus(500);
             registryResponse.setMessage("Bulk request ERROR");
         }
     }
 
-    private void rollback(Map<String, ResourcePersistenceResult> persistenceOperationResultsMap) {
-        persistenceOperationResultsMap.keySet().stream()
-                .filter(k -> persistenceOperationResultsMap.get(k).getStatus() == 200)
-                .map(k -> persistenceOperationResultsMap.get(k).getResource())
-                .forEach(this::rollbackResourceOperation);
-    }
-
     /**
      * Sending RPC response message with list of Resources (with IDs added if process succeed) and status code
      * //odeslanie na RPC core response (z listą resourców z ID'kami jesli zapis sie powiódł)
@@ -275,13 +253,7 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
     private void sendRpcResponse() {
         try {
             registryResponse.setServiceResponse(authorizationManager.generateServiceResponse());
-            response = mapper.writeValueAsString(registryResponse);
-        } catch (JsonProcessingException e) {
-            log.error(e);
-        }
-
-        try {
-            rabbitManager.sendRPCReplyMessage(rpcConsumer, rpcProperties, rpcEnvelope, response);
+            rabbitManager.sendRPCReply(rpcConsumer, requestContext.getProperties(), requestContext.getEnvelope(), registryResponse);
 //            rabbitManager.chancelConsumersChannel(this);  //// TODO: 16.08.2018 Removed to find and fix bugs -> to check!
         } catch (IOException e) {
             log.error(e);
@@ -294,25 +266,7 @@ public class ResourceValidationResponseConsumer extends DefaultConsumer {
     private void sendFanoutMessage(List<CoreResource> savedCoreResourcesList) {
         CoreResourceRegisteredOrModifiedEventPayload payload = new CoreResourceRegisteredOrModifiedEventPayload();
         payload.setResources(savedCoreResourcesList);
-        payload.setPlatformId(resourcesPlatformId);
+        payload.setPlatformId(requestContext.getPlatformId());
         rabbitManager.sendResourceOperationMessage(payload, operationType, payload.getClass().getCanonicalName());
     }
-
-    /**
-     * Type of transaction rollbackResourceOperation used for bulk registration, triggered for all successfully saved objects when
-     * any of given objects in list did not save successfully in database.
-     *
-     * @param resource
-     */
-    private void rollbackResourceOperation(CoreResource resource) {
-        switch (operationType) {
-            case CREATION:
-                repositoryManager.removeResource(resource);
-                break;
-            case MODIFICATION:
-                log.error("ROLLBACK NOT IMPLEMENTED!");
-                //todo ??
-                break;
-        }
-    }
-}
\ No newline at end of file
+}
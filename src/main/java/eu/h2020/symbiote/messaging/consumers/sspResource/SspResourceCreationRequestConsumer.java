@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.sspResource;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -12,14 +11,18 @@ import eu.h2020.symbiote.core.internal.CoreSspResourceRegistryResponse;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.RegistryOperationType;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.ValidationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by mateuszl on 30.05.2018.
@@ -29,13 +32,11 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
     //// TODO: 01.06.2018 change all heavy String concatenations to String.format !!
 
     private static Log log = LogFactory.getLog(SspResourceCreationRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
-    private CoreSspResourceRegistryResponse registryResponse;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
 
 
     /**
@@ -56,8 +57,8 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
         this.repositoryManager = repositoryManager;
-        this.registryResponse = new CoreSspResourceRegistryResponse();
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -75,38 +76,50 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
         CoreSspResourceRegistryRequest request;
-        String message = new String(body, "UTF-8");
-        this.envelope = envelope;
-        this.properties = properties;
+        RequestContext<CoreSspResourceRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new CoreSspResourceRegistryResponse());
 
-        log.info(" [x] Received Ssp resources to create (CoreSspResourceRegistryRequest): \n" + message);
+        log.info(" [x] Received Ssp resources to create (CoreSspResourceRegistryRequest)");
+        if (log.isDebugEnabled()) {
+            log.debug(" [x] Received Ssp resources to create (CoreSspResourceRegistryRequest): \n" + new String(body, StandardCharsets.UTF_8));
+        }
 
         try {
             try {
                 //request from CCI received and deserialized
-                request = mapper.readValue(message, CoreSspResourceRegistryRequest.class);
+                request = codecs.read(body, CoreSspResourceRegistryRequest.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
                 log.error("Unable to get CoreSspResourceRegistryRequest from Message body!", e);
-                sendErrorReply(HttpStatus.SC_BAD_REQUEST, "Content invalid. Could not deserialize. Resources not created!");
+                sendErrorReply(context, HttpStatus.SC_BAD_REQUEST, "Content invalid. Could not deserialize. Resources not created!");
                 return;
             }
 
-            //checking access by token verification
-            AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSdevOperationAccess(
-                    request.getSecurityRequest(),
-                    request.getSspId()); //todo partially MOCKED
+            //checking access by token verification, off the delivery thread
+            authorizationStage.authorize(
+                    () -> authorizationManager.checkSdevOperationAccess(request.getSecurityRequest(), request.getSspId()), //todo partially MOCKED
+                    tokenAuthorizationResult -> handleAuthorizedRequest(context, request, body, tokenAuthorizationResult),
+                    exception -> sendFailureReply(context, exception));
+
+        } catch (Exception e) {
+            sendErrorReply(context, 500, "Consumer critical error: " + e);
+        }
+    }
 
+    private void handleAuthorizedRequest(RequestContext<CoreSspResourceRegistryResponse> context,
+                                         CoreSspResourceRegistryRequest request, byte[] body,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        try {
             log.debug("1");
             if( tokenAuthorizationResult == null  ) {
                 log.error("Token authorization result is null");
-                sendErrorReply(400, "Error: authorization result is null");
+                sendErrorReply(context, 400, "Error: authorization result is null");
                 return;
             }
 
             log.debug("2");
             if (!tokenAuthorizationResult.isValidated()) {
                 log.error("Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-                sendErrorReply(400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
+                sendErrorReply(context, 400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
                 return;
             }
 
@@ -115,16 +128,19 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
 
             if (request.getBody() != null) {
                 log.debug("3");
-                if (!validateAccess(request)) return;
+                if (!validateAccess(context, request)) return;
 
                 log.debug("4");
-                log.info("Message to Semantic Manager Sent. Request: " + request.getBody());
+                log.info("Message to Semantic Manager Sent");
+                if (log.isDebugEnabled()) {
+                    log.debug("Request: " + request.getBody());
+                }
                 //contact with Semantic Manager accordingly to Type of object Description received
                 //sending JSON content to Semantic Manager and passing responsibility to another consumer
 
                 log.debug("5");
-                rabbitManager.sendSspResourceJsonTranslationRpcMessage(this, properties, envelope,
-                        message,
+                rabbitManager.sendSspResourceJsonTranslationRpcMessage(this, context.getProperties(), context.getEnvelope(),
+                        body,
                         request.getSdevId(),
                         request.getSspId(),
                         RegistryOperationType.CREATION,
@@ -133,15 +149,16 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
                 );
 
             } else {
-                sendErrorReply(400, "Message body is null!");
+                sendErrorReply(context, 400, "Message body is null!");
             }
 
         } catch (Exception e) {
-            sendErrorReply(500, "Consumer critical error: " + e);
+            sendErrorReply(context, 500, "Consumer critical error: " + e);
         }
     }
 
-    private boolean validateAccess(CoreSspResourceRegistryRequest request) throws IOException {
+    private boolean validateAccess(RequestContext<CoreSspResourceRegistryResponse> context,
+                                   CoreSspResourceRegistryRequest request) throws IOException {
 
         log.debug("Validating access for the request");
         try {
@@ -149,7 +166,7 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
             //// TODO: 09.07.2018 check!!
 
         } catch (IllegalArgumentException e) {
-            sendErrorReply(HttpStatus.SC_BAD_REQUEST, "One of the resources has ID or list with resources is invalid. Resources not created!");
+            sendErrorReply(context, HttpStatus.SC_BAD_REQUEST, "One of the resources has ID or list with resources is invalid. Resources not created!");
             return false;
         }
 
@@ -158,11 +175,11 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
             ValidationUtils.validateSspResource(request, repositoryManager);
         } catch (IllegalArgumentException e) {
             log.error(e);
-            sendErrorReply(HttpStatus.SC_BAD_REQUEST, e.getMessage());
+            sendErrorReply(context, HttpStatus.SC_BAD_REQUEST, e.getMessage());
             return false;
         } catch (Exception e) {
             log.error(e);
-            sendErrorReply(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+            sendErrorReply(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
             return false;
         }
 
@@ -174,15 +191,27 @@ public class SspResourceCreationRequestConsumer extends DefaultConsumer {
     /**
      * Sets status and massage in Registry Response for this Consumer and triggers sending this response in JSON format.
      *
+     * @param context
      * @param status
      * @param message
      * @throws IOException
      */
-    private void sendErrorReply(int status, String message) throws IOException {
+    private void sendErrorReply(RequestContext<CoreSspResourceRegistryResponse> context,
+                                int status, String message) throws IOException {
         log.error(message);
+        CoreSspResourceRegistryResponse registryResponse = context.getResponse();
         registryResponse.setStatus(status);
         registryResponse.setMessage(message);
-        rabbitManager.sendRPCReplyMessage(this, this.properties, this.envelope, mapper.writeValueAsString(registryResponse));
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), registryResponse);
     }
 
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<CoreSspResourceRegistryResponse> context, Exception exception) {
+        CoreSspResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
+    }
 }
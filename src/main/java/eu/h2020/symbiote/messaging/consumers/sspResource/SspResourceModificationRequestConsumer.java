@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.sspResource;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -12,16 +11,18 @@ import eu.h2020.symbiote.core.internal.CoreSspResourceRegistryResponse;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.RegistryOperationType;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
-import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.ValidationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
 import java.io.IOException;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by mateuszl on 30.05.2018.
@@ -31,14 +32,11 @@ public class SspResourceModificationRequestConsumer extends DefaultConsumer {
     //// TODO: 01.06.2018 change all heavy String concatenations to String.format !!
 
     private static Log log = LogFactory.getLog(SspResourceModificationRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
-    private Map<String, IAccessPolicySpecifier> policiesMap;
-    private CoreSspResourceRegistryResponse registryResponse;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -58,8 +56,8 @@ public class SspResourceModificationRequestConsumer extends DefaultConsumer {
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
         this.repositoryManager = repositoryManager;
-        this.registryResponse = new CoreSspResourceRegistryResponse();
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -77,81 +75,98 @@ public class SspResourceModificationRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
         CoreSspResourceRegistryRequest request;
-        String message = new String(body, "UTF-8");
-        this.envelope = envelope;
-        this.properties = properties;
+        RequestContext<CoreSspResourceRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new CoreSspResourceRegistryResponse());
 
-        log.info(" [x] Received Ssp resources to modify (CoreSspResourceRegistryRequest): \n" + message);
+        log.info(" [x] Received Ssp resources to modify (CoreSspResourceRegistryRequest)");
+        if (log.isDebugEnabled()) {
+            log.debug(" [x] Received Ssp resources to modify (CoreSspResourceRegistryRequest): \n" + new String(body, StandardCharsets.UTF_8));
+        }
 
         try {
             try {
                 //request from CCI received and deserialized
-                request = mapper.readValue(message, CoreSspResourceRegistryRequest.class);
+                request = codecs.read(body, CoreSspResourceRegistryRequest.class);
             } catch (JsonSyntaxException | JsonMappingException e) {
                 log.error("Unable to get CoreSspResourceRegistryRequest from Message body!", e);
-                sendErrorReply(HttpStatus.SC_BAD_REQUEST, "Content invalid. Could not deserialize. Resources not modified!");
+                sendErrorReply(context, HttpStatus.SC_BAD_REQUEST, "Content invalid. Could not deserialize. Resources not modified!");
                 return;
             }
 
-            //checking access by token verification
-            AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSdevOperationAccess(
-                    request.getSecurityRequest(),
-                    request.getSspId()); //todo partially MOCKED
+            //checking access by token verification, off the delivery thread
+            authorizationStage.authorize(
+                    () -> authorizationManager.checkSdevOperationAccess(request.getSecurityRequest(), request.getSspId()), //todo partially MOCKED
+                    tokenAuthorizationResult -> handleAuthorizedRequest(context, request, body, tokenAuthorizationResult),
+                    exception -> sendFailureReply(context, exception));
+
+        } catch (Exception e) {
+            log.error(e);
+            sendErrorReply(context, 500, "Consumer critical error");
+        }
+    }
 
+    private void handleAuthorizedRequest(RequestContext<CoreSspResourceRegistryResponse> context,
+                                         CoreSspResourceRegistryRequest request, byte[] body,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        try {
             if (!tokenAuthorizationResult.isValidated()) {
                 log.error("Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-                sendErrorReply(400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
+                sendErrorReply(context, 400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
                 return;
             }
 
             //checking access by verification of fields needed for that operation
-            if (!validateAccess(request)) return;
+            if (!validateAccess(context, request)) return;
 
             //// TODO: 05.06.2018 check if the resource is bounded to existing SSP
 
             if (request.getBody() != null) {
                 //contact with Semantic Manager accordingly to Type of object Description received
 
-                log.info("Message to Semantic Manager Sent. Request: " + request.getBody());
+                log.info("Message to Semantic Manager Sent");
+                if (log.isDebugEnabled()) {
+                    log.debug("Request: " + request.getBody());
+                }
                 //sending JSON content to Semantic Manager and passing responsibility to another consumer
 
-                this.policiesMap = request.getFilteringPolicies();
+                context.setPoliciesMap(request.getFilteringPolicies());
 
-                rabbitManager.sendSspResourceJsonTranslationRpcMessage(this, properties, envelope,
-                        message,
+                rabbitManager.sendSspResourceJsonTranslationRpcMessage(this, context.getProperties(), context.getEnvelope(),
+                        body,
                         request.getSdevId(),
                         request.getSspId(),
                         RegistryOperationType.MODIFICATION,
-                        this.policiesMap,
+                        context.getPoliciesMap(),
                         request.getBody()
                 );
 
             } else {
                 log.error("Message body is null!");
-                sendErrorReply(400, "Message body is null!");
+                sendErrorReply(context, 400, "Message body is null!");
             }
 
         } catch (Exception e) {
             log.error(e);
-            sendErrorReply(500, "Consumer critical error");
+            sendErrorReply(context, 500, "Consumer critical error");
         }
     }
 
-    private boolean validateAccess(CoreSspResourceRegistryRequest request) throws IOException {
+    private boolean validateAccess(RequestContext<CoreSspResourceRegistryResponse> context,
+                                   CoreSspResourceRegistryRequest request) throws IOException {
         try {
             ValidationUtils.validateSspResource(request, repositoryManager);
         } catch (IllegalArgumentException e) {
-            sendErrorReply(HttpStatus.SC_BAD_REQUEST, e.getMessage());
+            sendErrorReply(context, HttpStatus.SC_BAD_REQUEST, e.getMessage());
             return false;
         } catch (Exception e) {
-            sendErrorReply(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+            sendErrorReply(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
             return false;
         }
 
         try {
             ValidationUtils.checkIfResourcesHaveNullOrEmptyId(request);
         } catch (IllegalArgumentException e) {
-            sendErrorReply(HttpStatus.SC_BAD_REQUEST, e.getMessage());
+            sendErrorReply(context, HttpStatus.SC_BAD_REQUEST, e.getMessage());
             return false;
         }
 
@@ -161,15 +176,26 @@ public class SspResourceModificationRequestConsumer extends DefaultConsumer {
     /**
      * Sets status and massage in Registry Response for this Consumer and triggers sending this response in JSON format.
      *
+     * @param context
      * @param status
      * @param message
      * @throws IOException
      */
-    private void sendErrorReply(int status, String message) throws IOException {
+    private void sendErrorReply(RequestContext<CoreSspResourceRegistryResponse> context,
+                                int status, String message) throws IOException {
+        CoreSspResourceRegistryResponse registryResponse = context.getResponse();
         registryResponse.setStatus(status);
         registryResponse.setMessage(message);
-        rabbitManager.sendRPCReplyMessage(this, this.properties, this.envelope, mapper.writeValueAsString(registryResponse));
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), registryResponse);
     }
 
-
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<CoreSspResourceRegistryResponse> context, Exception exception) {
+        CoreSspResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
+    }
 }
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.sspResource;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -13,10 +12,13 @@ import eu.h2020.symbiote.core.internal.CoreSspResourceRegistryResponse;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.CoreSspResource;
 import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.CoreSspResourcePersistenceResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.ValidationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,13 +36,11 @@ import java.util.stream.Collectors;
 public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(SspResourceRemovalRequestConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private AuthorizationManager authorizationManager;
+    private AuthorizationStage authorizationStage;
     private RepositoryManager repositoryManager;
     private RabbitManager rabbitManager;
-    private CoreSspResourceRegistryResponse response;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -58,7 +58,8 @@ public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
         this.repositoryManager = repositoryManager;
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -75,41 +76,45 @@ public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-        Map<String, CoreSspResourcePersistenceResult> resourcesRemovalResultMap = new HashMap<>();
-        Map<String, Resource> resources;
-        this.envelope = envelope;
-        this.properties = properties;
-        this.response = new CoreSspResourceRegistryResponse();
+        RequestContext<CoreSspResourceRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new CoreSspResourceRegistryResponse());
 
         CoreSspResourceRegistryRequest request;
-        CoreSspResourcePersistenceResult resourceRemovalResult;
-
-        String message = new String(body, "UTF-8");
         log.info(" [x] Received ssp resource to remove");
 
 
         try {
-            request = mapper.readValue(message, CoreSspResourceRegistryRequest.class);
+            request = codecs.read(body, CoreSspResourceRegistryRequest.class);
         } catch (JsonSyntaxException | JsonMappingException e) {
             log.error("Error occurred during getting Operation Request from Json", e);
-            prepareAndSendErrorResponse(400, "Error occurred during getting Operation Request from Json");
+            prepareAndSendErrorResponse(context, 400, "Error occurred during getting Operation Request from Json");
             return;
         }
 
 
-        //checking access by token verification
-        AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSdevOperationAccess(
-                request.getSecurityRequest(),
-                request.getSspId()); //todo partially MOCKED
+        //checking access by token verification, off the delivery thread
+        authorizationStage.authorize(
+                () -> authorizationManager.checkSdevOperationAccess(request.getSecurityRequest(), request.getSspId()), //todo partially MOCKED
+                tokenAuthorizationResult -> handleAuthorizedRequest(context, request, tokenAuthorizationResult),
+                exception -> sendFailureReply(context, exception));
+    }
+
+    private void handleAuthorizedRequest(RequestContext<CoreSspResourceRegistryResponse> context,
+                                         CoreSspResourceRegistryRequest request,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        Map<String, CoreSspResourcePersistenceResult> resourcesRemovalResultMap = new HashMap<>();
+        Map<String, Resource> resources;
+        CoreSspResourceRegistryResponse response = context.getResponse();
+        CoreSspResourcePersistenceResult resourceRemovalResult;
 
         if (!tokenAuthorizationResult.isValidated()) {
             log.error("Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-            prepareAndSendErrorResponse(400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
+            prepareAndSendErrorResponse(context, 400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
             return;
         }
 
         //checking access by verification of fields needed for that operation
-        if (!validateAccess(request)) return;
+        if (!validateAccess(context, request)) return;
 
 
         try {
@@ -117,21 +122,21 @@ public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
             log.debug("got resources :");
             if( resources == null ) {
                 log.debug("Resources map is null");
-                prepareAndSendErrorResponse(410, "Resources map is null");
+                prepareAndSendErrorResponse(context, 410, "Resources map is null");
             } else {
                 //// TODO: 05.06.2018 check if the resource is bounded to existing SSP - if not return and reply with 400
 
                 for (String key : resources.keySet()) {
                     log.debug("testing for key " + key);
                     if (resources.get(key) == null) {
-                        prepareAndSendErrorResponse(410, "Resources list contains a NULL ssp resource for key " + key);
+                        prepareAndSendErrorResponse(context, 410, "Resources list contains a NULL ssp resource for key " + key);
                         return;
                     } else {
                         if (resources.get(key).getId() != null || !resources.get(key).getId().isEmpty()) {
                             log.debug("Removing resource " + resources.get(key).getId());
                             resourceRemovalResult = this.repositoryManager.removeCoreSspResource(resources.get(key).getId());
                         } else {
-                            prepareAndSendErrorResponse(400, "Given Ssp Resource has id null or empty");
+                            prepareAndSendErrorResponse(context, 400, "Given Ssp Resource has id null or empty");
                             return;
                         }
                         log.debug("Resource removed : " + resources.get(key).getId());
@@ -150,33 +155,34 @@ public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
 
                     response.setBody(convertCoreSspResourceToResourceMap(resourcesRemovalResultMap));
 
-                    rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+                    rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
 
                 } else {
-                    prepareAndSendErrorResponse(410, "Operation od Ssp Resource Removal not performed!");
+                    prepareAndSendErrorResponse(context, 410, "Operation od Ssp Resource Removal not performed!");
                 }
             }
         } catch (Exception e) {
-            prepareAndSendErrorResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
+            prepareAndSendErrorResponse(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, "Consumer critical exception!");
         }
     }
 
 
-    private boolean validateAccess(CoreSspResourceRegistryRequest request) throws IOException {
+    private boolean validateAccess(RequestContext<CoreSspResourceRegistryResponse> context,
+                                   CoreSspResourceRegistryRequest request) throws IOException {
         try {
             ValidationUtils.validateSspResource(request, repositoryManager);
         } catch (IllegalArgumentException e) {
-            prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, e.getMessage());
+            prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, e.getMessage());
             return false;
         } catch (Exception e) {
-            prepareAndSendErrorResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+            prepareAndSendErrorResponse(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
             return false;
         }
 
         try {
             ValidationUtils.checkIfResourcesHaveNullOrEmptyId(request);
         } catch (IllegalArgumentException e) {
-            prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, e.getMessage());
+            prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, e.getMessage());
             return false;
         }
 
@@ -241,13 +247,15 @@ public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
         return true;
     }
 
-    private void prepareAndSendErrorResponse(int status, String message) throws IOException {
+    private void prepareAndSendErrorResponse(RequestContext<CoreSspResourceRegistryResponse> context,
+                                             int status, String message) throws IOException {
         log.error(message);
-        this.response.setStatus(status);
-        this.response.setMessage(message);
-        this.response.setServiceResponse(authorizationManager.generateServiceResponse());
+        CoreSspResourceRegistryResponse response = context.getResponse();
+        response.setStatus(status);
+        response.setMessage(message);
+        response.setServiceResponse(authorizationManager.generateServiceResponse());
 
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
     }
 
     private void rollback(List<CoreSspResource> resourcesRemoved) {
@@ -256,4 +264,14 @@ public class SspResourceRemovalRequestConsumer extends DefaultConsumer {
             log.info("Removed resources rollback performed.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<CoreSspResourceRegistryResponse> context, Exception exception) {
+        CoreSspResourceRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
+    }
+}
@@ -1,9 +1,7 @@
 package eu.h2020.symbiote.messaging.consumers.sspResource;
 
 import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -20,10 +18,12 @@ import eu.h2020.symbiote.model.cim.Resource;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.CoreSspResourcePersistenceResult;
 import eu.h2020.symbiote.security.accesspolicies.common.IAccessPolicySpecifier;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -46,8 +46,7 @@ public class SspResourceTranslationResponseConsumer extends DefaultConsumer {
     private String sspId;
     private RegistryOperationType operationType;
     private boolean bulkRequestSuccess = true;
-    private ObjectMapper mapper;
-    private String response;
+    private RegistryCodecs codecs;
     private AuthorizationManager authorizationManager;
     private Map<String, IAccessPolicySpecifier> policiesMap;
 
@@ -84,9 +83,8 @@ public class SspResourceTranslationResponseConsumer extends DefaultConsumer {
         this.policiesMap = policiesMap;
         this.receivedResourcesMap = receivedResourcesMap;
 
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
         this.registryResponse = new CoreSspResourceRegistryResponse();
-        response = "";
         log.info("Resource Validation Response Consumer created - waiting for answers from SM!");
     }
 
@@ -104,15 +102,16 @@ public class SspResourceTranslationResponseConsumer extends DefaultConsumer {
     public void handleDelivery(String consumerTag, Envelope envelope,
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
-
-        String message = new String(body, "UTF-8");
         ResourceInstanceValidationResult resourceInstanceValidationResult;
         Map<String, CoreResource> coreResourcesFromSM;
 
-        log.info("[x] Received SspResource translation result: '" + message + "'");
+        log.info("[x] Received SspResource translation result");
+        if (log.isDebugEnabled()) {
+            log.debug("[x] Received SspResource translation result: '" + new String(body, StandardCharsets.UTF_8) + "'");
+        }
 
         try {
-            resourceInstanceValidationResult = readMessageFromSemanticManager(message);
+            resourceInstanceValidationResult = readMessageFromSemanticManager(body);
 
             if (resourceInstanceValidationResult != null && resourceInstanceValidationResult.isSuccess()) {
                 coreResourcesFromSM = resourceInstanceValidationResult.getObjectDescription();
@@ -142,14 +141,14 @@ public class SspResourceTranslationResponseConsumer extends DefaultConsumer {
         sendRpcResponse();
     }
 
-    private ResourceInstanceValidationResult readMessageFromSemanticManager(String message) throws IOException {
+    private ResourceInstanceValidationResult readMessageFromSemanticManager(byte[] body) throws IOException {
         try {
             //receive and read message from Semantic Manager
-            return mapper.readValue(message, ResourceInstanceValidationResult.class);
+            return codecs.read(body, ResourceInstanceValidationResult.class);
         } catch (JsonSyntaxException | JsonMappingException | JsonParseException e) {
             log.error("Unable to get resource validation result from Message body!", e);
             registryResponse.setStatus(500);
-            registryResponse.setMessage("VALIDATION CONTENT INVALID:\n" + message);
+            registryResponse.setMessage("VALIDATION CONTENT INVALID:\n" + new String(body, StandardCharsets.UTF_8));
             return null;
         }
     }
@@ -279,13 +278,7 @@ public class SspResourceTranslationResponseConsumer extends DefaultConsumer {
     private void sendRpcResponse() {
         try {
             registryResponse.setServiceResponse(authorizationManager.generateServiceResponse());
-            response = mapper.writeValueAsString(registryResponse);
-        } catch (JsonProcessingException e) {
-            log.error(e);
-        }
-
-        try {
-            this.rabbitManager.sendRPCReplyMessage(rpcConsumer, rpcProperties, rpcEnvelope, response);
+            this.rabbitManager.sendRPCReply(rpcConsumer, rpcProperties, rpcEnvelope, registryResponse);
 //            this.rabbitManager.chancelConsumersChannel(this); //// TODO: 16.08.2018 Removed to find and fix bugs -> to check!
         } catch (IOException e) {
             log.error(e);
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.sspSdev;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -13,15 +12,19 @@ import eu.h2020.symbiote.core.internal.CoreSdevRegistryRequest;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.messaging.RequestContext;
 import eu.h2020.symbiote.model.RegistryOperationType;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.SdevPersistenceResult;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import eu.h2020.symbiote.utils.ValidationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by mateuszl on 11.06.2018.
@@ -32,10 +35,8 @@ public class SspSdevRemovalRequestConsumer extends DefaultConsumer {
     private RepositoryManager repositoryManager;
     private RabbitManager rabbitManager;
     private AuthorizationManager authorizationManager;
-    private SdevRegistryResponse response;
-    private Envelope envelope;
-    private AMQP.BasicProperties properties;
-    private ObjectMapper mapper;
+    private AuthorizationStage authorizationStage;
+    private RegistryCodecs codecs;
 
     /**
      * Constructs a new instance and records its association to the passed-in channel.
@@ -53,7 +54,8 @@ public class SspSdevRemovalRequestConsumer extends DefaultConsumer {
         this.repositoryManager = repositoryManager;
         this.rabbitManager = rabbitManager;
         this.authorizationManager = authorizationManager;
-        mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
+        this.authorizationStage = rabbitManager.getAuthorizationStage();
     }
 
     /**
@@ -71,32 +73,38 @@ public class SspSdevRemovalRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
         CoreSdevRegistryRequest request;
-        String message = new String(body, "UTF-8");
-        response = new SdevRegistryResponse();
+        RequestContext<SdevRegistryResponse> context =
+                new RequestContext<>(envelope, properties, new SdevRegistryResponse());
 
         log.info(" [x] Received Sdev (SspRegInfo) to remove");
-        log.info("Content: " + message);
-        this.envelope = envelope;
-        this.properties = properties;
+        if (log.isDebugEnabled()) {
+            log.debug("Content: " + new String(body, StandardCharsets.UTF_8));
+        }
 
         /////////////////// Request retrieval from message
 
         try {
-            request = mapper.readValue(message, CoreSdevRegistryRequest.class);
+            request = codecs.read(body, CoreSdevRegistryRequest.class);
         } catch (JsonSyntaxException | JsonMappingException e) {
-            prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, "Error occurred during Sdev (SspRegInfo) retrieving from message" + e);
+            prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Error occurred during Sdev (SspRegInfo) retrieving from message" + e);
             return;
         }
 
-        /////////////////// checking access by token verification
+        /////////////////// checking access by token verification, off the delivery thread
+        authorizationStage.authorize(
+                () -> authorizationManager.checkSdevOperationAccess(request.getSecurityRequest(), request.getSspId()), //todo partially MOCKED
+                tokenAuthorizationResult -> handleAuthorizedRequest(context, request, tokenAuthorizationResult),
+                exception -> sendFailureReply(context, exception));
+    }
 
-        AuthorizationResult tokenAuthorizationResult = authorizationManager.checkSdevOperationAccess(
-                request.getSecurityRequest(),
-                request.getSspId()); //todo partially MOCKED
+    private void handleAuthorizedRequest(RequestContext<SdevRegistryResponse> context,
+                                         CoreSdevRegistryRequest request,
+                                         AuthorizationResult tokenAuthorizationResult) throws IOException {
+        SdevRegistryResponse response = context.getResponse();
 
         if (!tokenAuthorizationResult.isValidated()) {
             log.error("Token invalid: \"" + tokenAuthorizationResult.getMessage() + "\"");
-            prepareAndSendErrorResponse(400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
+            prepareAndSendErrorResponse(context, 400, String.format("Error: \" %s \"", tokenAuthorizationResult.getMessage()));
             return;
         }
 
@@ -114,11 +122,11 @@ public class SspSdevRemovalRequestConsumer extends DefaultConsumer {
 
             } catch (IllegalAccessException e) {
                 log.error("Illegal access exception occurred when validating access: " + e.getMessage());
-                prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, e.getMessage());
+                prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, e.getMessage());
                 return;
             } catch (Exception e) {
                 log.error("Generic exception occurred when validating access: " + e.getMessage());
-                prepareAndSendErrorResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+                prepareAndSendErrorResponse(context, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.getMessage());
                 return;
             }
 
@@ -131,13 +139,13 @@ public class SspSdevRemovalRequestConsumer extends DefaultConsumer {
                 rabbitManager.sendSdevOperationMessage(sdevPersistenceResult.getSdev(),
                         RegistryOperationType.REMOVAL);
             } else {
-                prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, "Error occurred during Sdev (SspRegInfo) removing from db, due to: " +
+                prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Error occurred during Sdev (SspRegInfo) removing from db, due to: " +
                         sdevPersistenceResult.getMessage());
             }
         } else {
-            prepareAndSendErrorResponse(HttpStatus.SC_BAD_REQUEST, "Given Sdev (SspRegInfo) has some fields null or empty");
+            prepareAndSendErrorResponse(context, HttpStatus.SC_BAD_REQUEST, "Given Sdev (SspRegInfo) has some fields null or empty");
         }
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
 
     }
 
@@ -145,10 +153,22 @@ public class SspSdevRemovalRequestConsumer extends DefaultConsumer {
         ValidationUtils.validateIfSdevMatchWithSspForModification(repositoryManager, request);
     }
 
-    private void prepareAndSendErrorResponse(int status, String message) throws IOException {
+    private void prepareAndSendErrorResponse(RequestContext<SdevRegistryResponse> context,
+                                             int status, String message) throws IOException {
         log.error(message);
-        this.response.setStatus(status);
-        this.response.setMessage(message);
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(response));
+        SdevRegistryResponse response = context.getResponse();
+        response.setStatus(status);
+        response.setMessage(message);
+        rabbitManager.sendRPCReply(this, context.getProperties(), context.getEnvelope(), response);
+    }
+
+    /**
+     * Answers the request with 500 status and acks it when its processing after authorization failed.
+     */
+    private void sendFailureReply(RequestContext<SdevRegistryResponse> context, Exception exception) {
+        SdevRegistryResponse response = context.getResponse();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setMessage("Consumer critical error: " + exception);
+        rabbitManager.sendErrorReplyAndAck(this, context.getProperties(), context.getEnvelope(), response);
     }
-}
\ No newline at end of file
+}
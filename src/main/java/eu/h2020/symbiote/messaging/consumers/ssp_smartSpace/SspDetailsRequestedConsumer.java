@@ -1,6 +1,5 @@
 package eu.h2020.symbiote.messaging.consumers.ssp_smartSpace;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.DefaultConsumer;
@@ -9,6 +8,7 @@ import eu.h2020.symbiote.core.cci.SspRegistryResponse;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
 import eu.h2020.symbiote.model.mim.SmartSpace;
+import eu.h2020.symbiote.utils.RegistryCodecs;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
@@ -21,7 +21,7 @@ import java.io.IOException;
 public class SspDetailsRequestedConsumer extends DefaultConsumer {
 
     private static Log log = LogFactory.getLog(SspDetailsRequestedConsumer.class);
-    private ObjectMapper mapper;
+    private RegistryCodecs codecs;
     private RabbitManager rabbitManager;
     private RepositoryManager repositoryManager;
 
@@ -38,7 +38,7 @@ public class SspDetailsRequestedConsumer extends DefaultConsumer {
         super(channel);
         this.rabbitManager = rabbitManager;
         this.repositoryManager = repositoryManager;
-        this.mapper = new ObjectMapper();
+        this.codecs = rabbitManager.getCodecs();
     }
 
 
@@ -82,6 +82,6 @@ public class SspDetailsRequestedConsumer extends DefaultConsumer {
             sspRegistryResponse.setMessage("Consumer error!");
         }
 
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, mapper.writeValueAsString(sspRegistryResponse));
+        rabbitManager.sendRPCReply(this, properties, envelope, sspRegistryResponse);
     }
 }
@@ -1,7 +1,6 @@
 package eu.h2020.symbiote.messaging.consumers.ssp_smartSpace;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
@@ -18,6 +17,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by mateuszl on 25.05.2018.
@@ -56,17 +56,18 @@ public class SspRemovalRequestConsumer extends DefaultConsumer {
                                AMQP.BasicProperties properties, byte[] body)
             throws IOException {
 
-        ObjectMapper mapper = new ObjectMapper();
-        String response;
-        String message = new String(body, "UTF-8");
-        log.info(" [x] Received SSP to remove: '" + message + "'");
+        RegistryCodecs codecs = rabbitManager.getCodecs();
+        log.info(" [x] Received SSP to remove");
+        if (log.isDebugEnabled()) {
+            log.debug(" [x] Received SSP to remove: '" + new String(body, StandardCharsets.UTF_8) + "'");
+        }
 
         SmartSpace requestSsp = null;
 
         SspRegistryResponse sspResponse = new SspRegistryResponse();
 
         try {
-            requestSsp = mapper.readValue(message, SmartSpace.class);
+            requestSsp = codecs.read(body, SmartSpace.class);
             sspResponse.setBody(requestSsp);
         } catch (JsonSyntaxException | JsonMappingException e) {
             log.error("Error occurred during Smart Space retrieving from json", e);
@@ -97,8 +98,6 @@ public class SspRemovalRequestConsumer extends DefaultConsumer {
             sspResponse.setStatus(400);
         }
 
-        response = mapper.writeValueAsString(sspResponse);
-
-        rabbitManager.sendRPCReplyMessage(this, properties, envelope, response);
+        rabbitManager.sendRPCReply(this, properties, envelope, sspResponse);
     }
 }
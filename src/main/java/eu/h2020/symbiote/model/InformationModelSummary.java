@@ -0,0 +1,68 @@
+package eu.h2020.symbiote.model;
+
+/**
+ * Information Model without its RDF, sent back in summary replies to requests for all Information Models.
+ * The hash of the RDF lets clients find out whether a model changed without downloading it.
+ */
+public class InformationModelSummary {
+
+    private String id;
+    private String uri;
+    private String name;
+    private String owner;
+    private String contentHash;
+
+    public InformationModelSummary() {
+    }
+
+    public InformationModelSummary(String id, String uri, String name, String owner, String contentHash) {
+        this.id = id;
+        this.uri = uri;
+        this.name = name;
+        this.owner = owner;
+        this.contentHash = contentHash;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return hex encoded SHA-256 hash of the RDF of the Information Model
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+}
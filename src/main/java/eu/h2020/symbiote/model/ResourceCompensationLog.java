@@ -0,0 +1,101 @@
+package eu.h2020.symbiote.model;
+
+import eu.h2020.symbiote.core.internal.CoreResource;
+
+import java.util.Date;
+
+/**
+ * Journaled record of a single Resource written by a bulk Resource operation in progress. Every Resource of the
+ * operation has its own record sharing the operation id, so the size of the operation is not limited by the maximum
+ * size of a MongoDB document. A record contains everything needed to compensate the Resource: fingerprint of the
+ * version written by the operation and, for modification, the previous version of the Resource.
+ * Records are marked as committed once the whole operation succeeded and removed when the operation is finished
+ * or compensated, so uncommitted records left in database belong to operations interrupted in the middle.
+ */
+public class ResourceCompensationLog {
+
+    private String id;
+    private String operationId;
+    private RegistryOperationType operationType;
+    private String resourceId;
+    private CoreResource previousVersion;
+    private String writtenVersionFingerprint;
+    private boolean committed;
+    private Date createdAt;
+
+    public ResourceCompensationLog() {
+    }
+
+    public ResourceCompensationLog(String operationId, RegistryOperationType operationType, String resourceId,
+                                   Date createdAt) {
+        this.id = operationId + "/" + resourceId;
+        this.operationId = operationId;
+        this.operationType = operationType;
+        this.resourceId = resourceId;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(String operationId) {
+        this.operationId = operationId;
+    }
+
+    public RegistryOperationType getOperationType() {
+        return operationType;
+    }
+
+    public void setOperationType(RegistryOperationType operationType) {
+        this.operationType = operationType;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(String resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public CoreResource getPreviousVersion() {
+        return previousVersion;
+    }
+
+    public void setPreviousVersion(CoreResource previousVersion) {
+        this.previousVersion = previousVersion;
+    }
+
+    public String getWrittenVersionFingerprint() {
+        return writtenVersionFingerprint;
+    }
+
+    public void setWrittenVersionFingerprint(String writtenVersionFingerprint) {
+        this.writtenVersionFingerprint = writtenVersionFingerprint;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,39 @@
+package eu.h2020.symbiote.model;
+
+import java.util.List;
+
+/**
+ * Lightweight view of a stored Core Resource, containing only the fields which are sent back in resource listings.
+ * Used as projection of repository queries, so that RDF, policy specifiers and type data of the resources are not
+ * read from the database when they are not needed.
+ */
+public class ResourceSummary {
+
+    private final String id;
+    private final String name;
+    private final List<String> description;
+    private final String interworkingServiceURL;
+
+    public ResourceSummary(String id, String name, List<String> description, String interworkingServiceURL) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.interworkingServiceURL = interworkingServiceURL;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getDescription() {
+        return description;
+    }
+
+    public String getInterworkingServiceURL() {
+        return interworkingServiceURL;
+    }
+}
@@ -13,5 +13,6 @@ import java.util.List;
  */
 @Repository
 public interface FederationRepository extends MongoRepository<Federation, String> {
-    List<Federation> findByMembersPlatformId(String platformId); // TODO: 24.08.2017 QUERY
+    // backed by the members.platformId index created in RepositoryManager.ensureIndexes
+    List<Federation> findByMembersPlatformId(String platformId);
 }
\ No newline at end of file
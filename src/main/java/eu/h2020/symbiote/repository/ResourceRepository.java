@@ -1,17 +1,37 @@
 package eu.h2020.symbiote.repository;
 
 import eu.h2020.symbiote.core.internal.CoreResource;
+import eu.h2020.symbiote.model.ResourceSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Registry MongoDB Persistence layer for Resource objects
+ * <p>
+ * Queries returning {@link ResourceSummary} read only the fields of the summary from the database.
  *
  * Created by mateuszl
  */
 @Repository
 public interface ResourceRepository extends MongoRepository<CoreResource, String> {
     List<CoreResource> findByInterworkingServiceURL(String interworkingServiceURL);
+
+    List<CoreResource> findByInterworkingServiceURLIn(Collection<String> interworkingServiceURLs);
+
+    Stream<CoreResource> streamByInterworkingServiceURLIn(Collection<String> interworkingServiceURLs);
+
+    List<ResourceSummary> findSummariesByInterworkingServiceURLIn(Collection<String> interworkingServiceURLs);
+
+    Stream<ResourceSummary> streamSummariesByInterworkingServiceURLIn(Collection<String> interworkingServiceURLs);
+
+    List<ResourceSummary> findSummariesByInterworkingServiceURLInOrderByIdAsc(Collection<String> interworkingServiceURLs,
+                                                                              Pageable pageable);
+
+    List<ResourceSummary> findSummariesByInterworkingServiceURLInAndIdGreaterThanOrderByIdAsc(Collection<String> interworkingServiceURLs,
+                                                                                              String id, Pageable pageable);
 }
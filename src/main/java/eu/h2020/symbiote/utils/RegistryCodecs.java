@@ -0,0 +1,101 @@
+package eu.h2020.symbiote.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import eu.h2020.symbiote.model.cim.Resource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single configured Jackson mapper of the Registry, together with readers and writers built once per wire type.
+ * Readers and writers are immutable and thread safe, so they are shared by all consumers and managers.
+ * <p>
+ * The instance is registered as a bean in the application configuration; {@link #getInstance()} gives the same
+ * instance to static utilities and to objects created outside of the Spring context.
+ */
+public class RegistryCodecs {
+
+    private static final RegistryCodecs INSTANCE = new RegistryCodecs();
+
+    private final ObjectMapper mapper;
+    private final ObjectReader resourceMapReader;
+    private final ObjectWriter resourceMapWriter;
+    private final ObjectWriter stringListWriter;
+    private final ObjectWriter writer;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private RegistryCodecs() {
+        this.mapper = new ObjectMapper();
+        this.resourceMapReader = mapper.readerFor(new TypeReference<Map<String, Resource>>() {
+        });
+        this.resourceMapWriter = mapper.writerFor(new TypeReference<Map<String, Resource>>() {
+        });
+        this.stringListWriter = mapper.writerFor(new TypeReference<List<String>>() {
+        });
+        this.writer = mapper.writer();
+    }
+
+    /**
+     * @return shared instance of the codecs
+     */
+    public static RegistryCodecs getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return shared mapper; it must not be reconfigured after startup
+     */
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * @param type class of the values to read
+     * @return reader for given class, built on first use
+     */
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    public <T> T read(String content, Class<T> type) throws IOException {
+        return readerFor(type).readValue(content);
+    }
+
+    public <T> T read(byte[] content, Class<T> type) throws IOException {
+        return readerFor(type).readValue(content);
+    }
+
+    public Map<String, Resource> readResourceMap(String content) throws IOException {
+        return resourceMapReader.readValue(content);
+    }
+
+    public String writeResourceMap(Map<String, Resource> resources) throws JsonProcessingException {
+        return resourceMapWriter.writeValueAsString(resources);
+    }
+
+    public String writeStringList(List<String> values) throws JsonProcessingException {
+        return stringListWriter.writeValueAsString(values);
+    }
+
+    public String write(Object value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+
+    /**
+     * Serializes given value straight to UTF-8 encoded JSON, using the buffers recycled by Jackson for the calling
+     * thread, so the only allocation of the size of the output is the returned array.
+     *
+     * @param value value to serialize
+     * @return UTF-8 encoded JSON
+     * @throws JsonProcessingException if the value could not be serialized
+     */
+    public byte[] writeAsBytes(Object value) throws JsonProcessingException {
+        return writer.writeValueAsBytes(value);
+    }
+}
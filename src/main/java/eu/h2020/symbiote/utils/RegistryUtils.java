@@ -2,6 +2,7 @@ package eu.h2020.symbiote.utils;
 
 import eu.h2020.symbiote.core.internal.CoreResource;
 import eu.h2020.symbiote.core.internal.CoreResourceType;
+import eu.h2020.symbiote.model.ResourceSummary;
 import eu.h2020.symbiote.model.cim.*;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -70,6 +71,36 @@ public class RegistryUtils {
         return resource;
     }
 
+    /**
+     * Converts given list of Resource summaries to Resources
+     *
+     * @param resourceSummaries
+     * @return
+     */
+    public static List<Resource> convertResourceSummariesToResourcesList(List<ResourceSummary> resourceSummaries) {
+        List<Resource> resources = new ArrayList<>();
+        for (ResourceSummary resourceSummary : resourceSummaries) {
+            resources.add(convertResourceSummaryToResource(resourceSummary));
+        }
+        return resources;
+    }
+
+    /**
+     * Converts given Resource summary to Resource, with the same fields as {@link #convertCoreResourceToResource}
+     *
+     * @param resourceSummary
+     * @return
+     */
+    public static Resource convertResourceSummaryToResource(ResourceSummary resourceSummary) {
+        Resource resource = new Resource();
+        if (resourceSummary.getId() != null) resource.setId(resourceSummary.getId());
+        if (resourceSummary.getDescription() != null) resource.setDescription(resourceSummary.getDescription());
+        if (resourceSummary.getName() != null) resource.setName(resourceSummary.getName());
+        if (resourceSummary.getInterworkingServiceURL() != null)
+            resource.setInterworkingServiceURL(resourceSummary.getInterworkingServiceURL());
+        return resource;
+    }
+
     /**
      * Converts given Resource to Core Resource
      *
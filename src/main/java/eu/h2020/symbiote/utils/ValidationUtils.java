@@ -1,7 +1,5 @@
 package eu.h2020.symbiote.utils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.h2020.symbiote.cloud.model.ssp.SspRegInfo;
 import eu.h2020.symbiote.core.internal.CoreResourceRegistryRequest;
 import eu.h2020.symbiote.core.internal.CoreSdevRegistryRequest;
@@ -238,6 +236,7 @@ public class ValidationUtils {
         }
 
         //checks if there exists a matching IS URL in SSP to one given in Resource
+        repositoryManager.refreshInterworkingServicesOfSsp(sspById);
         for (String k : request.getBody().keySet()) {
             log.debug("Checking for resource " + k);
             String interworkingServiceURL = request.getBody().get(k).getInterworkingServiceURL();
@@ -255,10 +254,7 @@ public class ValidationUtils {
             }
 
 
-            if (
-                    sspById.getInterworkingServices().stream()
-                            .map(InterworkingService::getUrl)
-                            .noneMatch(url -> url.equalsIgnoreCase(interworkingServiceURL))) {
+            if (!repositoryManager.isInterworkingServiceOfSsp(sspById, interworkingServiceURL)) {
                 log.error("there does not exist a matching InterworkingService URL in SSP to one given in Resource!");
                 throw new IllegalArgumentException("there does not exist a matching InterworkingService URL in SSP to one given in Resource!");
             }
@@ -301,9 +297,7 @@ public class ValidationUtils {
     }
 
     public static Map<String, Resource> getMapFromRequestBody(CoreResourceRegistryRequest request) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readValue(request.getBody(), new TypeReference<Map<String, Resource>>() {
-        });
+        return RegistryCodecs.getInstance().readResourceMap(request.getBody());
     }
 
     /**
@@ -314,13 +308,21 @@ public class ValidationUtils {
      */
     public static boolean checkIfResourcesDoesNotHaveIds(CoreResourceRegistryRequest request) {
         Map<String, Resource> resourceMap = new HashMap<>();
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            resourceMap = mapper.readValue(request.getBody(), new TypeReference<Map<String, Resource>>() {
-            });
+            resourceMap = RegistryCodecs.getInstance().readResourceMap(request.getBody());
         } catch (IOException e) {
             log.error("Could not deserialize content of request!" + e);
         }
+        return checkIfResourcesDoesNotHaveIds(resourceMap);
+    }
+
+    /**
+     * Checks if given, already deserialized, resources does not have any content in ID field.
+     *
+     * @param resourceMap resources from the request body
+     * @return true if given resources don't have an ID.
+     */
+    public static boolean checkIfResourcesDoesNotHaveIds(Map<String, Resource> resourceMap) {
         List<Resource> resources = resourceMap.values().stream().collect(Collectors.toList());
         try {
             checkIfResourcesDoesNotHaveIds(resources);
@@ -421,7 +423,18 @@ public class ValidationUtils {
      * @return True if every of resources in list has an id. False if any of resources does not have an id.
      */
     public static boolean checkIfEveryResourceHasId(CoreResourceRegistryRequest request) {
-        List<Resource> resources = retrieveResourcesListFromRequest(request);
+        return checkIfEveryResourceHasId(retrieveResourcesListFromRequest(request));
+    }
+
+    /**
+     * @param resourceMap already deserialized resources from the request body
+     * @return True if every of resources in map has an id. False if any of resources does not have an id.
+     */
+    public static boolean checkIfEveryResourceHasId(Map<String, Resource> resourceMap) {
+        return checkIfEveryResourceHasId(new ArrayList<>(resourceMap.values()));
+    }
+
+    private static boolean checkIfEveryResourceHasId(List<Resource> resources) {
         try {
             for (Resource resource : resources) {
 
@@ -472,10 +485,8 @@ public class ValidationUtils {
      */
     private static List<Resource> retrieveResourcesListFromRequest(CoreResourceRegistryRequest request) {
         Map<String, Resource> resourceMap = new HashMap<>();
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            resourceMap = mapper.readValue(request.getBody(), new TypeReference<Map<String, Resource>>() {
-            });
+            resourceMap = RegistryCodecs.getInstance().readResourceMap(request.getBody());
         } catch (IOException e) {
             log.error("Could not deserialize content of request!" + e);
         }
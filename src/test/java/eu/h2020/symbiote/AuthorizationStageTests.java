@@ -0,0 +1,69 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.messaging.AuthorizationStage;
+import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AuthorizationStageTests {
+
+    @Test
+    public void testContinuationGetsResultOfCheckRunOnAuthorizationThread() throws Exception {
+        AuthorizationStage stage = new AuthorizationStage(2, 10);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> checkThread = new AtomicReference<>();
+        AtomicReference<AuthorizationResult> result = new AtomicReference<>();
+
+        stage.authorize(() -> {
+            checkThread.set(Thread.currentThread().getName());
+            return new AuthorizationResult("ok", true);
+        }, authorizationResult -> {
+            result.set(authorizationResult);
+            done.countDown();
+        }, exception -> Assert.fail());
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(result.get().isValidated());
+        Assert.assertNotEquals(Thread.currentThread().getName(), checkThread.get());
+        stage.shutdown();
+    }
+
+    @Test
+    public void testFailedCheckGivesNotValidatedResult() throws Exception {
+        AuthorizationStage stage = new AuthorizationStage(0, 0);
+        AtomicReference<AuthorizationResult> result = new AtomicReference<>();
+
+        stage.authorize(() -> {
+            throw new IllegalStateException("AAM not available");
+        }, result::set, exception -> Assert.fail());
+
+        Assert.assertFalse(result.get().isValidated());
+    }
+
+    @Test
+    public void testFailedContinuationIsPassedToFailureHandler() throws Exception {
+        AuthorizationStage stage = new AuthorizationStage(0, 0);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        stage.authorize(() -> new AuthorizationResult("ok", true), authorizationResult -> {
+            throw new IllegalStateException("Reply could not be sent");
+        }, failure::set);
+
+        Assert.assertTrue(failure.get() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testCheckRunsOnDeliveryThreadAfterShutdown() throws Exception {
+        AuthorizationStage stage = new AuthorizationStage(2, 10);
+        stage.shutdown();
+        AtomicReference<AuthorizationResult> result = new AtomicReference<>();
+
+        stage.authorize(() -> new AuthorizationResult("ok", true), result::set, exception -> Assert.fail());
+
+        Assert.assertTrue(result.get().isValidated());
+    }
+}
@@ -0,0 +1,63 @@
+package eu.h2020.symbiote;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ShutdownSignalException;
+import eu.h2020.symbiote.messaging.ConfirmingPublisher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConfirmingPublisherTests {
+
+    private Channel channel;
+    private ConfirmingPublisher publisher;
+
+    @Before
+    public void setup() throws IOException {
+        channel = mock(Channel.class);
+        when(channel.isOpen()).thenReturn(true);
+        when(channel.getNextPublishSeqNo()).thenReturn(1L, 2L, 1L);
+        publisher = new ConfirmingPublisher(channel, 2, 3, 0);
+    }
+
+    @After
+    public void teardown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    public void testClosedChannelMovesUnconfirmedPublishesToRetryBufferAndReleasesSlots() {
+        publisher.publish("exchange", "key", new AMQP.BasicProperties(), new byte[0]);
+        publisher.publish("exchange", "key", new AMQP.BasicProperties(), new byte[0]);
+
+        publisher.shutdownCompleted(mock(ShutdownSignalException.class));
+
+        Assert.assertEquals(0, publisher.getOutstandingCount());
+        Assert.assertEquals(2, publisher.getRetryBufferSize());
+
+        publisher.publish("exchange", "key", new AMQP.BasicProperties(), new byte[0]);
+
+        Assert.assertEquals(1, publisher.getOutstandingCount());
+        Assert.assertEquals(2, publisher.getRetryBufferSize());
+    }
+
+    @Test
+    public void testAckAfterRecoveryDoesNotReleaseStalePublishes() {
+        publisher.publish("exchange", "key", new AMQP.BasicProperties(), new byte[0]);
+        publisher.publish("exchange", "key", new AMQP.BasicProperties(), new byte[0]);
+
+        publisher.handleRecovery(null);
+        publisher.publish("exchange", "key", new AMQP.BasicProperties(), new byte[0]);
+        publisher.handleAck(1, true);
+
+        Assert.assertEquals(0, publisher.getOutstandingCount());
+        Assert.assertEquals(2, publisher.getRetryBufferSize());
+    }
+}
@@ -0,0 +1,63 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.managers.ConnectionRecoveryManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionRecoveryManagerTests {
+
+    private ConnectionRecoveryManager recoveryManager;
+
+    @After
+    public void teardown() {
+        if (recoveryManager != null) {
+            recoveryManager.shutdown();
+        }
+    }
+
+    @Test
+    public void testBackoffIsJitteredAndBounded() {
+        recoveryManager = new ConnectionRecoveryManager(() -> {
+        }, 1000, 8000);
+
+        for (int i = 0; i < 100; i++) {
+            long first = recoveryManager.getBackoffMillis(0);
+            Assert.assertTrue(first >= 500 && first <= 1000);
+            long third = recoveryManager.getBackoffMillis(2);
+            Assert.assertTrue(third >= 2000 && third <= 4000);
+            long capped = recoveryManager.getBackoffMillis(40);
+            Assert.assertTrue(capped >= 4000 && capped <= 8000);
+        }
+    }
+
+    @Test
+    public void testReconnectRetriedUntilSuccessful() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch reconnected = new CountDownLatch(1);
+        recoveryManager = new ConnectionRecoveryManager(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("broker down");
+            }
+            reconnected.countDown();
+        }, 10, 20);
+
+        recoveryManager.connectionFailed();
+        Assert.assertFalse(recoveryManager.isConnected());
+        // second report of the same outage must not schedule another reconnection
+        recoveryManager.connectionFailed();
+
+        Assert.assertTrue(reconnected.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertEquals(2, recoveryManager.getFailedReconnectAttempts());
+        Assert.assertEquals(1, recoveryManager.getRecoveryCount());
+        Assert.assertTrue(recoveryManager.isConnected());
+        Assert.assertTrue(recoveryManager.getTotalDowntimeMillis() > 0);
+    }
+}
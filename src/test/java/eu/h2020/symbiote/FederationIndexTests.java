@@ -0,0 +1,62 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.managers.FederationIndex;
+import eu.h2020.symbiote.model.mim.Federation;
+import eu.h2020.symbiote.repository.FederationRepository;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import static eu.h2020.symbiote.TestSetupConfig.PLATFORM_B_ID;
+import static eu.h2020.symbiote.TestSetupConfig.generateFederationA;
+import static eu.h2020.symbiote.TestSetupConfig.generateFederationB;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FederationIndexTests {
+
+    @Mock
+    FederationRepository federationRepository;
+
+    private FederationIndex federationIndex;
+
+    @Before
+    public void setup() {
+        federationIndex = new FederationIndex(federationRepository, RegistryCodecs.getInstance());
+        when(federationRepository.findAll()).thenReturn(Arrays.asList(generateFederationA()));
+    }
+
+    @Test
+    public void testFederationsAreReadOnceAndIndexedByMember() throws Exception {
+        Assert.assertEquals(1, federationIndex.getAllFederations().size());
+        Assert.assertTrue(federationIndex.getFederationsForPlatform("unknown platform").isEmpty());
+        byte[] reply = federationIndex.getAllFederationsReply();
+
+        Assert.assertSame(reply, federationIndex.getAllFederationsReply());
+        verify(federationRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testPutUpdatesInvertedIndex() throws Exception {
+        byte[] replyBefore = federationIndex.getFederationsForPlatformReply(PLATFORM_B_ID);
+        int federationsBefore = federationIndex.getFederationsForPlatform(PLATFORM_B_ID).size();
+
+        Federation federationB = generateFederationB();
+        federationIndex.put(federationB);
+
+        Assert.assertEquals(federationsBefore + 1, federationIndex.getFederationsForPlatform(PLATFORM_B_ID).size());
+        Assert.assertNotSame(replyBefore, federationIndex.getFederationsForPlatformReply(PLATFORM_B_ID));
+
+        federationIndex.remove(federationB.getId());
+        Assert.assertEquals(federationsBefore, federationIndex.getFederationsForPlatform(PLATFORM_B_ID).size());
+        verify(federationRepository, times(1)).findAll();
+    }
+}
@@ -0,0 +1,65 @@
+package eu.h2020.symbiote;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.h2020.symbiote.core.internal.InformationModelListResponse;
+import eu.h2020.symbiote.managers.InformationModelReplyCache;
+import eu.h2020.symbiote.managers.InformationModelReplyCache.ReplyMode;
+import eu.h2020.symbiote.repository.InformationModelRepository;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import static eu.h2020.symbiote.TestSetupConfig.generateInformationModelFull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InformationModelReplyCacheTests {
+
+    @Mock
+    InformationModelRepository informationModelRepository;
+
+    private InformationModelReplyCache informationModelReplyCache;
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        informationModelReplyCache = new InformationModelReplyCache(informationModelRepository, RegistryCodecs.getInstance());
+        when(informationModelRepository.findAll()).thenAnswer(invocation -> Arrays.asList(generateInformationModelFull()));
+    }
+
+    @Test
+    public void testRepliesAreSerializedOnceUntilInvalidated() throws Exception {
+        InformationModelListResponse full =
+                mapper.readValue(informationModelReplyCache.getReply(ReplyMode.FULL), InformationModelListResponse.class);
+        InformationModelListResponse withoutRdf =
+                mapper.readValue(informationModelReplyCache.getReply(ReplyMode.WITHOUT_RDF), InformationModelListResponse.class);
+
+        Assert.assertEquals(200, full.getStatus());
+        Assert.assertEquals("Some mocked RDF", full.getBody().get(0).getRdf());
+        Assert.assertNull(withoutRdf.getBody().get(0).getRdf());
+        verify(informationModelRepository, times(1)).findAll();
+
+        informationModelReplyCache.invalidate();
+        informationModelReplyCache.getReply(ReplyMode.FULL);
+        verify(informationModelRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void testSummaryContainsHashInsteadOfRdf() throws Exception {
+        JsonNode summary = mapper.readTree(informationModelReplyCache.getReply(ReplyMode.SUMMARY)).get("body").get(0);
+
+        Assert.assertEquals("SOME ID", summary.get("id").asText());
+        Assert.assertEquals("Some mocked owner", summary.get("owner").asText());
+        Assert.assertEquals(64, summary.get("contentHash").asText().length());
+        Assert.assertNull(summary.get("rdf"));
+    }
+}
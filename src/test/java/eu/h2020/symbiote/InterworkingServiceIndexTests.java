@@ -0,0 +1,107 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.managers.InterworkingServiceIndex;
+import eu.h2020.symbiote.model.mim.InterworkingService;
+import eu.h2020.symbiote.model.mim.Platform;
+import eu.h2020.symbiote.repository.PlatformRepository;
+import eu.h2020.symbiote.repository.SspRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InterworkingServiceIndexTests {
+
+    @Mock
+    PlatformRepository platformRepository;
+    @Mock
+    SspRepository sspRepository;
+
+    private InterworkingServiceIndex interworkingServiceIndex;
+    private Platform platform;
+
+    @Before
+    public void setup() {
+        platform = new Platform();
+        platform.setId("platform1");
+        platform.setInterworkingServices(Arrays.asList(
+                createInterworkingService(" http://platform1.eu/is1", "im1"),
+                createInterworkingService("http://platform1.eu/is2/", "im2")));
+        when(platformRepository.findAll()).thenReturn(Collections.singletonList(platform));
+        when(sspRepository.findAll()).thenReturn(Collections.emptyList());
+        interworkingServiceIndex = new InterworkingServiceIndex(platformRepository, sspRepository, 0);
+        interworkingServiceIndex.rebuild();
+    }
+
+    @Test
+    public void testLookupUsesCanonicalUrl() {
+        Assert.assertEquals("im1",
+                interworkingServiceIndex.findPlatformService("platform1", "http://platform1.eu/is1/").getInformationModelId());
+        Assert.assertEquals("im2",
+                interworkingServiceIndex.findPlatformService("platform1", "http://platform1.eu/is2").getInformationModelId());
+        verify(platformRepository, times(0)).findOne("platform1");
+    }
+
+    @Test
+    public void testUrlOfOtherPlatformDoesNotMatch() {
+        Assert.assertNull(interworkingServiceIndex.findPlatformService("platform2", "http://platform1.eu/is1/"));
+    }
+
+    @Test
+    public void testMissReloadsPlatformChangedElsewhere() {
+        platform.setInterworkingServices(Collections.singletonList(
+                createInterworkingService("http://platform1.eu/is3", "im3")));
+        when(platformRepository.findOne("platform1")).thenReturn(platform);
+
+        Assert.assertEquals("im3",
+                interworkingServiceIndex.findPlatformService("platform1", "http://platform1.eu/is3").getInformationModelId());
+        Assert.assertNull(interworkingServiceIndex.findPlatformService("platform1", "http://platform1.eu/is1"));
+    }
+
+    @Test
+    public void testRemovedPlatformIsNotIndexed() {
+        interworkingServiceIndex.remove("platform1");
+        when(platformRepository.findOne("platform1")).thenReturn(null);
+
+        Assert.assertNull(interworkingServiceIndex.findPlatformService("platform1", "http://platform1.eu/is1/"));
+    }
+
+    @Test
+    public void testRepeatedMissReadsPlatformOnceWithinReloadInterval() {
+        InterworkingServiceIndex index = new InterworkingServiceIndex(platformRepository, sspRepository, 60000);
+        when(platformRepository.findOne("platform1")).thenReturn(platform);
+
+        Assert.assertNull(index.findPlatformService("platform1", "http://platform1.eu/wrong1"));
+        Assert.assertNull(index.findPlatformService("platform1", "http://platform1.eu/wrong2"));
+        Assert.assertEquals("im1",
+                index.findPlatformService("platform1", "http://platform1.eu/is1").getInformationModelId());
+        verify(platformRepository, times(1)).findOne("platform1");
+    }
+
+    @Test
+    public void testMissOfRemovedPlatformIsRemembered() {
+        InterworkingServiceIndex index = new InterworkingServiceIndex(platformRepository, sspRepository, 60000);
+        when(platformRepository.findOne("platform2")).thenReturn(null);
+
+        Assert.assertNull(index.findPlatformService("platform2", "http://platform2.eu/is1"));
+        Assert.assertNull(index.findPlatformService("platform2", "http://platform2.eu/is1"));
+        verify(platformRepository, times(1)).findOne("platform2");
+    }
+
+    private InterworkingService createInterworkingService(String url, String informationModelId) {
+        InterworkingService interworkingService = new InterworkingService();
+        interworkingService.setUrl(url);
+        interworkingService.setInformationModelId(informationModelId);
+        return interworkingService;
+    }
+}
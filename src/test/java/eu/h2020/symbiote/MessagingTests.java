@@ -11,6 +11,7 @@ import eu.h2020.symbiote.core.internal.*;
 import eu.h2020.symbiote.managers.AuthorizationManager;
 import eu.h2020.symbiote.managers.RabbitManager;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.model.ResourceSummary;
 import eu.h2020.symbiote.model.persistenceResults.AuthorizationResult;
 import eu.h2020.symbiote.model.persistenceResults.InformationModelPersistenceResult;
 import eu.h2020.symbiote.model.persistenceResults.PlatformPersistenceResult;
@@ -27,11 +28,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.util.*;
@@ -88,7 +92,7 @@ public class MessagingTests {
 
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), anyString())).thenReturn(new AuthorizationResult("ok", true));
-        when(mockedRepository.saveResource(any())).thenReturn(new ResourcePersistenceResult(200, "ok", RegistryUtils.convertResourceToCoreResource(resource1)));
+        when(mockedRepository.saveResourcesAtomically(anyMapOf(String.class, CoreResource.class))).thenAnswer(okResultForEachKey(RegistryUtils.convertResourceToCoreResource(resource1)));
 
         mockSemanticManagerResourceTranslationCommunication(message);
 
@@ -99,7 +103,8 @@ public class MessagingTests {
         rabbitManager.sendCustomMessage(RESOURCE_EXCHANGE_NAME, RESOURCE_CREATION_REQUESTED_RK, message, CoreResourceRegistryRequest.class.getCanonicalName());
 
         // Timeout to make sure that the message has been delivered
-        verify(mockedRepository, timeout(500).times(2)).saveResource(any());
+        verify(mockedRepository, timeout(500).times(1)).saveResourcesAtomically(argThat(hasSize(2)));
+        verify(mockedRepository, never()).saveResource(any());
     }
 
     @Test
@@ -118,7 +123,7 @@ public class MessagingTests {
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), anyString())).thenReturn(new AuthorizationResult("ok", true));
         addIdToResource(resource1);
-        when(mockedRepository.saveResource(any())).thenReturn(new ResourcePersistenceResult(200, "ok", RegistryUtils.convertResourceToCoreResource(resource1)));
+        when(mockedRepository.saveResourcesAtomically(anyMapOf(String.class, CoreResource.class))).thenAnswer(okResultForEachKey(RegistryUtils.convertResourceToCoreResource(resource1)));
 
         mockSemanticManagerResourceTranslationCommunication(coreResourcesMessage);
 
@@ -133,7 +138,8 @@ public class MessagingTests {
         Assert.assertNotNull(resourceRegistryResponse.getMessage());
         Assert.assertEquals(resourceRegistryResponse.getStatus(), 200);
 
-        verify(mockedRepository, times(2)).saveResource(any());
+        verify(mockedRepository, times(1)).saveResourcesAtomically(argThat(hasSize(2)));
+        verify(mockedRepository, never()).saveResource(any());
 
         Map<String, Resource> requestResourceMap = mapper.readValue(coreResourceRegistryRequestWithResources.getBody(), new TypeReference<Map<String, Resource>>() {
         });
@@ -160,7 +166,7 @@ public class MessagingTests {
 
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), anyString())).thenReturn(new AuthorizationResult("ok", true));
-        when(mockedRepository.saveResource(any())).thenReturn(new ResourcePersistenceResult(200, "ok", RegistryUtils.convertResourceToCoreResource(resource1)));
+        when(mockedRepository.saveResourcesAtomically(anyMapOf(String.class, CoreResource.class))).thenAnswer(okResultForEachKey(RegistryUtils.convertResourceToCoreResource(resource1)));
         when(mockedRepository.getInformationModelIdByInterworkingServiceUrl(any(), any())).thenReturn("mocked");
 
         mockSemanticManagerResourceValidationCommunication(message);
@@ -170,7 +176,7 @@ public class MessagingTests {
         // Sleep to make sure that the message has been delivered
         TimeUnit.MILLISECONDS.sleep(300);
         verify(mockedRepository, times(1)).getInformationModelIdByInterworkingServiceUrl(any(), any());
-        verify(mockedRepository, times(0)).saveResource(any());
+        verify(mockedRepository, never()).saveResourcesAtomically(anyMapOf(String.class, CoreResource.class));
     }
 
     @Test
@@ -185,7 +191,7 @@ public class MessagingTests {
 
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), anyString())).thenReturn(new AuthorizationResult("ok", true));
-        when(mockedRepository.saveResource(any())).thenReturn(new ResourcePersistenceResult(200, "ok", RegistryUtils.convertResourceToCoreResource(resource1)));
+        when(mockedRepository.saveResourcesAtomically(anyMapOf(String.class, CoreResource.class))).thenAnswer(okResultForEachKey(RegistryUtils.convertResourceToCoreResource(resource1)));
         when(mockedRepository.getInformationModelIdByInterworkingServiceUrl(any(), any())).thenReturn(null);
 
         String response = rabbitManager.sendRpcMessageAndConsumeResponse(RESOURCE_EXCHANGE_NAME, RESOURCE_CREATION_REQUESTED_RK, message);
@@ -198,7 +204,7 @@ public class MessagingTests {
 //        mockSemanticManagerResourceValidationCommunication(message);
 
         verify(mockedRepository, times(1)).getInformationModelIdByInterworkingServiceUrl(any(), any());
-        verify(mockedRepository, times(0)).saveResource(any());
+        verify(mockedRepository, never()).saveResourcesAtomically(anyMapOf(String.class, CoreResource.class));
     }
 
 
@@ -215,14 +221,33 @@ public class MessagingTests {
 
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("ok", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), anyString())).thenReturn(new AuthorizationResult("ok", true));
-        when(mockedRepository.modifyResource(any())).thenReturn(new ResourcePersistenceResult(200, "ok", RegistryUtils.convertResourceToCoreResource(resource1)));
+        when(mockedRepository.modifyResourcesAtomically(anyMapOf(String.class, CoreResource.class))).thenAnswer(okResultForEachKey(RegistryUtils.convertResourceToCoreResource(resource1)));
 
         mockSemanticManagerResourceTranslationCommunication(message);
 
         rabbitManager.sendCustomMessage(RESOURCE_EXCHANGE_NAME, RESOURCE_MODIFICATION_REQUESTED_RK, message, CoreResourceRegistryRequest.class.getCanonicalName());
 
         // Timeout to make sure that the message has been delivered
-        verify(mockedRepository, timeout(500).times(2)).modifyResource(any());
+        verify(mockedRepository, timeout(500).times(1)).modifyResourcesAtomically(argThat(hasSize(2)));
+        verify(mockedRepository, never()).modifyResource(any());
+    }
+
+    @Test
+    public void reconnectDoesNotRegisterConsumersTwiceTest() throws Exception {
+        ReflectionTestUtils.setField(rabbitManager, "dedicatedConsumerChannels", true);
+        ReflectionTestUtils.setField(rabbitManager, "defaultConsumerConcurrency", 2);
+        rabbitManager.startConsumerOfResourceCreationMessages(mockedAuthorizationManager);
+        Assert.assertEquals(2, channel.queueDeclarePassive(RESOURCE_CREATION_REQUESTED_QUEUE).getConsumerCount());
+        @SuppressWarnings("unchecked")
+        List<Channel> oldConsumerChannels = new ArrayList<>(((Map<String, List<Channel>>) ReflectionTestUtils
+                .getField(rabbitManager, "consumerChannels")).get(RESOURCE_CREATION_REQUESTED_QUEUE));
+
+        ReflectionTestUtils.invokeMethod(rabbitManager, "reconnect");
+        connection = rabbitManager.getConnection();
+        channel = rabbitManager.getChannel();
+
+        oldConsumerChannels.forEach(oldChannel -> Assert.assertFalse(oldChannel.isOpen()));
+        Assert.assertEquals(2, channel.queueDeclarePassive(RESOURCE_CREATION_REQUESTED_QUEUE).getConsumerCount());
     }
 
     @Test
@@ -242,7 +267,7 @@ public class MessagingTests {
         resourcePersistenceResult1.setMessage("ok");
         resourcePersistenceResult1.setResource(RegistryUtils.convertResourceToCoreResource(resource1));
 
-        when(mockedRepository.removeResource(any())).thenReturn(resourcePersistenceResult1);
+        when(mockedRepository.removeResources(anyMapOf(String.class, CoreResource.class))).thenAnswer(okResultForEachKey(resourcePersistenceResult1.getResource()));
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("ok", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), any())).thenReturn(new AuthorizationResult("ok", true));
 
@@ -250,7 +275,8 @@ public class MessagingTests {
 
         // Sleep to make sure that the message has been delivered
         TimeUnit.MILLISECONDS.sleep(300);
-        verify(mockedRepository, times(2)).removeResource(any());
+        verify(mockedRepository, times(1)).removeResources(argThat(hasSize(2)));
+        verify(mockedRepository, never()).removeResource(any());
     }
 
     @Test
@@ -784,10 +810,11 @@ public class MessagingTests {
         when(mockedAuthorizationManager.checkSinglePlatformOperationAccess(any(), any())).thenReturn(new AuthorizationResult("", true));
         when(mockedAuthorizationManager.checkIfResourcesBelongToPlatform(any(), anyString())).thenReturn(new AuthorizationResult("ok", true));
 
-        List<CoreResource> coreResourcesFound = Arrays.asList(RegistryUtils.convertResourceToCoreResource(resource1),
-                RegistryUtils.convertResourceToCoreResource(resource2));
-        when(mockedRepository.getResourcesForPlatform(coreResourceRegistryRequest.getPlatformId())).
-                thenReturn(coreResourcesFound);
+        List<ResourceSummary> resourcesFound = Arrays.asList(
+                new ResourceSummary(resource1.getId(), resource1.getName(), resource1.getDescription(), resource1.getInterworkingServiceURL()),
+                new ResourceSummary(resource2.getId(), resource2.getName(), resource2.getDescription(), resource2.getInterworkingServiceURL()));
+        when(mockedRepository.getResourceSummariesForPlatform(coreResourceRegistryRequest.getPlatformId())).
+                thenReturn(resourcesFound);
 
         String response = rabbitManager.sendRpcMessageAndConsumeResponse(PLATFORM_EXCHANGE_NAME, RESOURCES_FOR_PLATFORM_REQUESTED_RK, message);
 
@@ -1327,6 +1354,31 @@ public class MessagingTests {
         log.debug("-> Semantic Manager replied: \n" + validationResult.toString() + "\n......... //MOCKED SM REPLY |||||||||||||| ");
     }
 
+    /**
+     * Answers a bulk repository call with given persistence result for every key of the requested resources map.
+     */
+    private static Answer<Map<String, ResourcePersistenceResult>> okResultForEachKey(CoreResource resultResource) {
+        return invocation -> {
+            Map<String, ResourcePersistenceResult> results = new HashMap<>();
+            for (Object key : ((Map<?, ?>) invocation.getArguments()[0]).keySet()) {
+                results.put((String) key, new ResourcePersistenceResult(200, "ok", resultResource));
+            }
+            return results;
+        };
+    }
+
+    /**
+     * Matches a resources map with given number of resources.
+     */
+    private static ArgumentMatcher<Map<String, CoreResource>> hasSize(int size) {
+        return new ArgumentMatcher<Map<String, CoreResource>>() {
+            @Override
+            public boolean matches(Object argument) {
+                return argument instanceof Map && ((Map<?, ?>) argument).size() == size;
+            }
+        };
+    }
+
     private AMQP.BasicProperties getProps(Channel channel) throws IOException {
         String replyQueueName = "Queue" + Math.random();
         HashMap<String,Object> queueArgs = new HashMap<>();
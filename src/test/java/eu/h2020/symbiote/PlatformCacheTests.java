@@ -0,0 +1,73 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.managers.PlatformCache;
+import eu.h2020.symbiote.model.mim.Platform;
+import eu.h2020.symbiote.repository.PlatformRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PlatformCacheTests {
+
+    @Mock
+    PlatformRepository platformRepository;
+
+    private PlatformCache platformCache;
+
+    @Before
+    public void setup() {
+        platformCache = new PlatformCache(platformRepository, 2);
+        when(platformRepository.findOne("p1")).thenReturn(createPlatform("p1"));
+        when(platformRepository.findOne("p2")).thenReturn(createPlatform("p2"));
+        when(platformRepository.findOne("p3")).thenReturn(createPlatform("p3"));
+    }
+
+    @Test
+    public void testRepeatedLookupReadsDatabaseOnce() {
+        Assert.assertEquals("p1", platformCache.get("p1").getId());
+        Assert.assertEquals("p1", platformCache.get("p1").getId());
+
+        verify(platformRepository, times(1)).findOne("p1");
+        Assert.assertEquals(1, platformCache.getHitCount());
+        Assert.assertEquals(1, platformCache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPlatformIsEvicted() {
+        platformCache.get("p1");
+        platformCache.get("p2");
+        platformCache.get("p1");
+        platformCache.get("p3");
+
+        Assert.assertEquals(2, platformCache.size());
+        Assert.assertEquals(1, platformCache.getEvictionCount());
+        platformCache.get("p1");
+        platformCache.get("p2");
+        verify(platformRepository, times(1)).findOne("p1");
+        verify(platformRepository, times(2)).findOne("p2");
+    }
+
+    @Test
+    public void testInvalidatedPlatformIsReadAgain() {
+        platformCache.get("p1");
+        platformCache.invalidate("p1");
+        platformCache.get("p1");
+
+        verify(platformRepository, times(2)).findOne("p1");
+        Assert.assertEquals(1, platformCache.getInvalidationCount());
+    }
+
+    private Platform createPlatform(String id) {
+        Platform platform = new Platform();
+        platform.setId(id);
+        return platform;
+    }
+}
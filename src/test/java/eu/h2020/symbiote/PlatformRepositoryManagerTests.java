@@ -156,10 +156,20 @@ public class PlatformRepositoryManagerTests {
         CoreResource coreResource = generateCoreResourceWithoutId();
 
         when(platformRepository.findOne(platform.getId())).thenReturn(platform);
-        when(resourceRepository.findByInterworkingServiceURL(platform.getInterworkingServices().get(0).getUrl())).
+        when(resourceRepository.findByInterworkingServiceURLIn(Arrays.asList(platform.getInterworkingServices().get(0).getUrl() + "/"))).
                 thenReturn(Arrays.asList(coreResource));
 
         Assert.assertEquals(repositoryManager.getResourcesForPlatform(platform.getId()),Arrays.asList(coreResource));
+        verify(resourceRepository, never()).findByInterworkingServiceURL(any(String.class));
+    }
+
+    @Test
+    public void testGetResourcesForUnknownPlatform() {
+        when(platformRepository.findOne("unknown")).thenReturn(null);
+
+        Assert.assertTrue(repositoryManager.getResourcesForPlatform("unknown").isEmpty());
+        Assert.assertEquals(0, repositoryManager.streamResourcesForPlatform("unknown").count());
+        verifyZeroInteractions(resourceRepository);
     }
 
     @Test
@@ -0,0 +1,37 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.model.cim.Resource;
+import eu.h2020.symbiote.model.mim.Platform;
+import eu.h2020.symbiote.utils.RegistryCodecs;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static eu.h2020.symbiote.TestSetupConfig.generatePlatformB;
+import static eu.h2020.symbiote.TestSetupConfig.generateStationaryResourceSensor;
+
+public class RegistryCodecsTests {
+
+    private RegistryCodecs codecs = RegistryCodecs.getInstance();
+
+    @Test
+    public void testResourceMapRoundTrip() throws Exception {
+        Map<String, Resource> resources = new HashMap<>();
+        resources.put("1", generateStationaryResourceSensor());
+
+        Map<String, Resource> read = codecs.readResourceMap(codecs.writeResourceMap(resources));
+
+        Assert.assertEquals(1, read.size());
+        Assert.assertEquals(resources.get("1").getName(), read.get("1").getName());
+        Assert.assertEquals(resources.get("1").getClass(), read.get("1").getClass());
+    }
+
+    @Test
+    public void testReadersAreBuiltOncePerType() throws Exception {
+        Assert.assertSame(codecs.readerFor(Platform.class), codecs.readerFor(Platform.class));
+        Assert.assertEquals(generatePlatformB().getId(),
+                codecs.read(codecs.writeAsBytes(generatePlatformB()), Platform.class).getId());
+    }
+}
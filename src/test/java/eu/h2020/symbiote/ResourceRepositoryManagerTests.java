@@ -1,9 +1,19 @@
 package eu.h2020.symbiote;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteRequestBuilder;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
 import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
 import eu.h2020.symbiote.core.internal.CoreResource;
 import eu.h2020.symbiote.managers.RepositoryManager;
+import eu.h2020.symbiote.model.RegistryOperationType;
+import eu.h2020.symbiote.model.ResourceCompensationLog;
 import eu.h2020.symbiote.model.cim.Resource;
+import eu.h2020.symbiote.model.persistenceResults.ResourcePersistenceResult;
 import eu.h2020.symbiote.repository.*;
 import eu.h2020.symbiote.security.commons.exceptions.custom.InvalidArgumentsException;
 import org.apache.http.HttpStatus;
@@ -12,11 +22,32 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static eu.h2020.symbiote.TestSetupConfig.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +71,16 @@ public class ResourceRepositoryManagerTests {
     CoreSspResourceRepository coreSspResourceRepository;
     @Mock
     SdevRepository sdevRepository;
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    BulkOperations bulkOperations;
+    @Mock
+    DBCollection compensationLogCollection;
+    @Mock
+    BulkWriteOperation bulkWriteOperation;
+    @Mock
+    BulkWriteRequestBuilder bulkWriteRequestBuilder;
     @InjectMocks
     RepositoryManager repositoryManager;
 
@@ -176,4 +217,269 @@ public class ResourceRepositoryManagerTests {
         when(resourceRepository.findOne(resource.getId())).thenReturn(null);
         Assert.assertEquals(HttpStatus.SC_BAD_REQUEST,repositoryManager.removeResource(resource).getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSaveResourcesUsesSingleBulkInsert() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoreResource.class)).thenReturn(bulkOperations);
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.saveResources(resources);
+
+        verify(bulkOperations).insert(new ArrayList<>(resources.values()));
+        verify(bulkOperations).execute();
+        verify(resourceRepository, never()).save(any(CoreResource.class));
+        Assert.assertEquals(resources.keySet(), results.keySet());
+        results.values().forEach(result -> Assert.assertEquals(HttpStatus.SC_OK, result.getStatus()));
+    }
+
+    @Test
+    public void testSaveResourcesReportsFailedInsertForItsKeyOnly() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        resources.put("noUrl", addIdToCoreResource(generateCoreResourceWithoutId()));
+        resources.get("noUrl").setInterworkingServiceURL(null);
+        BulkOperationException bulkException = mock(BulkOperationException.class);
+        when(bulkException.getErrors()).thenReturn(Collections.singletonList(
+                new BulkWriteError(11000, "FAKE duplicate key", new BasicDBObject(), 1)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoreResource.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkException);
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.saveResources(resources);
+
+        Assert.assertEquals(HttpStatus.SC_OK, results.get("first").getStatus());
+        Assert.assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, results.get("second").getStatus());
+        Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, results.get("noUrl").getStatus());
+    }
+
+    @Test
+    public void testModifyResourcesThatDoNotExistInDb() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        when(mongoTemplate.find(any(Query.class), eq(CoreResource.class))).thenReturn(new ArrayList<>());
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.modifyResources(resources);
+
+        verify(mongoTemplate).find(any(Query.class), eq(CoreResource.class));
+        verify(mongoTemplate, never()).getCollection(any(String.class));
+        verify(resourceRepository, never()).findOne(any(String.class));
+        results.values().forEach(result -> Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, result.getStatus()));
+    }
+
+    @Test
+    public void testModifyResourcesUsesSingleExistenceCheckAndBulkReplace() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        when(mongoTemplate.find(any(Query.class), eq(CoreResource.class)))
+                .thenReturn(new ArrayList<>(resources.values()));
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.getCollection(any(String.class))).thenReturn(compensationLogCollection);
+        when(compensationLogCollection.initializeUnorderedBulkOperation()).thenReturn(bulkWriteOperation);
+        when(bulkWriteOperation.find(any(DBObject.class))).thenReturn(bulkWriteRequestBuilder);
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.modifyResources(resources);
+
+        verify(mongoTemplate).find(any(Query.class), eq(CoreResource.class));
+        verify(bulkWriteOperation).find(new BasicDBObject("_id", "101"));
+        verify(bulkWriteOperation).find(new BasicDBObject("_id", "102"));
+        verify(bulkWriteRequestBuilder, times(2)).replaceOne(any(DBObject.class));
+        verify(bulkWriteOperation).execute();
+        verify(resourceRepository, never()).save(any(CoreResource.class));
+        results.values().forEach(result -> Assert.assertEquals(HttpStatus.SC_OK, result.getStatus()));
+    }
+
+    @Test
+    public void testModifyResourcesAtomicallyFailsWhenAnyResourceDoesNotExist() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        CoreResource firstStored = addIdToCoreResource(generateCoreResourceWithoutId());
+        firstStored.setId("101");
+        when(mongoTemplate.find(any(Query.class), eq(CoreResource.class)))
+                .thenReturn(Collections.singletonList(firstStored))
+                .thenReturn(Collections.singletonList(resources.get("first")));
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.getCollection(any(String.class))).thenReturn(compensationLogCollection);
+        when(compensationLogCollection.initializeUnorderedBulkOperation()).thenReturn(bulkWriteOperation);
+        when(bulkWriteOperation.find(any(DBObject.class))).thenReturn(bulkWriteRequestBuilder);
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.modifyResourcesAtomically(resources);
+
+        Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, results.get("second").getStatus());
+        Assert.assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, results.get("first").getStatus());
+        // replaced once by the operation and once by its rollback, the missing resource is never written
+        verify(bulkWriteOperation, times(2)).find(new BasicDBObject("_id", "101"));
+        verify(bulkWriteOperation, never()).find(new BasicDBObject("_id", "102"));
+        verify(mongoTemplate).remove(any(Query.class), eq(ResourceCompensationLog.class));
+    }
+
+    @Test
+    public void testRemoveResourcesUsesSingleFindAndDelete() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        CoreResource stored = resources.get("first");
+        when(mongoTemplate.find(any(Query.class), eq(CoreResource.class))).thenReturn(Collections.singletonList(stored));
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.removeResources(resources);
+
+        verify(mongoTemplate).remove(any(Query.class), eq(CoreResource.class));
+        verify(resourceRepository, never()).delete(any(String.class));
+        Assert.assertEquals(HttpStatus.SC_OK, results.get("first").getStatus());
+        Assert.assertSame(stored, results.get("first").getResource());
+        Assert.assertEquals(HttpStatus.SC_BAD_REQUEST, results.get("second").getStatus());
+    }
+
+    @Test
+    public void testSaveResourcesAtomicallyCompensatesPartialFailure() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        BulkOperationException bulkException = mock(BulkOperationException.class);
+        when(bulkException.getErrors()).thenReturn(Collections.singletonList(
+                new BulkWriteError(11000, "FAKE duplicate key", new BasicDBObject(), 1)));
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.getCollection(any(String.class))).thenReturn(compensationLogCollection);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoreResource.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkException);
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.saveResourcesAtomically(resources);
+
+        verify(compensationLogCollection).insert(anyListOf(DBObject.class), eq(WriteConcern.JOURNALED));
+        verify(mongoTemplate).remove(any(Query.class), eq(CoreResource.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(ResourceCompensationLog.class));
+        results.values().forEach(result -> Assert.assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, result.getStatus()));
+    }
+
+    @Test
+    public void testSaveResourcesAtomicallyWritesNothingWhenJournalingFails() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.getCollection(any(String.class))).thenThrow(new MongoException("FAKE journal error"));
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.saveResourcesAtomically(resources);
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(CoreResource.class));
+        results.values().forEach(result -> Assert.assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, result.getStatus()));
+    }
+
+    @Test
+    public void testCompensationDoesNotRestoreResourceChangedSinceModification() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        CoreResource firstStored = addIdToCoreResource(generateCoreResourceWithoutId());
+        firstStored.setId("101");
+        firstStored.setName("stored first");
+        CoreResource secondStored = addIdToCoreResource(generateCoreResourceWithoutId());
+        secondStored.setId("102");
+        secondStored.setName("stored second");
+        CoreResource secondChangedLater = addIdToCoreResource(generateCoreResourceWithoutId());
+        secondChangedLater.setId("102");
+        secondChangedLater.setName("changed by a later write");
+
+        List<ResourceCompensationLog> journaledLogs = new ArrayList<>();
+        MongoConverter converter = mock(MongoConverter.class);
+        doAnswer(invocation -> {
+            Object source = invocation.getArguments()[0];
+            DBObject document = (DBObject) invocation.getArguments()[1];
+            if (source instanceof CoreResource) {
+                document.put("_id", ((CoreResource) source).getId());
+                document.put("name", ((CoreResource) source).getName());
+            } else if (source instanceof ResourceCompensationLog) {
+                journaledLogs.add((ResourceCompensationLog) source);
+            }
+            return null;
+        }).when(converter).write(any(), any(DBObject.class));
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollection(any(String.class))).thenReturn(compensationLogCollection);
+        when(compensationLogCollection.initializeUnorderedBulkOperation()).thenReturn(bulkWriteOperation);
+        when(bulkWriteOperation.find(any(DBObject.class))).thenReturn(bulkWriteRequestBuilder);
+        when(bulkWriteOperation.execute()).thenThrow(new MongoException("FAKE interrupted replace")).thenReturn(null);
+        when(mongoTemplate.find(any(Query.class), eq(CoreResource.class)))
+                .thenReturn(Arrays.asList(firstStored, secondStored))
+                .thenReturn(Arrays.asList(resources.get("first"), secondChangedLater));
+
+        repositoryManager.modifyResourcesAtomically(resources);
+
+        Assert.assertEquals(2, journaledLogs.size());
+        journaledLogs.forEach(compensationLog -> Assert.assertEquals(journaledLogs.get(0).getOperationId(),
+                compensationLog.getOperationId()));
+        when(mongoTemplate.find(any(Query.class), eq(ResourceCompensationLog.class))).thenReturn(journaledLogs);
+
+        Assert.assertEquals(1, repositoryManager.compensateInterruptedOperations(0));
+
+        verify(bulkWriteOperation, times(2)).find(new BasicDBObject("_id", "101"));
+        verify(bulkWriteOperation, times(1)).find(new BasicDBObject("_id", "102"));
+        verify(bulkWriteRequestBuilder, times(3)).replaceOne(any(DBObject.class));
+    }
+
+    @Test
+    public void testSuccessfulAtomicOperationIsCommittedBeforeItsLogIsRemoved() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        when(mongoTemplate.getCollection(any(String.class))).thenReturn(compensationLogCollection);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoreResource.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.remove(any(Query.class), eq(ResourceCompensationLog.class)))
+                .thenThrow(new MongoException("FAKE log removal error"));
+
+        Map<String, ResourcePersistenceResult> results = repositoryManager.saveResourcesAtomically(resources);
+
+        verify(compensationLogCollection).update(any(DBObject.class), any(DBObject.class), eq(false), eq(true),
+                eq(WriteConcern.JOURNALED));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(CoreResource.class));
+        results.values().forEach(result -> Assert.assertEquals(HttpStatus.SC_OK, result.getStatus()));
+    }
+
+    @Test
+    public void testCompensationOnlyRemovesLogOfCommittedOperation() throws Exception {
+        ResourceCompensationLog committedLog =
+                new ResourceCompensationLog("operation", RegistryOperationType.CREATION, "101", new Date(0));
+        committedLog.setCommitted(true);
+        when(mongoTemplate.find(any(Query.class), eq(ResourceCompensationLog.class)))
+                .thenReturn(Collections.singletonList(committedLog));
+
+        Assert.assertEquals(0, repositoryManager.compensateInterruptedOperations(0));
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(CoreResource.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(ResourceCompensationLog.class));
+    }
+
+    @Test
+    public void testCompensationOfInterruptedCreationKeepsDocumentsNotWrittenByIt() throws Exception {
+        Map<String, CoreResource> resources = generateCoreResourcesMap();
+        CoreResource existingSecond = addIdToCoreResource(generateCoreResourceWithoutId());
+        existingSecond.setId("102");
+        existingSecond.setName("written by another operation");
+
+        List<ResourceCompensationLog> journaledLogs = new ArrayList<>();
+        MongoConverter converter = mock(MongoConverter.class);
+        doAnswer(invocation -> {
+            Object source = invocation.getArguments()[0];
+            DBObject document = (DBObject) invocation.getArguments()[1];
+            if (source instanceof CoreResource) {
+                document.put("_id", ((CoreResource) source).getId());
+                document.put("name", ((CoreResource) source).getName());
+            } else if (source instanceof ResourceCompensationLog) {
+                journaledLogs.add((ResourceCompensationLog) source);
+            }
+            return null;
+        }).when(converter).write(any(), any(DBObject.class));
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollection(any(String.class))).thenReturn(compensationLogCollection);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoreResource.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new MongoException("FAKE interrupted insert"));
+
+        repositoryManager.saveResourcesAtomically(resources);
+
+        when(mongoTemplate.find(any(Query.class), eq(ResourceCompensationLog.class))).thenReturn(journaledLogs);
+        when(mongoTemplate.find(any(Query.class), eq(CoreResource.class)))
+                .thenReturn(Arrays.asList(resources.get("first"), existingSecond));
+
+        Assert.assertEquals(1, repositoryManager.compensateInterruptedOperations(0));
+
+        ArgumentCaptor<Query> removeQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removeQuery.capture(), eq(CoreResource.class));
+        Assert.assertTrue(removeQuery.getValue().getQueryObject().toString().contains("101"));
+        Assert.assertFalse(removeQuery.getValue().getQueryObject().toString().contains("102"));
+    }
+
+    private Map<String, CoreResource> generateCoreResourcesMap() throws InvalidArgumentsException {
+        Map<String, CoreResource> resources = new LinkedHashMap<>();
+        CoreResource first = addIdToCoreResource(generateCoreResourceWithoutId());
+        first.setId("101");
+        CoreResource second = addIdToCoreResource(generateCoreResourceWithoutId());
+        second.setId("102");
+        resources.put("first", first);
+        resources.put("second", second);
+        return resources;
+    }
+}
@@ -0,0 +1,98 @@
+package eu.h2020.symbiote;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import eu.h2020.symbiote.messaging.RpcReplyDispatcher;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RpcReplyDispatcherTests {
+
+    private Channel channel;
+
+    @Before
+    public void setup() throws IOException {
+        channel = mock(Channel.class);
+        AMQP.Queue.DeclareOk declareOk = mock(AMQP.Queue.DeclareOk.class);
+        when(declareOk.getQueue()).thenReturn("reply-queue");
+        when(channel.queueDeclare()).thenReturn(declareOk);
+        when(channel.basicConsume(anyString(), anyBoolean(), any(DefaultConsumer.class))).thenReturn("tag");
+    }
+
+    @Test
+    public void testShutdownRunsTimeoutHandlersOfPendingRequests() throws IOException {
+        RpcReplyDispatcher dispatcher = new RpcReplyDispatcher(channel);
+        AtomicInteger timedOut = new AtomicInteger();
+        dispatcher.register(new DefaultConsumer(channel), timedOut::incrementAndGet, 60000);
+        dispatcher.register(new DefaultConsumer(channel), timedOut::incrementAndGet, 60000);
+
+        dispatcher.shutdown();
+
+        Assert.assertEquals(2, timedOut.get());
+        Assert.assertEquals(0, dispatcher.getPendingRepliesCount());
+    }
+
+    @Test
+    public void testShutdownDoesNotRunTimeoutHandlerOfAnsweredRequest() throws IOException {
+        RpcReplyDispatcher dispatcher = new RpcReplyDispatcher(channel);
+        AtomicInteger timedOut = new AtomicInteger();
+        String correlationId = dispatcher.register(new DefaultConsumer(channel), timedOut::incrementAndGet, 60000);
+        dispatcher.handleDelivery("tag", null,
+                new AMQP.BasicProperties.Builder().correlationId(correlationId).build(), new byte[0]);
+
+        dispatcher.shutdown();
+
+        Assert.assertEquals(0, timedOut.get());
+    }
+
+    @Test
+    public void testContinuationIsRunOnReplyExecutor() throws IOException {
+        List<Runnable> tasks = new ArrayList<>();
+        RpcReplyDispatcher dispatcher = new RpcReplyDispatcher(channel, tasks::add);
+        AtomicInteger replies = new AtomicInteger();
+        String correlationId = dispatcher.register(new DefaultConsumer(channel) {
+            @Override
+            public void handleDelivery(String consumerTag, Envelope envelope,
+                                       AMQP.BasicProperties properties, byte[] body) {
+                replies.incrementAndGet();
+            }
+        }, null, 60000);
+
+        dispatcher.handleDelivery("tag", null,
+                new AMQP.BasicProperties.Builder().correlationId(correlationId).build(), new byte[0]);
+
+        Assert.assertEquals(0, replies.get());
+        Assert.assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        Assert.assertEquals(1, replies.get());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testFailRunsTimeoutHandlerAtOnce() throws IOException {
+        RpcReplyDispatcher dispatcher = new RpcReplyDispatcher(channel);
+        AtomicInteger timedOut = new AtomicInteger();
+        String correlationId = dispatcher.register(new DefaultConsumer(channel), timedOut::incrementAndGet, 60000);
+
+        dispatcher.fail(correlationId);
+
+        Assert.assertEquals(1, timedOut.get());
+        Assert.assertEquals(0, dispatcher.getPendingRepliesCount());
+        dispatcher.shutdown();
+        Assert.assertEquals(1, timedOut.get());
+    }
+}
@@ -0,0 +1,78 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.messaging.SemanticManagerAdmission;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static eu.h2020.symbiote.TestSetupConfig.PLATFORM_A_ID;
+import static eu.h2020.symbiote.TestSetupConfig.PLATFORM_B_ID;
+
+public class SemanticManagerAdmissionTests {
+
+    private final List<String> sent = new ArrayList<>();
+
+    @Test
+    public void testRequestsAbovePlatformLimitWaitUntilReleased() {
+        SemanticManagerAdmission admission = new SemanticManagerAdmission(10, 1, 10);
+
+        Assert.assertTrue(admission.submit(PLATFORM_A_ID, () -> sent.add("a1")));
+        Assert.assertTrue(admission.submit(PLATFORM_A_ID, () -> sent.add("a2")));
+        Assert.assertTrue(admission.submit(PLATFORM_B_ID, () -> sent.add("b1")));
+        Assert.assertEquals(2, sent.size());
+        Assert.assertEquals(1, admission.getQueuedCount());
+
+        admission.release(PLATFORM_A_ID);
+        Assert.assertEquals("a2", sent.get(2));
+        Assert.assertEquals(0, admission.getQueuedCount());
+        Assert.assertEquals(2, admission.getInFlightCount());
+    }
+
+    @Test
+    public void testRequestsAreRejectedWhenQueueIsFull() {
+        SemanticManagerAdmission admission = new SemanticManagerAdmission(1, 0, 1);
+
+        Assert.assertTrue(admission.submit(PLATFORM_A_ID, () -> sent.add("a1")));
+        Assert.assertTrue(admission.submit(PLATFORM_B_ID, () -> sent.add("b1")));
+        Assert.assertFalse(admission.submit(PLATFORM_B_ID, () -> sent.add("b2")));
+        Assert.assertEquals(1, admission.getRejectedCount());
+
+        admission.release(PLATFORM_A_ID);
+        admission.release(PLATFORM_B_ID);
+        Assert.assertEquals(2, sent.size());
+        Assert.assertEquals(0, admission.getInFlightCount());
+    }
+
+    @Test
+    public void testRequestWhichCouldNotBeSentIsReleased() {
+        SemanticManagerAdmission admission = new SemanticManagerAdmission(1, 1, 0);
+
+        admission.submit(PLATFORM_A_ID, () -> {
+            throw new IllegalStateException("channel closed");
+        });
+        Assert.assertEquals(0, admission.getInFlightCount());
+        Assert.assertTrue(admission.submit(PLATFORM_A_ID, () -> sent.add("a1")));
+    }
+
+    @Test
+    public void testQueuedRequestExpiresAfterMaxQueueTime() throws InterruptedException {
+        SemanticManagerAdmission admission = new SemanticManagerAdmission(1, 0, 10, 20);
+        List<String> expired = Collections.synchronizedList(new ArrayList<>());
+
+        Assert.assertTrue(admission.submit(PLATFORM_A_ID, () -> sent.add("a1")));
+        Assert.assertTrue(admission.submit(PLATFORM_B_ID, () -> sent.add("b1"), () -> expired.add("b1")));
+        Thread.sleep(50);
+        admission.expireQueued();
+
+        Assert.assertEquals(Collections.singletonList("b1"), expired);
+        Assert.assertEquals(0, admission.getQueuedCount());
+        Assert.assertEquals(1, admission.getExpiredCount());
+
+        admission.release(PLATFORM_A_ID);
+        Assert.assertEquals(Collections.singletonList("a1"), sent);
+        admission.shutdown();
+    }
+}
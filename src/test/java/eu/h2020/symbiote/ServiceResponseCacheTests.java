@@ -0,0 +1,54 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.managers.ServiceResponseCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServiceResponseCacheTests {
+
+    private final AtomicInteger signed = new AtomicInteger();
+    private ServiceResponseCache cache;
+
+    @After
+    public void teardown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void testResponseIsReusedWithinValidity() throws Exception {
+        cache = new ServiceResponseCache(60000, 0);
+        cache.setSigner(() -> "response" + signed.incrementAndGet());
+
+        Assert.assertEquals("response1", cache.get());
+        Assert.assertEquals("response1", cache.get());
+        Assert.assertEquals(1, cache.getSigningCount());
+        Assert.assertEquals(1, cache.getReuseCount());
+    }
+
+    @Test
+    public void testResponseIsRefreshedInBackgroundBeforeExpiry() throws Exception {
+        cache = new ServiceResponseCache(60000, 60000);
+        cache.setSigner(() -> "response" + signed.incrementAndGet());
+
+        Assert.assertEquals("response1", cache.get());
+        Assert.assertEquals("response1", cache.get());
+        for (int i = 0; i < 50 && cache.getSigningCount() < 2; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(2, cache.getSigningCount());
+        Assert.assertEquals("response2", cache.get());
+    }
+
+    @Test
+    public void testEveryCallSignsWhenValidityIsDisabled() throws Exception {
+        cache = new ServiceResponseCache(0, 0);
+        cache.setSigner(() -> "response" + signed.incrementAndGet());
+
+        Assert.assertEquals("response1", cache.get());
+        Assert.assertEquals("response2", cache.get());
+        Assert.assertEquals(0, cache.getReuseCount());
+    }
+}
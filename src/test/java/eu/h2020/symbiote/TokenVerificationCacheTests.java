@@ -0,0 +1,114 @@
+package eu.h2020.symbiote;
+
+import eu.h2020.symbiote.managers.TokenVerificationCache;
+import eu.h2020.symbiote.security.communication.payloads.SecurityCredentials;
+import eu.h2020.symbiote.security.communication.payloads.SecurityRequest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Set;
+
+import static eu.h2020.symbiote.TestSetupConfig.PLATFORM_A_ID;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TokenVerificationCacheTests {
+
+    private static final String COMPONENT_ID = "registry";
+    private static final Set<String> SATISFIED_POLICIES = Collections.singleton(PLATFORM_A_ID);
+
+    private TokenVerificationCache cache;
+
+    @Before
+    public void setup() {
+        cache = new TokenVerificationCache(10, 60000);
+    }
+
+    @Test
+    public void testSuccessfulVerificationIsSharedByRequestsWithTheSameToken() {
+        String token = tokenExpiringIn(3600);
+        SecurityRequest securityRequest = securityRequest(token, 1000L, "challenge1");
+        String key = cache.keyOf(securityRequest, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+
+        Assert.assertNull(cache.get(key));
+        cache.put(key, securityRequest, Collections.singleton(PLATFORM_A_ID), SATISFIED_POLICIES);
+
+        SecurityRequest nextRequest = securityRequest(token, 2000L, "challenge2");
+        String nextKey = cache.keyOf(nextRequest, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+        Assert.assertEquals(key, nextKey);
+        Assert.assertEquals(SATISFIED_POLICIES, cache.get(nextKey));
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testRequestsWithOtherTokenOrPlatformDoNotShareVerification() {
+        String token = tokenExpiringIn(3600);
+        String key = cache.keyOf(securityRequest(token, 1000L, "challenge1"), Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+
+        Assert.assertNotEquals(key, cache.keyOf(securityRequest(tokenExpiringIn(7200), 1000L, "challenge1"),
+                Collections.singleton(PLATFORM_A_ID), COMPONENT_ID));
+        Assert.assertNotEquals(key, cache.keyOf(securityRequest(token, 1000L, "challenge1"),
+                Collections.singleton("other platform"), COMPONENT_ID));
+    }
+
+    @Test
+    public void testExpiredTokensAndFailedVerificationsAreNotCached() {
+        SecurityRequest expired = securityRequest(tokenExpiringIn(-10), 1000L, "challenge");
+        String expiredKey = cache.keyOf(expired, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+        cache.put(expiredKey, expired, Collections.singleton(PLATFORM_A_ID), SATISFIED_POLICIES);
+
+        SecurityRequest failed = securityRequest(tokenExpiringIn(3600), 1000L, "challenge");
+        String failedKey = cache.keyOf(failed, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+        cache.put(failedKey, failed, Collections.singleton(PLATFORM_A_ID), Collections.emptySet());
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testRemovedPlatformInvalidatesVerifications() {
+        SecurityRequest securityRequest = securityRequest(tokenExpiringIn(3600), 1000L, "challenge");
+        String key = cache.keyOf(securityRequest, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+        cache.put(key, securityRequest, Collections.singleton(PLATFORM_A_ID), SATISFIED_POLICIES);
+
+        cache.invalidatePlatform(PLATFORM_A_ID);
+        Assert.assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testRevokedTokenEvictsVerificationsDoneWithIt() {
+        String token = tokenExpiringIn(3600);
+        SecurityRequest securityRequest = securityRequest(token, 1000L, "challenge");
+        String key = cache.keyOf(securityRequest, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+        cache.put(key, securityRequest, Collections.singleton(PLATFORM_A_ID), SATISFIED_POLICIES);
+        SecurityRequest otherRequest = securityRequest(tokenExpiringIn(7200), 1000L, "challenge");
+        String otherKey = cache.keyOf(otherRequest, Collections.singleton(PLATFORM_A_ID), COMPONENT_ID);
+        cache.put(otherKey, otherRequest, Collections.singleton(PLATFORM_A_ID), SATISFIED_POLICIES);
+
+        cache.revokeToken(token);
+
+        Assert.assertNull(cache.get(key));
+        Assert.assertEquals(SATISFIED_POLICIES, cache.get(otherKey));
+    }
+
+    private static SecurityRequest securityRequest(String token, long timestamp, String challenge) {
+        SecurityCredentials credentials = mock(SecurityCredentials.class);
+        when(credentials.getToken()).thenReturn(token);
+        when(credentials.getAuthenticationChallenge()).thenReturn(challenge);
+        SecurityRequest securityRequest = mock(SecurityRequest.class);
+        when(securityRequest.getSecurityCredentials()).thenReturn(Collections.singleton(credentials));
+        when(securityRequest.getTimestamp()).thenReturn(timestamp);
+        return securityRequest;
+    }
+
+    private static String tokenExpiringIn(long seconds) {
+        long expiry = System.currentTimeMillis() / 1000 + seconds;
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"ES256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"sub\":\"user\",\"exp\":" + expiry + "}").getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+    }
+}